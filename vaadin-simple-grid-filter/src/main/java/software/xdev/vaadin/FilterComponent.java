@@ -15,18 +15,13 @@
  */
 package software.xdev.vaadin;
 
-import static software.xdev.vaadin.comparators.IsBetweenComparator.IS_BETWEEN_COMPARATOR_DESCRIPTION;
 import static software.xdev.vaadin.comparators.IsBetweenComparator.IS_BETWEEN_COMPARATOR_SEPARATOR;
 import static software.xdev.vaadin.qp.QueryParameterManager.NO_BADGE_ID_STRING;
-import static software.xdev.vaadin.qp.QueryParameterManager.QUERY_BADGE_DELETABLE_STRING;
-import static software.xdev.vaadin.qp.QueryParameterManager.QUERY_BADGE_EDITABLE_STRING;
-import static software.xdev.vaadin.qp.QueryParameterManager.QUERY_BADGE_ID_STRING;
-import static software.xdev.vaadin.qp.QueryParameterManager.QUERY_COMPONENT_ID_STRING;
-import static software.xdev.vaadin.qp.QueryParameterManager.QUERY_CONDITION_STRING;
-import static software.xdev.vaadin.qp.QueryParameterManager.QUERY_FIELD_STRING;
-import static software.xdev.vaadin.qp.QueryParameterManager.QUERY_INPUT_STRING;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -37,41 +32,68 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Composite;
+import com.vaadin.flow.component.HasValue;
 import com.vaadin.flow.component.ItemLabelGenerator;
 import com.vaadin.flow.component.Key;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.datetimepicker.DateTimePicker;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.select.Select;
 import com.vaadin.flow.component.textfield.BigDecimalField;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.provider.DataChangeEvent;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.ListDataProvider;
 import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.function.SerializableBiFunction;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
-import com.vaadin.flow.router.Location;
-import com.vaadin.flow.router.QueryParameters;
+import com.vaadin.flow.shared.Registration;
 
 import software.xdev.vaadin.builder.CustomizableFilterBuilder;
 import software.xdev.vaadin.comparators.ContainsComparator;
 import software.xdev.vaadin.comparators.FilterComparator;
+import software.xdev.vaadin.comparators.FilterComparatorRegistry;
+import software.xdev.vaadin.comparators.IsBetweenComparator;
 import software.xdev.vaadin.comparators.utl.StringFormatsToDateTimeFormatter;
+import software.xdev.vaadin.data.FilterDataProvider;
+import software.xdev.vaadin.data.FilterEngine;
+import software.xdev.vaadin.data.FilterEvaluationTimeoutException;
+import software.xdev.vaadin.data.FilterKey;
+import software.xdev.vaadin.data.MatchSet;
+import software.xdev.vaadin.data.SharedMatchSetCache;
 import software.xdev.vaadin.daterange_picker.business.DateRange;
 import software.xdev.vaadin.daterange_picker.business.DateRangeModel;
 import software.xdev.vaadin.daterange_picker.business.SimpleDateRanges;
@@ -82,8 +104,16 @@ import software.xdev.vaadin.model.CustomizationDegree;
 import software.xdev.vaadin.model.FilterCondition;
 import software.xdev.vaadin.model.FilterField;
 import software.xdev.vaadin.model.FilterFieldEnumExtension;
+import software.xdev.vaadin.model.FilterSchema;
+import software.xdev.vaadin.model.FilterState;
+import software.xdev.vaadin.model.InitialFilter;
 import software.xdev.vaadin.model.SimpleFilterField;
+import software.xdev.vaadin.preset.FilterPreset;
+import software.xdev.vaadin.preset.FilterPresetStore;
+import software.xdev.vaadin.qp.QueryCondition;
+import software.xdev.vaadin.qp.QueryParameterLimits;
 import software.xdev.vaadin.qp.QueryParameterManager;
+import software.xdev.vaadin.qp.UrlState;
 
 
 /**
@@ -94,9 +124,12 @@ import software.xdev.vaadin.qp.QueryParameterManager;
 @SuppressWarnings("PMD.GodClass") // Fixed in v2
 public class FilterComponent<T> extends Composite<VerticalLayout> implements BeforeEnterObserver
 {
+	private static final Logger LOG = LoggerFactory.getLogger(FilterComponent.class);
+	
 	public static final String CHIP_BADGE_FILTER_COMPONENT = "chipFilterComponent";
 	public static final String BTN_ACCEPT_FILTER_FILTER_COMPONENT = "btnAcceptFilterFilterComponent";
 	public static final String TXT_SEARCH_QUERY_FILTER_COMPONENT = "txtSearchQueryFilterComponent";
+	public static final String CMB_SEARCH_QUERY_FILTER_COMPONENT = "cmbSearchQueryFilterComponent";
 	public static final String NMB_SEARCH_QUERY_FILTER_COMPONENT = "nmbSearchQueryFilterComponent";
 	public static final String DATE_TIME_SEARCH_QUERY_FILTER_COMPONENT = "dateTimeSearchQueryFilterComponent";
 	public static final String DATE_SEARCH_QUERY_FILTER_COMPONENT = "dateSearchQueryFilterComponent";
@@ -108,6 +141,13 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	public static final String DATE_RANGE_PICKER_QUERY_FILTER_COMPONENT = "dateRangePickerQueryFilterComponent";
 	public static final String DELETED_INITIAL_CONDITION_STRING = "deletedInitialCondition";
 	public static final String BTN_RESET_FILTER_FILTER_COMPONENT = "btnResetFilterFilterComponent";
+	public static final String BTN_CHIP_BADGE_OVERFLOW_FILTER_COMPONENT = "btnChipBadgeOverflowFilterComponent";
+	public static final String LBL_MATCH_PREVIEW_FILTER_COMPONENT = "lblMatchPreviewFilterComponent";
+	
+	private static final long MATCH_PREVIEW_DELAY_MS = 300;
+	private static final int MATCH_PREVIEW_SAMPLE_SIZE = 10_000;
+	// Client side property of the combo box holding the typed text
+	private static final String COMBO_BOX_FILTER_PROPERTY = "filter";
 	
 	private final UI ui;
 	private final Button btnAddNewFilter = new Button("Add filter");
@@ -116,21 +156,34 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	private final Button btnResetFilter = new Button(VaadinIcon.ROTATE_RIGHT.create());
 	private final Select<FilterField<T, ?>> selFields = new Select<>();
 	private final Select<FilterComparator> selOperations = new Select<>();
-	private final TextField txtSearchQuery = new TextField();
-	private final BigDecimalField nmbSearchQuery = new BigDecimalField();
-	private final DatePicker dateSearchQuery = new DatePicker();
-	private final DateTimePicker dateTimeSearchQuery = new DateTimePicker();
-	private final Select<String> selSearchQuery = new Select<>();
 	private final HorizontalLayout hlChipBadges = new HorizontalLayout();
-	private DateRangePicker<DateRange> dateRangePickerQuery = createDateRangePicker();
+	private final Button btnChipBadgeOverflow = new Button();
 	
-	// Settings
-	private static DateRangePicker<DateRange> createDateRangePicker()
-	{
-		return new DateRangePicker<>(
-			() -> new DateRangeModel<>(LocalDate.now(), LocalDate.now(), SimpleDateRanges.TODAY),
-			SimpleDateRanges.allValues());
-	}
+	// Input components - only the one matching the selected field is created while the filter row is shown
+	private TextField txtSearchQuery;
+	private ComboBox<String> cmbSearchQuery;
+	private BigDecimalField nmbSearchQuery;
+	private DatePicker dateSearchQuery;
+	private DateTimePicker dateTimeSearchQuery;
+	private Select<String> selSearchQuery;
+	private DateRangePicker<DateRange> dateRangePickerQuery;
+	
+	// Settings - applied when the input components are created
+	private DatePicker.DatePickerI18n datePickerI18n;
+	private DatePicker.DatePickerI18n dateTimePickerI18n;
+	private DatePicker.DatePickerI18n dateRangePickerI18n;
+	private Locale datePickerLocale;
+	private Locale dateTimePickerLocale;
+	private DateRangeModel<DateRange> customDateRangeModel;
+	private Collection<DateRange> customDateRanges;
+	private ItemLabelGenerator<DateRange> dateRangeLocalizerFunction;
+	private String dateRangeStartLabel;
+	private String dateRangeEndLabel;
+	private String dateRangeOptionsLabel;
+	private ValueChangeMode inputValueChangeMode = ValueChangeMode.LAZY;
+	private int inputValueChangeTimeout = ValueChangeMode.DEFAULT_CHANGE_TIMEOUT;
+	private int maxValueSuggestions;
+	private boolean facetCountsShown;
 	
 	// Container
 	private final HorizontalLayout hlFilter = new HorizontalLayout();
@@ -139,24 +192,61 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	private final List<ChipBadgeExtension<FilterCondition<T, ?>>> chipBadges = new ArrayList<>();
 	private final List<ChipBadgeExtension<FilterCondition<T, ?>>> initialChipBadges = new ArrayList<>();
 	
+	private int maxVisibleChipBadges = Integer.MAX_VALUE;
+	private boolean chipBadgesExpanded;
+	
 	private int initialConditionIdCounter = 1;
 	private String editingBadgeId;
 	private Boolean editingBadgeEnabled;
 	private Boolean deletingBadgeEnabled;
 	
 	private final List<FilterField<T, ?>> filterFields = new ArrayList<>();
+	// Derived from the filterFields - not serialized
+	private transient Map<String, FilterField<T, ?>> filterFieldsByDescription = new HashMap<>();
+	private transient Map<String, FilterField<T, ?>> filterFieldsById = new HashMap<>();
 	private final Grid<T> dataGrid;
+	private Registration replacedDataProviderRegistration;
+	// Application-scoped - the default cache is re-attached after deserialization
+	private transient SharedMatchSetCache sharedResultCache;
+	private boolean defaultSharedResultCache;
+	private String sharedResultDatasetId;
+	private long sharedResultDatasetVersion;
+	
+	// Background work - materialized presets and the match preview
+	private transient Executor backgroundExecutor;
+	
+	// Presets
+	private FilterPresetStore presetStore;
+	private FilterEngine<T> materializedEngine;
+	private transient long materializedRevision;
+	private Set<FilterKey> materializedPresetKeys = new HashSet<>();
+	private Registration presetDataChangeRegistration;
+	
+	// Match preview - shows how many rows would match the condition which is currently composed
+	private final Span lblMatchPreview = new Span();
+	private boolean matchPreviewShown;
+	private SerializableBiFunction<Long, Boolean, String> matchPreviewLabelGenerator =
+		FilterComponent::defaultMatchPreviewLabel;
+	private transient AtomicBoolean matchPreviewCancellation;
+	
+	// Search as you type - the contains condition which is currently typed is applied to the grid
+	private boolean searchAsYouType;
+	private FilterCondition<T, ?> liveCondition;
+	// The condition of the badge which is currently edited - stays applied until the edit is accepted
+	private FilterCondition<T, ?> editedCondition;
 	
 	private String identifier = "";
 	
-	// Query
-	private List<String> queryComponentIds = new LinkedList<>();
-	private List<String> queryFields = new LinkedList<>();
-	private List<String> queryConditionFields = new LinkedList<>();
-	private List<String> queryInputFields = new LinkedList<>();
-	private List<String> queryBadgeIds = new LinkedList<>();
-	private List<String> queryBadgeEditables = new LinkedList<>();
-	private List<String> queryBadgeDeletables = new LinkedList<>();
+	// Batching - while active, the field items and the grid filter are only updated once at the end
+	private boolean batchUpdates;
+	private boolean fieldItemsUpdatePending;
+	private boolean gridFilterUpdatePending;
+	
+	// Query - the conditions of this component in the order they are stored in the url
+	private final List<QueryCondition> queryConditions = new ArrayList<>();
+	private QueryParameterLimits queryParameterLimits = QueryParameterLimits.defaults();
+	// Only set while conditions from the url are applied
+	private transient Duration evaluationTimeBudget;
 	
 	public FilterComponent(final Grid<T> dataGrid)
 	{
@@ -172,31 +262,19 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		
 		// click listener
 		this.btnAddNewFilter.addClickListener(e -> this.onShowFilterInput());
-		this.btnCancelFilter.addClickListener(e -> this.hlFilter.removeAll());
+		this.btnCancelFilter.addClickListener(e -> this.closeFilterInput());
 		this.btnAcceptFilter.addClickListener(e -> this.onAcceptFilter());
 		this.btnResetFilter.addClickListener(e -> this.onResetFilter());
+		this.btnChipBadgeOverflow.addClickListener(e ->
+		{
+			this.chipBadgesExpanded = !this.chipBadgesExpanded;
+			this.updateChipBadgeOverflow();
+		});
 		
 		// value change listener
 		this.selFields.addValueChangeListener(e -> this.onFieldChange(this.selFields.getValue()));
 		this.selOperations.addValueChangeListener(e -> this.onOperatorChanged());
 		
-		// if input values from user and operations are null, do not activate 'btnAcceptFilter'
-		this.nmbSearchQuery.addValueChangeListener(e ->
-			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
-		this.dateSearchQuery.addValueChangeListener(e ->
-			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
-		this.dateTimeSearchQuery.addValueChangeListener(e ->
-			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
-		this.dateRangePickerQuery.addValueChangeListener(e ->
-			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
-		this.selSearchQuery.addValueChangeListener(e ->
-			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
-		this.txtSearchQuery.addValueChangeListener(e ->
-			this.btnAcceptFilter.setEnabled(!e.getValue().isBlank() && this.selOperations.getValue() != null));
-		
-		this.nmbSearchQuery.setValueChangeMode(ValueChangeMode.EAGER);
-		this.txtSearchQuery.setValueChangeMode(ValueChangeMode.EAGER);
-		
 		// renderer
 		this.selFields.setTextRenderer(FilterField::getDescription);
 		this.selOperations.setTextRenderer(FilterComparator::getDescription);
@@ -209,187 +287,877 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		
 		this.btnResetFilter.setEnabled(false);
 		
+		this.btnChipBadgeOverflow.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY);
+		this.btnChipBadgeOverflow.setVisible(false);
+		
 		// ids
 		this.btnAcceptFilter.setId(BTN_ACCEPT_FILTER_FILTER_COMPONENT);
 		this.btnCancelFilter.setId(BTN_CANCEL_FILTER_FILTER_COMPONENT);
 		this.btnResetFilter.setId(BTN_RESET_FILTER_FILTER_COMPONENT);
 		this.selFields.setId(SEL_FIELDS_FILTER_COMPONENT);
 		this.selOperations.setId(SEL_OPERATIONS_FILTER_COMPONENT);
+		this.btnAddNewFilter.setId(BTN_ADD_NEW_FILTER_FILTER_COMPONENT);
+		this.btnChipBadgeOverflow.setId(BTN_CHIP_BADGE_OVERFLOW_FILTER_COMPONENT);
+		this.lblMatchPreview.setId(LBL_MATCH_PREVIEW_FILTER_COMPONENT);
+		this.lblMatchPreview.setVisible(false);
+	}
+	
+	private TextField createTxtSearchQuery()
+	{
+		this.txtSearchQuery = new TextField();
 		this.txtSearchQuery.setId(TXT_SEARCH_QUERY_FILTER_COMPONENT);
+		this.txtSearchQuery.setValueChangeMode(this.inputValueChangeMode);
+		this.txtSearchQuery.setValueChangeTimeout(this.inputValueChangeTimeout);
+		// if input values from user and operations are null, do not activate 'btnAcceptFilter'
+		this.txtSearchQuery.addValueChangeListener(e ->
+		{
+			this.btnAcceptFilter.setEnabled(!e.getValue().isBlank() && this.selOperations.getValue() != null);
+			this.updateLiveCondition();
+		});
+		return this.txtSearchQuery;
+	}
+	
+	/**
+	 * Creates a combo box which suggests the most frequent values of the field starting with the typed text. Other
+	 * values can be entered too.
+	 */
+	private ComboBox<String> createCmbSearchQuery(final FilterField<T, ?> filterField)
+	{
+		this.cmbSearchQuery = new ComboBox<>();
+		this.cmbSearchQuery.setId(CMB_SEARCH_QUERY_FILTER_COMPONENT);
+		this.cmbSearchQuery.setAllowCustomValue(true);
+		this.cmbSearchQuery.addCustomValueSetListener(e -> this.cmbSearchQuery.setValue(e.getDetail()));
+		// Only the requested page of the suggestions is fetched
+		this.cmbSearchQuery.setItems(query -> this.getFilterDataProvider().getEngine()
+			.getDistinctValueIndex(filterField)
+			.suggest(query.getFilter().orElse(""), this.maxValueSuggestions)
+			.stream()
+			.skip(query.getOffset())
+			.limit(query.getLimit()));
+		this.cmbSearchQuery.addValueChangeListener(e ->
+		{
+			this.btnAcceptFilter.setEnabled(e.getValue() != null
+				&& !e.getValue().isBlank()
+				&& this.selOperations.getValue() != null);
+			this.updateLiveCondition();
+		});
+		// The typed text is only the filter of the suggestions until it's committed as value
+		this.cmbSearchQuery.getElement()
+			.addPropertyChangeListener(COMBO_BOX_FILTER_PROPERTY, "filter-changed", e -> this.updateLiveCondition());
+		return this.cmbSearchQuery;
+	}
+	
+	private BigDecimalField createNmbSearchQuery()
+	{
+		this.nmbSearchQuery = new BigDecimalField();
 		this.nmbSearchQuery.setId(NMB_SEARCH_QUERY_FILTER_COMPONENT);
+		this.nmbSearchQuery.setValueChangeMode(this.inputValueChangeMode);
+		this.nmbSearchQuery.setValueChangeTimeout(this.inputValueChangeTimeout);
+		this.nmbSearchQuery.addValueChangeListener(e ->
+			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
+		return this.nmbSearchQuery;
+	}
+	
+	private DatePicker createDateSearchQuery()
+	{
+		this.dateSearchQuery = new DatePicker();
 		this.dateSearchQuery.setId(DATE_SEARCH_QUERY_FILTER_COMPONENT);
+		Optional.ofNullable(this.datePickerI18n).ifPresent(this.dateSearchQuery::setI18n);
+		Optional.ofNullable(this.datePickerLocale).ifPresent(this.dateSearchQuery::setLocale);
+		this.dateSearchQuery.addValueChangeListener(e ->
+			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
+		return this.dateSearchQuery;
+	}
+	
+	private DateTimePicker createDateTimeSearchQuery()
+	{
+		this.dateTimeSearchQuery = new DateTimePicker();
 		this.dateTimeSearchQuery.setId(DATE_TIME_SEARCH_QUERY_FILTER_COMPONENT);
+		Optional.ofNullable(this.dateTimePickerI18n).ifPresent(this.dateTimeSearchQuery::setDatePickerI18n);
+		Optional.ofNullable(this.dateTimePickerLocale).ifPresent(this.dateTimeSearchQuery::setLocale);
+		this.dateTimeSearchQuery.addValueChangeListener(e ->
+			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
+		return this.dateTimeSearchQuery;
+	}
+	
+	private Select<String> createSelSearchQuery()
+	{
+		this.selSearchQuery = new Select<>();
 		this.selSearchQuery.setId(SEL_SEARCH_QUERY_FILTER_COMPONENT);
-		this.btnAddNewFilter.setId(BTN_ADD_NEW_FILTER_FILTER_COMPONENT);
-		this.dateRangePickerQuery.setId(DATE_RANGE_PICKER_QUERY_FILTER_COMPONENT);
+		this.selSearchQuery.addValueChangeListener(e ->
+			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
+		return this.selSearchQuery;
 	}
 	
-	private void onResetFilter()
+	private DateRangePicker<DateRange> createDateRangePicker()
 	{
-		final List<ChipBadgeExtension<FilterCondition<T, ?>>> copyChipBadges = new ArrayList<>(this.chipBadges);
-		for(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge : copyChipBadges)
+		if(this.customDateRangeModel != null)
+		{
+			this.dateRangePickerQuery = new DateRangePicker<>(this.customDateRangeModel, this.customDateRanges);
+		}
+		else
 		{
-			this.removeChipBadgeCondition(chipBadge);
+			this.dateRangePickerQuery = new DateRangePicker<>(
+				() -> new DateRangeModel<>(LocalDate.now(), LocalDate.now(), SimpleDateRanges.TODAY),
+				SimpleDateRanges.allValues());
 		}
 		
-		// Creating the initial filter again
-		this.chipBadges.addAll(this.initialChipBadges);
-		this.initialChipBadges.forEach(this.hlChipBadges::add);
-		this.updateGridFilter();
+		this.dateRangePickerQuery.setId(DATE_RANGE_PICKER_QUERY_FILTER_COMPONENT);
+		Optional.ofNullable(this.dateRangePickerI18n).ifPresent(this.dateRangePickerQuery::withDatePickerI18n);
 		
-		// Remove query parameter
-		this.ui.getPage().fetchCurrentURL(currentUrl ->
-			this.ui
-				.getPage()
-				.getHistory()
-				.replaceState(null, currentUrl.getPath()));
+		if(this.dateRangeLocalizerFunction != null)
+		{
+			this.dateRangePickerQuery.withDateRangeLocalizerFunction(this.dateRangeLocalizerFunction);
+			this.dateRangePickerQuery.setStartLabel(this.dateRangeStartLabel);
+			this.dateRangePickerQuery.setEndLabel(this.dateRangeEndLabel);
+			this.dateRangePickerQuery.setDateRangeOptionsLabel(this.dateRangeOptionsLabel);
+		}
 		
-		// Disable reset button again
-		this.btnResetFilter.setEnabled(false);
+		this.dateRangePickerQuery.addValueChangeListener(e ->
+			this.btnAcceptFilter.setEnabled(e.getValue() != null && this.selOperations.getValue() != null));
+		return this.dateRangePickerQuery;
 	}
 	
-	private void onOperatorChanged()
+	/**
+	 * Replaces the currently shown input component with a newly created one.
+	 *
+	 * @param inputComponentFactory Creates the new input component.
+	 */
+	private void showInputComponent(final Supplier<? extends Component> inputComponentFactory)
 	{
-		this.btnAcceptFilter.setEnabled(this.shouldTheAcceptButtonBeEnabled());
+		this.releaseInputComponents();
 		
-		if(this.selOperations.getValue() != null)
+		// The input component is placed between the operation select and the buttons
+		final Component inputComponent = inputComponentFactory.get();
+		this.hlFilter.addComponentAtIndex(2, inputComponent);
+		
+		if(this.matchPreviewShown && inputComponent instanceof final HasValue<?, ?> hasValue)
 		{
-			if(this.selFields.getValue() instanceof FilterFieldEnumExtension)
+			hasValue.addValueChangeListener(e -> this.updateMatchPreview());
+		}
+		this.updateMatchPreview();
+		this.updateLiveCondition();
+	}
+	
+	/**
+	 * Applies the contains condition which is currently typed to the grid if search as you type is active.
+	 * <p>
+	 * As a longer query only matches a subset of the rows of the previous one, the {@link FilterEngine} only checks the
+	 * previous matches again. Shorter queries (e.g. after deleting a character) are usually served from the result
+	 * cache.
+	 * </p>
+	 */
+	private void updateLiveCondition()
+	{
+		if(!this.searchAsYouType)
+		{
+			return;
+		}
+		
+		final FilterField<T, ?> field = this.selFields.getValue();
+		final FilterComparator comparator = this.selOperations.getValue();
+		final String typed = this.getTypedSearchQuery();
+		final FilterCondition<T, ?> newLiveCondition =
+			field != null
+				&& field.getType() == String.class
+				&& comparator instanceof ContainsComparator
+				&& !typed.isEmpty()
+				? new FilterCondition<>(field, comparator, typed)
+				: null;
+		
+		final boolean unchanged = this.liveCondition == null
+			? newLiveCondition == null
+			: newLiveCondition != null
+				&& this.liveCondition.getItem() == newLiveCondition.getItem()
+				&& this.liveCondition.getSelectedCondition() == newLiveCondition.getSelectedCondition()
+				&& this.liveCondition.getInputValue().equals(newLiveCondition.getInputValue());
+		if(!unchanged)
+		{
+			this.liveCondition = newLiveCondition;
+			this.updateGridFilter();
+		}
+	}
+	
+	/**
+	 * @return The text which is currently typed into the text field or the combo box, an empty string if neither is
+	 * shown.
+	 */
+	private String getTypedSearchQuery()
+	{
+		if(this.txtSearchQuery != null)
+		{
+			return this.txtSearchQuery.getValue();
+		}
+		if(this.cmbSearchQuery != null)
+		{
+			final String filter = this.cmbSearchQuery.getElement().getProperty(COMBO_BOX_FILTER_PROPERTY, "");
+			if(!filter.isEmpty())
+			{
+				return filter;
+			}
+			return Objects.requireNonNullElse(this.cmbSearchQuery.getValue(), "");
+		}
+		return "";
+	}
+	
+	/**
+	 * Computes in the background how many rows would match after adding the condition which is currently composed.
+	 * A previous computation is cancelled. At most {@link #MATCH_PREVIEW_SAMPLE_SIZE} rows are checked - the count is
+	 * extrapolated for more rows. The sample is taken from the rows matching the badges if they are already known,
+	 * otherwise from all rows which are then also checked against the badges. Nothing is evaluated on the request
+	 * thread.
+	 */
+	private void updateMatchPreview()
+	{
+		this.cancelMatchPreview();
+		if(!this.matchPreviewShown || this.ui == null || !this.shouldTheAcceptButtonBeEnabled())
+		{
+			return;
+		}
+		
+		final Predicate<T> predicate;
+		try
+		{
+			predicate = new FilterCondition<>(
+				this.selFields.getValue(),
+				this.selOperations.getValue(),
+				this.getValueFromVisibleComponent())
+				.createPredicate();
+		}
+		catch(final RuntimeException e)
+		{
+			// Incomplete input
+			return;
+		}
+		
+		// The current matches may already contain the typed or edited condition, so the badges are used
+		final FilterEngine<T> engine = this.getFilterDataProvider().getEngine();
+		final List<FilterCondition<T, ?>> badgeConditions = this.chipBadges.stream()
+			.map(ChipBadge::getItem)
+			.toList();
+		final MatchSet base = engine.getKnownMatchSetOf(badgeConditions);
+		final Predicate<T> samplePredicate = base != null
+			? predicate
+			: FilterEngine.compile(badgeConditions).and(predicate);
+		
+		// Evenly distributed sample, so that the request thread only copies a few rows
+		final int populationSize = base != null ? base.size() : engine.getRows().size();
+		final int sampleSize = Math.min(populationSize, MATCH_PREVIEW_SAMPLE_SIZE);
+		final List<T> sample = new ArrayList<>(sampleSize);
+		for(int i = 0; i < sampleSize; i++)
+		{
+			final int rank = (int)((long)i * populationSize / sampleSize);
+			sample.add(engine.getRow(base != null ? base.select(rank) : rank));
+		}
+		
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		this.matchPreviewCancellation = cancelled;
+		final UI previewUi = this.ui;
+		CompletableFuture.runAsync(
+			() ->
 			{
-				final boolean isSelSearchQueryVisible = this.selSearchQuery.isVisible();
+				if(cancelled.get())
+				{
+					return;
+				}
 				
-				// Change to a text field if the field is of type enum with condition 'contains'
-				if(isSelSearchQueryVisible
-					&& ContainsComparator.CONTAINS_COMPARATOR_DESCRIPTION.equals(
-					this.selOperations.getValue()
-						.getDescription()))
+				long matches = 0;
+				try
 				{
-					this.selSearchQuery.setVisible(false);
-					this.txtSearchQuery.setVisible(true);
-					
-					this.btnAcceptFilter.setEnabled(this.shouldTheAcceptButtonBeEnabled());
+					for(int i = 0; i < sample.size(); i++)
+					{
+						if((i & 1023) == 0 && cancelled.get())
+						{
+							return;
+						}
+						if(samplePredicate.test(sample.get(i)))
+						{
+							matches++;
+						}
+					}
 				}
-				else if(!isSelSearchQueryVisible)
+				catch(final RuntimeException ex)
 				{
-					this.selSearchQuery.setVisible(true);
-					this.txtSearchQuery.setVisible(false);
-					
-					this.setEnumSelectValues(this.selFields.getValue());
+					// Invalid input, e.g. a malformed number
+					return;
 				}
-			}
-			else if(this.selFields.getValue() != null && this.selFields.getValue().getType() == LocalDate.class)
-			{
-				if(this.selOperations.getValue().getDescription().contains(IS_BETWEEN_COMPARATOR_DESCRIPTION))
+				
+				final boolean estimated = sampleSize != populationSize;
+				final long estimatedMatches = estimated
+					? Math.round((double)matches * populationSize / sampleSize)
+					: matches;
+				try
 				{
-					this.dateRangePickerQuery.setVisible(true);
-					this.dateSearchQuery.setVisible(false);
-					
-					// Validating if the accept filter button should be activated because the date range picker
-					// has already a value by default
-					this.btnAcceptFilter.setEnabled(this.shouldTheAcceptButtonBeEnabled());
+					previewUi.access(() ->
+					{
+						if(!cancelled.get())
+						{
+							this.lblMatchPreview.setText(
+								this.matchPreviewLabelGenerator.apply(estimatedMatches, estimated));
+							this.lblMatchPreview.setVisible(true);
+						}
+					});
 				}
-				else if(this.selOperations.getValue() != null)
+				catch(final UIDetachedException ex)
 				{
-					this.dateRangePickerQuery.setVisible(false);
-					this.dateSearchQuery.setVisible(true);
+					// The UI was closed in the meantime
 				}
-			}
-		}
+			},
+			CompletableFuture.delayedExecutor(
+				MATCH_PREVIEW_DELAY_MS,
+				TimeUnit.MILLISECONDS,
+				this.getBackgroundExecutor()));
 	}
 	
-	private void onShowFilterInput()
+	private void cancelMatchPreview()
 	{
-		
-		if(this.hlFilter.getChildren().findAny().isEmpty())
+		if(this.matchPreviewCancellation != null)
 		{
-			// Needed if the previous condition was an editable initial condition
-			// The editable initial condition makes the cancel button invisible
-			this.btnCancelFilter.setVisible(true);
-			
-			this.selFields.setValue(null);
-			this.selFields.setReadOnly(false);
-			this.selOperations.setItems(Collections.emptyList());
-			this.selOperations.setEnabled(false);
-			this.selOperations.setReadOnly(false);
-			this.btnAcceptFilter.setEnabled(false);
-			this.txtSearchQuery.clear();
-			this.nmbSearchQuery.clear();
-			this.dateSearchQuery.clear();
-			this.dateTimeSearchQuery.clear();
-			this.selSearchQuery.clear();
-			this.setInputComponentVisibility(String.class);
-			
-			this.hlFilter.add(
-				this.selFields,
-				this.selOperations,
+			this.matchPreviewCancellation.set(true);
+			this.matchPreviewCancellation = null;
+		}
+		this.lblMatchPreview.setVisible(false);
+	}
+	
+	/**
+	 * Removes all input components from the filter row and drops the references, so that they don't occupy any
+	 * memory while they are not needed.
+	 */
+	private void releaseInputComponents()
+	{
+		Stream.of(
 				this.txtSearchQuery,
+				this.cmbSearchQuery,
 				this.nmbSearchQuery,
 				this.dateSearchQuery,
 				this.dateTimeSearchQuery,
-				this.dateRangePickerQuery,
 				this.selSearchQuery,
-				this.btnCancelFilter,
-				this.btnAcceptFilter
-			);
-		}
+				this.dateRangePickerQuery)
+			.filter(Objects::nonNull)
+			.forEach(Component::removeFromParent);
+		
+		this.txtSearchQuery = null;
+		this.cmbSearchQuery = null;
+		this.nmbSearchQuery = null;
+		this.dateSearchQuery = null;
+		this.dateTimeSearchQuery = null;
+		this.selSearchQuery = null;
+		this.dateRangePickerQuery = null;
 	}
 	
 	/**
-	 * Method used to make the select field and select condition dependent on the customization degree readonly.
-	 *
-	 * @param usedCustomizationDegree Used to set which input field is readonly.
+	 * Hides the filter row and releases the input components.
 	 */
-	private void setUsedCustomizationDegreeForComponents(final CustomizationDegree usedCustomizationDegree)
+	private void closeFilterInput()
 	{
-		if(usedCustomizationDegree.equals(CustomizationDegree.INPUT_VALUE))
-		{
-			this.selFields.setReadOnly(true);
-			this.selOperations.setReadOnly(true);
-		}
-		else if(usedCustomizationDegree.equals(CustomizationDegree.CONDITION_AND_INPUT_VALUE))
+		this.cancelMatchPreview();
+		if(this.liveCondition != null || this.editedCondition != null)
 		{
-			this.selFields.setReadOnly(true);
-			this.selOperations.setReadOnly(false);
+			this.liveCondition = null;
+			this.editedCondition = null;
+			this.updateGridFilter();
 		}
-		else
+		this.hlFilter.removeAll();
+		this.releaseInputComponents();
+	}
+	
+	private void onResetFilter()
+	{
+		this.runBatched(() ->
 		{
-			this.selFields.setReadOnly(false);
-			this.selOperations.setReadOnly(false);
-		}
+			// The condition being edited or typed would otherwise stay applied
+			this.closeFilterInput();
+			this.editingBadgeId = null;
+			
+			final List<ChipBadgeExtension<FilterCondition<T, ?>>> copyChipBadges = new ArrayList<>(this.chipBadges);
+			for(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge : copyChipBadges)
+			{
+				this.removeChipBadgeCondition(chipBadge);
+			}
+			
+			// Creating the initial filter again
+			this.chipBadges.addAll(this.initialChipBadges);
+			this.initialChipBadges.forEach(this.hlChipBadges::add);
+			this.updateChipBadgeOverflow();
+			this.updateGridFilter();
+		});
+		
+		// Remove query parameters of this component
+		this.queryConditions.clear();
+		this.updateUrl();
+		
+		// Disable reset button again
+		this.btnResetFilter.setEnabled(false);
 	}
 	
 	/**
-	 * Clicking on the accept filter button.
+	 * Creates a snapshot of the current conditions. In contrast to the component the snapshot is small, immutable
+	 * and doesn't reference any fields or components, so it can e.g. be kept in the session instead of the component.
+	 *
+	 * @return The current conditions in the order of the badges.
+	 * @see #restoreState(FilterState)
 	 */
-	private void onAcceptFilter()
+	public FilterState exportState()
 	{
-		final String userInput = this.getValueFromVisibleComponent();
+		return new FilterState(this.chipBadges.stream().map(this::createQueryCondition).toList());
+	}
+	
+	/**
+	 * Replaces the current conditions with the ones of the snapshot. Initial filters contained in the snapshot are
+	 * kept, the other ones are removed. Conditions with unknown fields or comparators are ignored. The grid and the
+	 * url are only updated once.
+	 *
+	 * @param state The snapshot created by {@link #exportState()}.
+	 */
+	public void restoreState(final FilterState state)
+	{
+		Objects.requireNonNull(state);
 		
-		final ChipBadgeExtension<FilterCondition<T, ?>> badge;
-		CustomizationDegree customizationDegree = CustomizationDegree.EVERYTHING;
-		final boolean deletable;
-		final boolean editable;
+		this.closeFilterInput();
+		this.editingBadgeId = null;
 		
-		if(this.deletingBadgeEnabled != null && this.editingBadgeEnabled != null)
+		final Map<String, ChipBadgeExtension<FilterCondition<T, ?>>> unusedInitialChipBadges = new LinkedHashMap<>();
+		this.initialChipBadges.forEach(badge -> unusedInitialChipBadges.putIfAbsent(badge.getBadgeId(), badge));
+		
+		// The conditions which differ from the initial filters
+		final List<QueryCondition> changedConditions = new ArrayList<>();
+		this.runBatched(() ->
 		{
-			deletable = this.deletingBadgeEnabled;
-			editable = this.editingBadgeEnabled;
+			for(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge : this.chipBadges)
+			{
+				this.hlChipBadges.remove(chipBadge);
+			}
+			this.chipBadges.clear();
 			
-			this.deletingBadgeEnabled = null;
-			this.editingBadgeEnabled = null;
+			for(final QueryCondition condition : state.getConditions())
+			{
+				final FilterField<T, ?> filterField = this.resolveFilterField(condition.fieldId());
+				final FilterComparator comparator = filterField != null
+					? resolveComparator(filterField, condition.comparatorId())
+					: null;
+				if(comparator == null)
+				{
+					continue;
+				}
+				
+				final ChipBadgeExtension<FilterCondition<T, ?>> initialChipBadge =
+					condition.hasBadgeId() ? unusedInitialChipBadges.get(condition.badgeId()) : null;
+				if(initialChipBadge != null
+					&& initialChipBadge.getItem().getItem().getId().equals(filterField.getId())
+					&& initialChipBadge.getItem().getSelectedCondition().getId().equals(comparator.getId())
+					&& initialChipBadge.getItem().getInputValue().equals(condition.inputValue()))
+				{
+					// Unchanged initial filter - reuse the badge
+					unusedInitialChipBadges.remove(condition.badgeId());
+					this.chipBadges.add(initialChipBadge);
+					this.hlChipBadges.add(initialChipBadge);
+					continue;
+				}
+				
+				final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge = this.createBadgeConditionAndApplyFilter(
+					filterField,
+					comparator,
+					condition.inputValue(),
+					condition.deletable(),
+					condition.editable(),
+					initialChipBadge != null
+						? initialChipBadge.getCustomizationRating()
+						: CustomizationDegree.EVERYTHING);
+				chipBadge.setBadgeId(condition.badgeId());
+				changedConditions.add(this.createQueryCondition(chipBadge));
+			}
 			
-			if(this.editingBadgeId != null)
+			// Initial filters which are not part of the snapshot were deleted
+			for(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge : unusedInitialChipBadges.values())
 			{
-				// Get customization rating from initial condition
-				customizationDegree = this.initialChipBadges
-					.stream()
-					.filter(e -> e.getBadgeId().equals(this.editingBadgeId))
-					.toList()
-					.get(0)
-					.getCustomizationRating();
+				final FilterCondition<T, ?> item = chipBadge.getItem();
+				changedConditions.add(new QueryCondition(
+					item.getItem().getId(),
+					item.getSelectedCondition().getId(),
+					item.getInputValue(),
+					DELETED_INITIAL_CONDITION_STRING,
+					chipBadge.isBtnDeleteEnabled(),
+					chipBadge.isBtnEditEnabled()));
 			}
-		}
-		else
+			
+			this.updateChipBadgeOverflow();
+			this.updateGridFilter();
+		});
+		
+		this.queryConditions.clear();
+		this.queryConditions.addAll(changedConditions);
+		this.updateUrl();
+		
+		this.btnResetFilter.setEnabled(!changedConditions.isEmpty());
+	}
+	
+	private FilterPresetStore getPresetStore()
+	{
+		if(this.presetStore == null)
+		{
+			throw new IllegalStateException("No preset store was set, see withPresetStore");
+		}
+		return this.presetStore;
+	}
+	
+	/**
+	 * @return All presets of the store ordered by their name.
+	 */
+	public List<FilterPreset> getPresets()
+	{
+		return this.getPresetStore().getAll();
+	}
+	
+	/**
+	 * Saves the current conditions as preset. An existing preset with the same name is replaced.
+	 *
+	 * @param name         The name of the preset.
+	 * @param materialized If the matching rows of the preset should be kept up to date in the background, so that
+	 *                     applying it is instant. Should only be used for frequently used presets.
+	 * @return The saved preset.
+	 */
+	public FilterPreset savePreset(final String name, final boolean materialized)
+	{
+		final FilterPreset preset = new FilterPreset(name, this.exportState(), materialized);
+		this.getPresetStore().save(preset);
+		this.materializePresets();
+		
+		return preset;
+	}
+	
+	/**
+	 * Replaces the current conditions with the ones of the preset.
+	 *
+	 * @param name The name of the preset.
+	 * @return <code>false</code> if no preset with the name exists.
+	 * @see #restoreState(FilterState)
+	 */
+	public boolean applyPreset(final String name)
+	{
+		final Optional<FilterPreset> preset = this.getPresetStore().get(name);
+		preset.ifPresent(p -> this.restoreState(p.state()));
+		
+		return preset.isPresent();
+	}
+	
+	/**
+	 * @param name         The name of the preset.
+	 * @param materialized If the matching rows of the preset should be kept up to date in the background.
+	 * @return <code>false</code> if no preset with the name exists.
+	 */
+	public boolean setPresetMaterialized(final String name, final boolean materialized)
+	{
+		final Optional<FilterPreset> preset = this.getPresetStore().get(name);
+		if(preset.isEmpty())
+		{
+			return false;
+		}
+		
+		if(preset.get().materialized() != materialized)
+		{
+			this.getPresetStore().save(preset.get().withMaterialized(materialized));
+			this.materializePresets();
+		}
+		return true;
+	}
+	
+	/**
+	 * @param name The name of the preset.
+	 * @return <code>false</code> if no preset with the name exists.
+	 */
+	public boolean deletePreset(final String name)
+	{
+		final boolean deleted = this.getPresetStore().delete(name);
+		if(deleted)
+		{
+			this.materializePresets();
+		}
+		return deleted;
+	}
+	
+	/**
+	 * Computes the matching rows of all materialized presets which are not yet known for the current data. The
+	 * evaluation runs on the preset executor against a copy of the rows; the results are handed to the engine while
+	 * holding the session lock. With a shared result cache each preset is only evaluated once per dataset, the other
+	 * sessions use the shared result. When the data changes this is repeated, except for appended rows which are added
+	 * to the materialized match sets by the engine.
+	 */
+	private void materializePresets()
+	{
+		if(this.presetStore == null)
+		{
+			return;
+		}
+		
+		final FilterEngine<T> engine = this.getFilterDataProvider().getEngine();
+		if(this.materializedEngine != engine)
+		{
+			if(this.presetDataChangeRegistration != null)
+			{
+				this.presetDataChangeRegistration.remove();
+			}
+			// Also notified when only the conditions changed - nothing has to be done in that case
+			this.presetDataChangeRegistration = this.getFilterDataProvider().addDataProviderListener(e ->
+			{
+				if(engine.getRevision() != this.materializedRevision)
+				{
+					this.materializePresets();
+				}
+			});
+			this.materializedEngine = engine;
+		}
+		this.materializedRevision = engine.getRevision();
+		
+		final Set<FilterKey> presetKeys = new HashSet<>();
+		final Map<FilterKey, List<FilterCondition<T, ?>>> pendingPresets = new HashMap<>();
+		for(final FilterPreset preset : this.presetStore.getAll())
+		{
+			if(preset.materialized())
+			{
+				final List<FilterCondition<T, ?>> conditions = this.createFilterConditions(preset.state());
+				final FilterKey key = FilterKey.of(conditions);
+				presetKeys.add(key);
+				if(!conditions.isEmpty() && !engine.isMaterialized(key))
+				{
+					pendingPresets.put(key, conditions);
+				}
+			}
+		}
+		
+		// Presets which are no longer materialized
+		this.materializedPresetKeys.stream()
+			.filter(key -> !presetKeys.contains(key))
+			.forEach(engine::removeMaterialized);
+		this.materializedPresetKeys = presetKeys;
+		
+		final long revision = this.materializedRevision;
+		// Materialized once per dataset - by the first component of any session
+		final SharedMatchSetCache sharedCache = this.sharedResultCache;
+		final String datasetId = this.sharedResultDatasetId;
+		final long datasetVersion = this.sharedResultDatasetVersion;
+		if(sharedCache != null)
+		{
+			pendingPresets.entrySet().removeIf(preset ->
+			{
+				final MatchSet shared = sharedCache.get(datasetId, datasetVersion, preset.getKey());
+				return shared != null && engine.putMaterialized(preset.getValue(), shared, revision);
+			});
+		}
+		
+		if(pendingPresets.isEmpty())
+		{
+			return;
+		}
+		
+		if(this.ui == null)
+		{
+			pendingPresets.values().forEach(conditions ->
+				engine.putMaterialized(conditions, engine.evaluate(conditions), revision));
+			return;
+		}
+		
+		// Copied, so that changes of the data don't interfere with the evaluation
+		final List<T> rows = new ArrayList<>(engine.getRows());
+		final UI presetUi = this.ui;
+		final String presetIdentifier = this.identifier;
+		this.getBackgroundExecutor().execute(() ->
+		{
+			final Map<FilterKey, MatchSet> matchSets = new HashMap<>();
+			try
+			{
+				pendingPresets.forEach((key, conditions) ->
+				{
+					final Supplier<MatchSet> evaluation = () -> FilterEngine.evaluate(rows, conditions, null);
+					matchSets.put(key, sharedCache != null
+						? sharedCache.computeIfAbsent(datasetId, datasetVersion, key, evaluation)
+						: evaluation.get());
+				});
+			}
+			catch(final RuntimeException ex)
+			{
+				LOG.warn("Failed to materialize the presets of filter-component '{}'", presetIdentifier, ex);
+				return;
+			}
+			
+			try
+			{
+				// Outdated results (the data changed in the meantime) are discarded by the engine
+				presetUi.access(() ->
+					matchSets.forEach((key, matchSet) ->
+						engine.putMaterialized(pendingPresets.get(key), matchSet, revision)));
+			}
+			catch(final UIDetachedException ex)
+			{
+				// The UI was closed in the meantime
+			}
+		});
+	}
+	
+	/**
+	 * @return The conditions of the state. Conditions with unknown fields or comparators are ignored.
+	 */
+	private List<FilterCondition<T, ?>> createFilterConditions(final FilterState state)
+	{
+		final List<FilterCondition<T, ?>> conditions = new ArrayList<>();
+		for(final QueryCondition condition : state.getConditions())
+		{
+			final FilterField<T, ?> filterField = this.resolveFilterField(condition.fieldId());
+			final FilterComparator comparator = filterField != null
+				? resolveComparator(filterField, condition.comparatorId())
+				: null;
+			if(comparator != null)
+			{
+				conditions.add(new FilterCondition<>(filterField, comparator, condition.inputValue()));
+			}
+		}
+		return conditions;
+	}
+	
+	private void onOperatorChanged()
+	{
+		this.btnAcceptFilter.setEnabled(this.shouldTheAcceptButtonBeEnabled());
+		
+		if(this.selOperations.getValue() != null)
+		{
+			if(this.selFields.getValue() instanceof FilterFieldEnumExtension)
+			{
+				final boolean isSelSearchQueryVisible = this.selSearchQuery != null;
+				
+				// Change to a text field if the field is of type enum with condition 'contains'
+				if(isSelSearchQueryVisible && this.selOperations.getValue() instanceof ContainsComparator)
+				{
+					this.showInputComponent(this::createTxtSearchQuery);
+					
+					this.btnAcceptFilter.setEnabled(this.shouldTheAcceptButtonBeEnabled());
+				}
+				else if(!isSelSearchQueryVisible)
+				{
+					this.showInputComponent(this::createSelSearchQuery);
+					
+					this.setEnumSelectValues(this.selFields.getValue());
+					this.updateFacetCounts();
+				}
+			}
+			else if(this.selFields.getValue() != null && this.selFields.getValue().getType() == LocalDate.class)
+			{
+				if(this.selOperations.getValue() instanceof IsBetweenComparator)
+				{
+					if(this.dateRangePickerQuery == null)
+					{
+						this.showInputComponent(this::createDateRangePicker);
+					}
+					
+					// Validating if the accept filter button should be activated because the date range picker
+					// has already a value by default
+					this.btnAcceptFilter.setEnabled(this.shouldTheAcceptButtonBeEnabled());
+				}
+				else if(this.dateSearchQuery == null)
+				{
+					this.showInputComponent(this::createDateSearchQuery);
+				}
+			}
+		}
+		
+		this.updateMatchPreview();
+		this.updateLiveCondition();
+	}
+	
+	private void onShowFilterInput()
+	{
+		
+		if(this.hlFilter.getChildren().findAny().isEmpty())
+		{
+			// Needed if the previous condition was an editable initial condition
+			// The editable initial condition makes the cancel button invisible
+			this.btnCancelFilter.setVisible(true);
+			
+			this.selFields.setValue(null);
+			this.selFields.setReadOnly(false);
+			this.selOperations.setItems(Collections.emptyList());
+			this.selOperations.setEnabled(false);
+			this.selOperations.setReadOnly(false);
+			this.btnAcceptFilter.setEnabled(false);
+			
+			this.hlFilter.add(
+				this.selFields,
+				this.selOperations,
+				this.btnCancelFilter,
+				this.btnAcceptFilter
+			);
+			if(this.matchPreviewShown)
+			{
+				this.hlFilter.add(this.lblMatchPreview);
+			}
+			
+			this.showInputComponent(() -> this.createInputComponent(String.class));
+		}
+	}
+	
+	/**
+	 * Method used to make the select field and select condition dependent on the customization degree readonly.
+	 *
+	 * @param usedCustomizationDegree Used to set which input field is readonly.
+	 */
+	private void setUsedCustomizationDegreeForComponents(final CustomizationDegree usedCustomizationDegree)
+	{
+		if(usedCustomizationDegree.equals(CustomizationDegree.INPUT_VALUE))
+		{
+			this.selFields.setReadOnly(true);
+			this.selOperations.setReadOnly(true);
+		}
+		else if(usedCustomizationDegree.equals(CustomizationDegree.CONDITION_AND_INPUT_VALUE))
+		{
+			this.selFields.setReadOnly(true);
+			this.selOperations.setReadOnly(false);
+		}
+		else
+		{
+			this.selFields.setReadOnly(false);
+			this.selOperations.setReadOnly(false);
+		}
+	}
+	
+	/**
+	 * Clicking on the accept filter button.
+	 */
+	private void onAcceptFilter()
+	{
+		// The button state is only synchronized after the debounced value change, so check the input again
+		if(!this.shouldTheAcceptButtonBeEnabled())
+		{
+			return;
+		}
+		
+		final String userInput = this.getValueFromVisibleComponent();
+		// The accepted condition replaces the typed and the edited one
+		this.liveCondition = null;
+		this.editedCondition = null;
+		
+		final ChipBadgeExtension<FilterCondition<T, ?>> badge;
+		CustomizationDegree customizationDegree = CustomizationDegree.EVERYTHING;
+		final boolean deletable;
+		final boolean editable;
+		
+		if(this.deletingBadgeEnabled != null && this.editingBadgeEnabled != null)
+		{
+			deletable = this.deletingBadgeEnabled;
+			editable = this.editingBadgeEnabled;
+			
+			this.deletingBadgeEnabled = null;
+			this.editingBadgeEnabled = null;
+			
+			if(this.editingBadgeId != null)
+			{
+				// Get customization rating from initial condition
+				customizationDegree = this.initialChipBadges
+					.stream()
+					.filter(e -> e.getBadgeId().equals(this.editingBadgeId))
+					.toList()
+					.get(0)
+					.getCustomizationRating();
+			}
+		}
+		else
 		{
 			deletable = true;
 			editable = false;
@@ -419,7 +1187,7 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		}
 		
 		// Removing all filter components after accepting
-		this.hlFilter.removeAll();
+		this.closeFilterInput();
 		
 		// When something changes from the initial start, enable the reset button
 		this.btnResetFilter.setEnabled(true);
@@ -453,11 +1221,10 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 					this.onShowFilterInput();
 					
 					// Set the available values
+					// The field was reset above, so this always calls onFieldChange which sets the visibility of the
+					// components and the items for the operation select
 					this.selFields.setValue(selField);
 					
-					// Will set the visibility of the components and the items for the operation select
-					this.onFieldChange(selField);
-					
 					// Set selected operation
 					this.selOperations.setValue(selOperation);
 					
@@ -477,7 +1244,9 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 					
 					this.editingBadgeId = badge.getBadgeId();
 					
-					// Remove filter, update grid
+					// Remove the badge but keep its condition applied until the edit is accepted, so that the grid
+					// is only filtered once - with only the difference between the old and new condition evaluated
+					this.editedCondition = badge.getItem();
 					this.removeChipBadgeCondition(badge);
 				}
 			});
@@ -494,6 +1263,7 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		
 		this.chipBadges.add(badge);
 		this.hlChipBadges.add(badge);
+		this.updateChipBadgeOverflow();
 		
 		this.updateGridFilter();
 		
@@ -563,8 +1333,7 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	{
 		final FilterCondition<T, ?> filterField = chipBadge.getItem();
 		
-		if(this.dateRangePickerQuery.isVisible()
-			&& IS_BETWEEN_COMPARATOR_DESCRIPTION.equals(filterField.getSelectedCondition().getDescription()))
+		if(filterField.getSelectedCondition() instanceof IsBetweenComparator)
 		{
 			chipBadge.setItemLabelGenerator((ItemLabelGenerator<FilterCondition<T, ?>>)tFilterCondition ->
 			{
@@ -595,7 +1364,7 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 				
 				return createChipComponentString(
 					tFilterCondition,
-					this.dateRangePickerQuery.getDatePickerI18n()
+					Optional.ofNullable(this.dateRangePickerI18n)
 						.map(DatePicker.DatePickerI18n::getDateFormats)
 						.map(dateFormats -> {
 							final DateTimeFormatter formatter =
@@ -608,7 +1377,7 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 						.orElseGet(() -> fStartEndContainer.start() + " and " + fStartEndContainer.end()));
 			});
 		}
-		else if(this.dateSearchQuery.isVisible() && filterField.getItem().getType().equals(LocalDate.class))
+		else if(filterField.getItem().getType().equals(LocalDate.class))
 		{
 			chipBadge.setItemLabelGenerator((ItemLabelGenerator<FilterCondition<T, ?>>)tFilterCondition ->
 			{
@@ -627,14 +1396,14 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 				
 				return createChipComponentString(
 					tFilterCondition,
-					Optional.ofNullable(this.dateSearchQuery.getI18n())
+					Optional.ofNullable(this.datePickerI18n)
 						.map(DatePicker.DatePickerI18n::getDateFormats)
 						.map(StringFormatsToDateTimeFormatter::fromPattern)
 						.map(fLocalDate::format)
 						.orElseGet(fLocalDate::toString));
 			});
 		}
-		else if(this.dateTimeSearchQuery.isVisible() && filterField.getItem().getType().equals(LocalDateTime.class))
+		else if(filterField.getItem().getType().equals(LocalDateTime.class))
 		{
 			chipBadge.setItemLabelGenerator((ItemLabelGenerator<FilterCondition<T, ?>>)tFilterCondition ->
 				{
@@ -654,11 +1423,11 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 					
 					return createChipComponentString(
 						tFilterCondition,
-						localDate.format(Optional.ofNullable(this.dateSearchQuery.getI18n())
+						localDate.format(Optional.ofNullable(this.datePickerI18n)
 							.map(DatePicker.DatePickerI18n::getDateFormats)
 							.map(StringFormatsToDateTimeFormatter::fromPattern)
 							.orElse(DateTimeFormatter.ISO_LOCAL_DATE)
-							.withLocale(this.dateSearchQuery.getLocale()))
+							.withLocale(Optional.ofNullable(this.datePickerLocale).orElseGet(this::getLocale)))
 							+ " " + localDateTime.toLocalTime());
 				}
 			);
@@ -681,29 +1450,33 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	 */
 	private String getValueFromVisibleComponent()
 	{
-		if(this.nmbSearchQuery.isVisible())
+		if(this.nmbSearchQuery != null)
 		{
 			return this.nmbSearchQuery.getValue().toString();
 		}
-		else if(this.dateSearchQuery.isVisible())
+		else if(this.dateSearchQuery != null)
 		{
 			return this.dateSearchQuery.getValue().toString();
 		}
-		else if(this.dateTimeSearchQuery.isVisible())
+		else if(this.dateTimeSearchQuery != null)
 		{
 			return this.dateTimeSearchQuery.getValue().format(DateTimeFormatter.ISO_DATE_TIME);
 		}
-		else if(this.dateRangePickerQuery.isVisible())
+		else if(this.dateRangePickerQuery != null)
 		{
 			// '#' is the separator for the between two dates search query
 			return this.dateRangePickerQuery.getValue().getStart() + IS_BETWEEN_COMPARATOR_SEPARATOR
 				+ this.dateRangePickerQuery.getValue()
 				.getEnd();
 		}
-		else if(this.selSearchQuery.isVisible())
+		else if(this.selSearchQuery != null)
 		{
 			return this.selSearchQuery.getValue();
 		}
+		else if(this.cmbSearchQuery != null)
+		{
+			return this.cmbSearchQuery.getValue();
+		}
 		else
 		{
 			return this.txtSearchQuery.getValue();
@@ -717,22 +1490,26 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	 */
 	private void setQueryValue(final String searchQuery)
 	{
-		if(this.nmbSearchQuery.isVisible())
+		if(this.nmbSearchQuery != null)
 		{
 			this.nmbSearchQuery.setValue(new BigDecimal(searchQuery));
 		}
-		else if(this.dateSearchQuery.isVisible())
+		else if(this.dateSearchQuery != null)
 		{
 			this.dateSearchQuery.setValue(LocalDate.parse(searchQuery));
 		}
-		else if(this.dateTimeSearchQuery.isVisible())
+		else if(this.dateTimeSearchQuery != null)
 		{
 			this.dateTimeSearchQuery.setValue(LocalDateTime.parse(searchQuery));
 		}
-		else if(this.selSearchQuery.isVisible())
+		else if(this.selSearchQuery != null)
 		{
 			this.selSearchQuery.setValue(searchQuery);
 		}
+		else if(this.cmbSearchQuery != null)
+		{
+			this.cmbSearchQuery.setValue(searchQuery);
+		}
 		else
 		{
 			this.txtSearchQuery.setValue(searchQuery);
@@ -748,31 +1525,35 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	{
 		final boolean valueNotNull;
 		
-		if(this.nmbSearchQuery.isVisible())
+		if(this.nmbSearchQuery != null)
 		{
 			valueNotNull = this.nmbSearchQuery.getValue() != null;
 		}
-		else if(this.dateSearchQuery.isVisible())
+		else if(this.dateSearchQuery != null)
 		{
 			valueNotNull = this.dateSearchQuery.getValue() != null;
 		}
-		else if(this.dateTimeSearchQuery.isVisible())
+		else if(this.dateTimeSearchQuery != null)
 		{
 			valueNotNull = this.dateTimeSearchQuery.getValue() != null;
 		}
-		else if(this.dateRangePickerQuery.isVisible())
+		else if(this.dateRangePickerQuery != null)
 		{
 			valueNotNull = this.dateRangePickerQuery.getValue().getStart() != null
 				&& this.dateRangePickerQuery.getValue().getEnd() != null;
 		}
-		else if(this.selSearchQuery.isVisible())
+		else if(this.selSearchQuery != null)
 		{
 			valueNotNull = this.selSearchQuery.getValue() != null;
 		}
+		else if(this.cmbSearchQuery != null)
+		{
+			valueNotNull = this.cmbSearchQuery.getValue() != null && !this.cmbSearchQuery.getValue().isBlank();
+		}
 		else
 		{
 			// For txtSearchQuery
-			valueNotNull = !this.txtSearchQuery.getValue().isBlank();
+			valueNotNull = this.txtSearchQuery != null && !this.txtSearchQuery.getValue().isBlank();
 		}
 		
 		return valueNotNull && this.selOperations.getValue() != null;
@@ -785,7 +1566,7 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	{
 		if(filterField != null)
 		{
-			this.setInputComponentVisibility(filterField.getType());
+			this.showInputComponent(() -> this.createInputComponent(filterField));
 			final List<FilterComparator> comparators = filterField.getAvailableComparators();
 			
 			this.selOperations.setItems(comparators);
@@ -800,67 +1581,185 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 			{
 				this.selSearchQuery.setItems(new ArrayList<>(Arrays.asList("true", "false")));
 			}
+			
+			this.updateFacetCounts();
 		}
 	}
 	
-	private void setInputComponentVisibility(final Class<?> type)
+	/**
+	 * Shows the number of rows each value of the selected field would match, if enabled. Has to be called again
+	 * whenever the conditions change.
+	 */
+	private void updateFacetCounts()
+	{
+		final FilterField<T, ?> filterField = this.selFields.getValue();
+		if(this.facetCountsShown && this.selSearchQuery != null && filterField != null)
+		{
+			final Map<String, Integer> facetCounts =
+				this.getFilterDataProvider().getEngine().getFacetCounts(filterField);
+			this.selSearchQuery.setItemLabelGenerator(value ->
+				value + " (" + facetCounts.getOrDefault(value, 0) + ")");
+		}
+	}
+	
+	/**
+	 * Creates the input component which is suitable for the given field.
+	 *
+	 * @param filterField The selected field.
+	 * @return The newly created input component.
+	 */
+	private Component createInputComponent(final FilterField<T, ?> filterField)
+	{
+		if(this.maxValueSuggestions > 0 && filterField.getType() == String.class)
+		{
+			return this.createCmbSearchQuery(filterField);
+		}
+		return this.createInputComponent(filterField.getType());
+	}
+	
+	/**
+	 * Creates the input component which is suitable for the given type.
+	 *
+	 * @param type Type of the selected field.
+	 * @return The newly created input component.
+	 */
+	private Component createInputComponent(final Class<?> type)
 	{
-		this.dateTimeSearchQuery.setVisible(false);
-		this.dateSearchQuery.setVisible(false);
-		this.dateRangePickerQuery.setVisible(false);
-		this.nmbSearchQuery.setVisible(false);
-		this.selSearchQuery.setVisible(false);
-		this.txtSearchQuery.setVisible(false);
-		
 		if(type.isAssignableFrom(LocalDateTime.class))
 		{
-			this.dateTimeSearchQuery.setVisible(true);
+			return this.createDateTimeSearchQuery();
 		}
 		else if(type.isAssignableFrom(LocalDate.class))
 		{
-			this.dateSearchQuery.setVisible(true);
+			return this.createDateSearchQuery();
 		}
 		else if(type.isAssignableFrom(Number.class))
 		{
-			this.nmbSearchQuery.setVisible(true);
+			return this.createNmbSearchQuery();
 		}
 		else if(type.isAssignableFrom(Enum.class) || type.isAssignableFrom(Boolean.class))
 		{
-			this.selSearchQuery.setVisible(true);
+			return this.createSelSearchQuery();
 		}
-		else
+		
+		return this.createTxtSearchQuery();
+	}
+	
+	/**
+	 * Runs the given action and updates the field items and the grid filter only once afterwards, no matter how many
+	 * fields or conditions were changed by the action.
+	 */
+	private void runBatched(final Runnable action)
+	{
+		if(this.batchUpdates)
 		{
-			this.txtSearchQuery.setVisible(true);
+			action.run();
+			return;
+		}
+		
+		this.batchUpdates = true;
+		try
+		{
+			action.run();
+		}
+		finally
+		{
+			this.batchUpdates = false;
+		}
+		
+		if(this.fieldItemsUpdatePending)
+		{
+			this.updateFieldItems();
+		}
+		if(this.gridFilterUpdatePending)
+		{
+			this.updateGridFilter();
 		}
 	}
 	
+	private void updateFieldItems()
+	{
+		if(this.batchUpdates)
+		{
+			this.fieldItemsUpdatePending = true;
+			return;
+		}
+		
+		this.fieldItemsUpdatePending = false;
+		this.selFields.setItems(this.filterFields);
+	}
+	
 	private void updateGridFilter()
 	{
-		if(this.chipBadges.isEmpty())
+		if(this.batchUpdates)
 		{
-			this.dataGrid.getListDataView().removeFilters();
+			this.gridFilterUpdatePending = true;
 			return;
 		}
 		
-		this.dataGrid.getListDataView().setFilter(item ->
+		this.gridFilterUpdatePending = false;
+		
+		this.getFilterDataProvider().setConditions(
+			Stream.concat(
+					this.chipBadges.stream().map(ChipBadge::getItem),
+					// The typed condition replaces the edited one
+					Stream.ofNullable(this.liveCondition != null ? this.liveCondition : this.editedCondition))
+				.toList(),
+			this.evaluationTimeBudget);
+		
+		// The counts depend on the conditions of the other fields
+		this.updateFacetCounts();
+	}
+	
+	/**
+	 * Returns the data provider of the grid which is used to apply the conditions of this component. If the grid
+	 * currently uses a plain {@link ListDataProvider}, it's replaced by a {@link FilterDataProvider} with the same
+	 * items, filter and sorting.
+	 *
+	 * @return The data provider of the grid.
+	 * @throws IllegalStateException If the grid doesn't use a {@link ListDataProvider}.
+	 */
+	public FilterDataProvider<T> getFilterDataProvider()
+	{
+		final DataProvider<T, ?> dataProvider = this.dataGrid.getDataProvider();
+		if(dataProvider instanceof final FilterDataProvider<T> filterDataProvider)
+		{
+			return filterDataProvider;
+		}
+		if(!(dataProvider instanceof final ListDataProvider<T> listDataProvider))
+		{
+			throw new IllegalStateException(
+				"The grid must use an in-memory ListDataProvider but uses " + dataProvider.getClass().getName());
+		}
+		
+		final FilterDataProvider<T> filterDataProvider = new FilterDataProvider<>(listDataProvider.getItems());
+		filterDataProvider.setFilter(listDataProvider.getFilter());
+		filterDataProvider.setSortComparator(listDataProvider.getSortComparator());
+		if(this.sharedResultCache != null)
 		{
-			final List<Predicate<T>> predicates = new ArrayList<>();
-			
-			for(final ChipBadge<FilterCondition<T, ?>> chipBadge : this.chipBadges)
+			filterDataProvider.getEngine()
+				.setSharedCache(this.sharedResultCache, this.sharedResultDatasetId, this.sharedResultDatasetVersion);
+		}
+		
+		// Changes announced through the previous provider have to reach the new one
+		if(this.replacedDataProviderRegistration != null)
+		{
+			this.replacedDataProviderRegistration.remove();
+		}
+		this.replacedDataProviderRegistration = listDataProvider.addDataProviderListener(event ->
+		{
+			if(event instanceof final DataChangeEvent.DataRefreshEvent<T> refreshEvent)
 			{
-				final FilterCondition<T, ?> item1 = chipBadge.getItem();
-				final String inputValue = item1.getInputValue();
-				
-				predicates.add(
-					
-					item1.getSelectedCondition().compare(
-						item1.getItem().getValueProvider(),
-						inputValue)
-				);
+				filterDataProvider.refreshItem(refreshEvent.getItem(), refreshEvent.isRefreshChildren());
+			}
+			else
+			{
+				filterDataProvider.refreshAll();
 			}
-			
-			return predicates.stream().map(p -> p.test(item)).reduce(Boolean::logicalAnd).orElseThrow();
 		});
+		
+		this.dataGrid.setItems(filterDataProvider);
+		return filterDataProvider;
 	}
 	
 	/**
@@ -876,228 +1775,521 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 			.toList());
 	}
 	
-	@SuppressWarnings({"PMD.CognitiveComplexity", "PMD.CollapsibleIfStatements", "PMD.AvoidDeeplyNestedIfStmts"})
-	// Fixed in v2
-	private void createConditionsFromQueryParameters()
+	/**
+	 * Creates the conditions from the url. All lookups are done through hash maps so that restoring is linear in the
+	 * number of conditions.
+	 *
+	 * @param conditionsFromUrl The distinct resolved conditions from the url.
+	 */
+	private void createConditionsFromQueryParameters(final List<QueryCondition> conditionsFromUrl)
 	{
-		for(int i = 0; i < this.queryFields.size(); i++)
+		final Map<String, ChipBadgeExtension<FilterCondition<T, ?>>> initialChipBadgesById = new HashMap<>();
+		this.initialChipBadges.forEach(badge -> initialChipBadgesById.putIfAbsent(badge.getBadgeId(), badge));
+		
+		// Initial badges which were deleted, identified by field, comparator and input value
+		final Map<ConditionKey, List<ChipBadgeExtension<FilterCondition<T, ?>>>> chipBadgesByCondition =
+			new HashMap<>();
+		for(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge : this.chipBadges)
+		{
+			if(!NO_BADGE_ID_STRING.equals(chipBadge.getBadgeId()))
+			{
+				final FilterCondition<T, ?> item = chipBadge.getItem();
+				chipBadgesByCondition
+					.computeIfAbsent(
+						new ConditionKey(
+							item.getItem().getDescription(),
+							item.getSelectedCondition().getDescription(),
+							item.getInputValue()),
+						k -> new ArrayList<>())
+					.add(chipBadge);
+			}
+		}
+		
+		// The conditions with the current ids of fields and comparators; unknown conditions are dropped
+		final List<QueryCondition> resolvedQueryConditions = new ArrayList<>();
+		for(final QueryCondition queryCondition : conditionsFromUrl)
 		{
-			final String conditionDescription = this.queryConditionFields.get(i);
+			final FilterField<T, ?> filterField = this.resolveFilterField(queryCondition.fieldId());
+			if(filterField == null)
+			{
+				continue;
+			}
 			
-			for(final FilterField<T, ?> filterField : this.selFields.getListDataView().getItems().toList())
+			// Check if the comparator is available for this field
+			final FilterComparator comparator = resolveComparator(filterField, queryCondition.comparatorId());
+			if(comparator == null)
 			{
-				final Optional<FilterComparator> comparatorOptional = filterField
-					.getAvailableComparators()
-					.stream()
-					.filter(x -> x.getDescription().equals(conditionDescription))
-					.findAny();
+				continue;
+			}
+			
+			resolvedQueryConditions.add(new QueryCondition(
+				filterField.getId(),
+				comparator.getId(),
+				queryCondition.inputValue(),
+				queryCondition.badgeId(),
+				queryCondition.deletable(),
+				queryCondition.editable()));
+			
+			if(!DELETED_INITIAL_CONDITION_STRING.equals(queryCondition.badgeId()))
+			{
+				// Check if it's an initial condition
+				final CustomizationDegree customizationDegree =
+					Optional.ofNullable(initialChipBadgesById.get(queryCondition.badgeId()))
+						.map(ChipBadgeExtension::getCustomizationRating)
+						.orElse(CustomizationDegree.EVERYTHING);
+				
+				final ChipBadgeExtension<FilterCondition<T, ?>> chipBadgeExtension =
+					this.createBadgeConditionAndApplyFilter(
+						filterField,
+						comparator,
+						queryCondition.inputValue(),
+						queryCondition.deletable(),
+						queryCondition.editable(),
+						customizationDegree);
 				
-				// Check if the comparator is available for this field
-				if(filterField.getDescription().equals(this.queryFields.get(i)) && comparatorOptional.isPresent())
+				chipBadgeExtension.setBadgeId(queryCondition.badgeId());
+			}
+			else
+			{
+				// Remove badge if it has the badge id 'deletedInitialCondition'
+				final List<ChipBadgeExtension<FilterCondition<T, ?>>> deletedChipBadges =
+					chipBadgesByCondition.remove(new ConditionKey(
+						filterField.getDescription(),
+						comparator.getDescription(),
+						queryCondition.inputValue()));
+				if(deletedChipBadges != null)
 				{
-					if(i < this.queryBadgeIds.size()
-						&& i < this.queryBadgeDeletables.size()
-						&& i < this.queryBadgeEditables.size())
-					{
-						if(!DELETED_INITIAL_CONDITION_STRING.equals(this.queryBadgeIds.get(i)))
-						{
-							final String badgeId = this.queryBadgeIds.get(i);
-							CustomizationDegree customizationDegree = CustomizationDegree.EVERYTHING;
-							
-							// Check if it's an initial condition
-							final List<ChipBadgeExtension<FilterCondition<T, ?>>> cD = this.initialChipBadges
-								.stream()
-								.filter(e -> e.getBadgeId().equals(badgeId))
-								.toList();
-							
-							if(!cD.isEmpty())
-							{
-								customizationDegree = cD.get(0).getCustomizationRating();
-							}
-							
-							final ChipBadgeExtension<FilterCondition<T, ?>> chipBadgeExtension =
-								this.createBadgeConditionAndApplyFilter(
-									filterField,
-									comparatorOptional.orElseThrow(),
-									this.queryInputFields.get(i),
-									Boolean.parseBoolean(this.queryBadgeDeletables.get(i)),
-									Boolean.parseBoolean(this.queryBadgeEditables.get(i)),
-									customizationDegree);
-							
-							chipBadgeExtension.setBadgeId(badgeId);
-						}
-						else
-						{
-							final List<ChipBadgeExtension<FilterCondition<T, ?>>> tmpChipBadges =
-								new ArrayList<>(this.chipBadges);
-							
-							// Remove badge if it has the badge id 'deletedInitialCondition'
-							for(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge : tmpChipBadges)
-							{
-								// Check for same condition
-								final FilterCondition<T, ?> item = chipBadge.getItem();
-								if(!NO_BADGE_ID_STRING.equals(chipBadge.getBadgeId())
-									&& this.queryInputFields.get(i).equals(item.getInputValue())
-									&& this.queryConditionFields.get(i)
-									.equals(item.getSelectedCondition().getDescription())
-									&& this.queryFields.get(i).equals(item.getItem().getDescription()))
-								{
-									this.removeChipBadgeCondition(chipBadge);
-								}
-							}
-						}
-					}
+					deletedChipBadges.forEach(this::removeChipBadgeCondition);
 				}
 			}
 		}
+		
+		this.queryConditions.clear();
+		this.queryConditions.addAll(resolvedQueryConditions);
+		// Rewrites urls in the old format or with duplicates; nothing is sent when the parameters are unchanged
+		this.updateUrl();
+	}
+	
+	/**
+	 * @return The condition with the current ids of its field and comparator or <code>null</code> if one of them is
+	 * unknown.
+	 */
+	private QueryCondition resolveQueryCondition(final QueryCondition queryCondition)
+	{
+		final FilterField<T, ?> filterField = this.resolveFilterField(queryCondition.fieldId());
+		final FilterComparator comparator = filterField != null
+			? resolveComparator(filterField, queryCondition.comparatorId())
+			: null;
+		return comparator != null
+			? new QueryCondition(
+				filterField.getId(),
+				comparator.getId(),
+				queryCondition.inputValue(),
+				queryCondition.badgeId(),
+				queryCondition.deletable(),
+				queryCondition.editable())
+			: null;
+	}
+	
+	/**
+	 * @param filterField  The field.
+	 * @param comparatorId The id of the comparator or its description (old url format).
+	 * @return The comparator if it's available for the field or <code>null</code>.
+	 */
+	private static FilterComparator resolveComparator(final FilterField<?, ?> filterField, final String comparatorId)
+	{
+		final List<FilterComparator> availableComparators = filterField.getAvailableComparators();
+		return FilterComparatorRegistry.getDefault()
+			.get(comparatorId)
+			.filter(availableComparators::contains)
+			.orElseGet(() -> availableComparators.stream()
+				.filter(c -> c.getId().equals(comparatorId) || c.getDescription().equals(comparatorId))
+				.findFirst()
+				.orElse(null));
+	}
+	
+	/**
+	 * Collapses the chip badges which exceed the configured maximum. Collapsed badges are invisible and therefore not
+	 * rendered on the client until the user expands them.
+	 */
+	private void updateChipBadgeOverflow()
+	{
+		final boolean overflowing = this.chipBadges.size() > this.maxVisibleChipBadges;
+		
+		for(int i = 0; i < this.chipBadges.size(); i++)
+		{
+			this.chipBadges.get(i).setVisible(this.chipBadgesExpanded || i < this.maxVisibleChipBadges);
+		}
+		
+		this.btnChipBadgeOverflow.setVisible(overflowing);
+		if(overflowing)
+		{
+			if(this.chipBadgesExpanded)
+			{
+				this.btnChipBadgeOverflow.setText(null);
+				this.btnChipBadgeOverflow.setIcon(VaadinIcon.ANGLE_LEFT.create());
+			}
+			else
+			{
+				this.btnChipBadgeOverflow.setIcon(null);
+				this.btnChipBadgeOverflow.setText("+" + (this.chipBadges.size() - this.maxVisibleChipBadges));
+			}
+			
+			// Keep the button behind the last badge
+			final int componentCount = this.hlChipBadges.getComponentCount();
+			if(componentCount == 0
+				|| this.hlChipBadges.getComponentAt(componentCount - 1) != this.btnChipBadgeOverflow)
+			{
+				this.hlChipBadges.add(this.btnChipBadgeOverflow);
+			}
+		}
+	}
+	
+	/**
+	 * Removes the chip component, the associated condition and query parameter. It also updates the grid.
+	 *
+	 * @param chip The condition component which should be removed.
+	 */
+	private void removeChipBadgeCondition(final ChipBadgeExtension<FilterCondition<T, ?>> chip)
+	{
+		this.chipBadges.remove(chip);
+		this.hlChipBadges.remove(chip);
+		this.updateChipBadgeOverflow();
+		this.updateGridFilter();
+		this.removeQueryParameter(chip);
+	}
+	
+	/**
+	 * Sets the internationalization properties for the datePicker.
+	 *
+	 * @param datePickerI18n The internationalised properties that should be set.
+	 * @return Returns this filter-component.
+	 */
+	public FilterComponent<T> withDatePickerI18n(final DatePicker.DatePickerI18n datePickerI18n)
+	{
+		Objects.requireNonNull(datePickerI18n);
+		this.datePickerI18n = datePickerI18n;
+		
+		return this;
+	}
+	
+	/**
+	 * Sets the internationalization properties for the dateTimePicker.
+	 *
+	 * @param dateTimePickerI18n The internationalised properties that should be set.
+	 * @return Returns this filter-component.
+	 */
+	public FilterComponent<T> withDateTimePickerI18n(final DatePicker.DatePickerI18n dateTimePickerI18n)
+	{
+		Objects.requireNonNull(dateTimePickerI18n);
+		this.dateTimePickerI18n = dateTimePickerI18n;
+		
+		return this;
+	}
+	
+	/**
+	 * Sets the internationalization properties for the dateRangePicker.
+	 *
+	 * @param datePickerI18n The internationalised properties that should be set.
+	 * @return Returns this filter-component.
+	 */
+	public FilterComponent<T> withDateRangePickerI18n(final DatePicker.DatePickerI18n datePickerI18n)
+	{
+		Objects.requireNonNull(datePickerI18n);
+		this.dateRangePickerI18n = datePickerI18n;
+		
+		return this;
+	}
+	
+	/**
+	 * Sets the locale for the dateTimePicker. Has no effect when setting a custom date format through
+	 * {@link  software.xdev.vaadin.FilterComponent#withDatePickerI18n(DatePicker.DatePickerI18n)}.
+	 *
+	 * @param locale The locale which should be set.
+	 * @return Returns this filter-component.
+	 * @see software.xdev.vaadin.FilterComponent#withDatePickerI18n(DatePicker.DatePickerI18n)
+	 */
+	public FilterComponent<T> withDatePickerLocale(final Locale locale)
+	{
+		Objects.requireNonNull(locale);
+		this.datePickerLocale = locale;
+		
+		return this;
+	}
+	
+	/**
+	 * Sets the locale for the dateTimePicker. Has no effect when setting a custom date format through
+	 * {@link  software.xdev.vaadin.FilterComponent#withDateTimePickerI18n(DatePicker.DatePickerI18n)}.
+	 *
+	 * @param locale The locale which should be set.
+	 * @return Returns this filter-component.
+	 * @see software.xdev.vaadin.FilterComponent#withDateTimePickerI18n(DatePicker.DatePickerI18n)
+	 */
+	public FilterComponent<T> withDateTimePickerLocale(final Locale locale)
+	{
+		Objects.requireNonNull(locale);
+		this.dateTimePickerLocale = locale;
+		
+		return this;
+	}
+	
+	/**
+	 * Sets a custom date range model for the DateRangePicker.
+	 *
+	 * @param dateRangeModel The custom date range model which should be set for the DateRangePicker search query.
+	 * @return Returns this filter-component.
+	 */
+	public FilterComponent<T> withCustomDateRangeModel(
+		final DateRangeModel<DateRange> dateRangeModel,
+		final Collection<DateRange> items)
+	{
+		Objects.requireNonNull(dateRangeModel);
+		this.customDateRangeModel = dateRangeModel;
+		this.customDateRanges = items;
+		
+		return this;
+	}
+	
+	/**
+	 * Sets the date range picker localization.
+	 *
+	 * @param dateRangeLocalizerFunction Localization function for the date range. See <a href="https://github
+	 *                                   .com/xdev-software/vaadin-date-range-picker/blob
+	 *                                   /75d496fb2e1a0ece4d8d3f4f1071fd605167a9c8/vaadin-date-range-picker-demo
+	 *                                   /src/main/java/software/xdev/vaadin/daterange_picker/example
+	 *                                   /DateRangePickerLocalizedDemo.java#L39">following link</a> for an example.
+	 * @param startLabel                 Localization for the start label.
+	 * @param endLabel                   Localization for the end label.
+	 * @param dateRangeOptionsLabel      Localization for the date range options label.
+	 * @return Returns this filter-component.
+	 */
+	public FilterComponent<T> withDateRangeLocalization(
+		final ItemLabelGenerator<DateRange> dateRangeLocalizerFunction,
+		final String startLabel,
+		final String endLabel,
+		final String dateRangeOptionsLabel)
+	{
+		Objects.requireNonNull(dateRangeLocalizerFunction);
+		Objects.requireNonNull(startLabel);
+		Objects.requireNonNull(endLabel);
+		Objects.requireNonNull(dateRangeOptionsLabel);
+		
+		this.dateRangeLocalizerFunction = dateRangeLocalizerFunction;
+		this.dateRangeStartLabel = startLabel;
+		this.dateRangeEndLabel = endLabel;
+		this.dateRangeOptionsLabel = dateRangeOptionsLabel;
+		
+		return this;
+	}
+	
+	/**
+	 * Sets when the values of the text and number input are sent to the server. The values are only needed to
+	 * enable the accept button, so by default they are sent {@link ValueChangeMode#LAZY lazily} instead of on every
+	 * keystroke.
+	 *
+	 * @param valueChangeMode    The value change mode of the text and number input.
+	 * @param valueChangeTimeout The timeout in milliseconds, used by {@link ValueChangeMode#LAZY} and
+	 *                           {@link ValueChangeMode#TIMEOUT}.
+	 * @return Returns this filter-component.
+	 */
+	public FilterComponent<T> withInputValueChangeMode(
+		final ValueChangeMode valueChangeMode,
+		final int valueChangeTimeout)
+	{
+		Objects.requireNonNull(valueChangeMode);
+		if(valueChangeTimeout < 0)
+		{
+			throw new IllegalArgumentException("The value change timeout must not be negative");
+		}
+		
+		this.inputValueChangeMode = valueChangeMode;
+		this.inputValueChangeTimeout = valueChangeTimeout;
+		
+		return this;
 	}
 	
 	/**
-	 * Removes the chip component, the associated condition and query parameter. It also updates the grid.
+	 * Replaces the text input of string fields with a combo box which suggests the most frequent values of the field
+	 * starting with the typed text. The distinct values are indexed once per field and dataset.
 	 *
-	 * @param chip The condition component which should be removed.
+	 * @param maxValueSuggestions The maximum number of suggestions. <code>0</code> disables the suggestions.
+	 * @return Returns this filter-component.
+	 * @see FilterEngine#getDistinctValueIndex(FilterField)
 	 */
-	private void removeChipBadgeCondition(final ChipBadgeExtension<FilterCondition<T, ?>> chip)
+	public FilterComponent<T> withValueSuggestions(final int maxValueSuggestions)
 	{
-		this.chipBadges.remove(chip);
-		this.hlChipBadges.remove(chip);
-		this.updateGridFilter();
-		this.removeQueryParameter(chip);
+		if(maxValueSuggestions < 0)
+		{
+			throw new IllegalArgumentException("The maximum number of suggestions must not be negative");
+		}
+		this.maxValueSuggestions = maxValueSuggestions;
+		
+		return this;
 	}
 	
 	/**
-	 * Sets the internationalization properties for the datePicker.
+	 * Shows for each value of enum and boolean fields how many rows would match when it was selected, considering the
+	 * conditions of the other fields.
 	 *
-	 * @param datePickerI18n The internationalised properties that should be set.
+	 * @param facetCountsShown If the counts should be shown.
 	 * @return Returns this filter-component.
+	 * @see FilterEngine#getFacetCounts(FilterField)
 	 */
-	public FilterComponent<T> withDatePickerI18n(final DatePicker.DatePickerI18n datePickerI18n)
+	public FilterComponent<T> withFacetCounts(final boolean facetCountsShown)
 	{
-		Objects.requireNonNull(datePickerI18n);
-		this.dateSearchQuery.setI18n(datePickerI18n);
+		this.facetCountsShown = facetCountsShown;
 		
 		return this;
 	}
 	
 	/**
-	 * Sets the internationalization properties for the dateTimePicker.
+	 * Sets the text of the 'AddNewFilter'-Button.
 	 *
-	 * @param dateTimePickerI18n The internationalised properties that should be set.
+	 * @param buttonText The text displayed on the button.
 	 * @return Returns this filter-component.
 	 */
-	public FilterComponent<T> withDateTimePickerI18n(final DatePicker.DatePickerI18n dateTimePickerI18n)
+	public FilterComponent<T> withFilterButtonText(final String buttonText)
 	{
-		Objects.requireNonNull(dateTimePickerI18n);
-		this.dateTimeSearchQuery.setDatePickerI18n(dateTimePickerI18n);
+		Objects.requireNonNull(buttonText);
+		this.btnAddNewFilter.setText(buttonText);
 		
 		return this;
 	}
 	
 	/**
-	 * Sets the internationalization properties for the dateRangePicker.
+	 * Shares the results of the conditions with all other filter-components using the same cache and dataset. Useful
+	 * when a lot of users look at the same immutable dataset with the same (e.g. initial) filters.
+	 * <p>
+	 * The cache isn't serialized with the component. After deserialization the
+	 * {@link SharedMatchSetCache#getDefault() default cache} is re-attached, other caches have to be set again.
+	 * </p>
 	 *
-	 * @param datePickerI18n The internationalised properties that should be set.
+	 * @param sharedResultCache The application-scoped cache.
+	 * @param datasetId         The id of the dataset. Must also identify the registered fields.
+	 * @param datasetVersion    The version of the dataset. Has to be changed when the data changes.
 	 * @return Returns this filter-component.
+	 * @see FilterEngine#setSharedCache(SharedMatchSetCache, String, long)
 	 */
-	public FilterComponent<T> withDateRangePickerI18n(final DatePicker.DatePickerI18n datePickerI18n)
+	public FilterComponent<T> withSharedResultCache(
+		final SharedMatchSetCache sharedResultCache,
+		final String datasetId,
+		final long datasetVersion)
 	{
-		Objects.requireNonNull(datePickerI18n);
-		this.dateRangePickerQuery.withDatePickerI18n(datePickerI18n);
+		Objects.requireNonNull(sharedResultCache);
+		Objects.requireNonNull(datasetId);
+		
+		this.sharedResultCache = sharedResultCache;
+		this.defaultSharedResultCache = sharedResultCache.isDefault();
+		this.sharedResultDatasetId = datasetId;
+		this.sharedResultDatasetVersion = datasetVersion;
+		this.getFilterDataProvider().getEngine().setSharedCache(sharedResultCache, datasetId, datasetVersion);
 		
 		return this;
 	}
 	
 	/**
-	 * Sets the locale for the dateTimePicker. Has no effect when setting a custom date format through
-	 * {@link  software.xdev.vaadin.FilterComponent#withDatePickerI18n(DatePicker.DatePickerI18n)}.
+	 * Sets the store of the presets, usually shared by all filter-components for the same data.
 	 *
-	 * @param locale The locale which should be set.
+	 * @param presetStore The store.
 	 * @return Returns this filter-component.
-	 * @see software.xdev.vaadin.FilterComponent#withDatePickerI18n(DatePicker.DatePickerI18n)
+	 * @see #savePreset(String, boolean)
+	 * @see #applyPreset(String)
 	 */
-	public FilterComponent<T> withDatePickerLocale(final Locale locale)
+	public FilterComponent<T> withPresetStore(final FilterPresetStore presetStore)
 	{
-		Objects.requireNonNull(locale);
-		this.dateSearchQuery.setLocale(locale);
+		this.presetStore = Objects.requireNonNull(presetStore);
+		this.materializePresets();
 		
 		return this;
 	}
 	
 	/**
-	 * Sets the locale for the dateTimePicker. Has no effect when setting a custom date format through
-	 * {@link  software.xdev.vaadin.FilterComponent#withDateTimePickerI18n(DatePicker.DatePickerI18n)}.
+	 * Sets the executor for background work, i.e. computing the matching rows of materialized presets and the match
+	 * preview. Defaults to the common pool.
 	 *
-	 * @param locale The locale which should be set.
+	 * @param backgroundExecutor The executor.
 	 * @return Returns this filter-component.
-	 * @see software.xdev.vaadin.FilterComponent#withDateTimePickerI18n(DatePicker.DatePickerI18n)
 	 */
-	public FilterComponent<T> withDateTimePickerLocale(final Locale locale)
+	public FilterComponent<T> withBackgroundExecutor(final Executor backgroundExecutor)
 	{
-		Objects.requireNonNull(locale);
-		this.dateTimeSearchQuery.setLocale(locale);
+		this.backgroundExecutor = Objects.requireNonNull(backgroundExecutor);
 		
 		return this;
 	}
 	
+	private Executor getBackgroundExecutor()
+	{
+		return this.backgroundExecutor != null ? this.backgroundExecutor : ForkJoinPool.commonPool();
+	}
+	
 	/**
-	 * Sets a custom date range model for the DateRangePicker.
+	 * Shows next to the accept button how many rows would match after adding the condition which is currently
+	 * composed. The count is computed in the background shortly after the input stopped changing; large results are
+	 * sampled. The text can be changed with {@link #withMatchPreviewLabelGenerator(SerializableBiFunction)}.
 	 *
-	 * @param dateRangeModel The custom date range model which should be set for the DateRangePicker search query.
+	 * @param matchPreviewShown If the preview should be shown.
 	 * @return Returns this filter-component.
 	 */
-	public FilterComponent<T> withCustomDateRangeModel(
-		final DateRangeModel<DateRange> dateRangeModel,
-		final Collection<DateRange> items)
+	public FilterComponent<T> withMatchPreview(final boolean matchPreviewShown)
 	{
-		Objects.requireNonNull(dateRangeModel);
-		this.dateRangePickerQuery = new DateRangePicker<>(dateRangeModel, items);
-		this.dateRangePickerQuery.setId(DATE_RANGE_PICKER_QUERY_FILTER_COMPONENT);
+		this.matchPreviewShown = matchPreviewShown;
 		
 		return this;
 	}
 	
 	/**
-	 * Sets the date range picker localization.
+	 * Sets how the number of matching rows is shown by the match preview (see {@link #withMatchPreview(boolean)}),
+	 * e.g. for localization.
 	 *
-	 * @param dateRangeLocalizerFunction Localization function for the date range. See <a href="https://github
-	 *                                   .com/xdev-software/vaadin-date-range-picker/blob
-	 *                                   /75d496fb2e1a0ece4d8d3f4f1071fd605167a9c8/vaadin-date-range-picker-demo
-	 *                                   /src/main/java/software/xdev/vaadin/daterange_picker/example
-	 *                                   /DateRangePickerLocalizedDemo.java#L39">following link</a> for an example.
-	 * @param startLabel                 Localization for the start label.
-	 * @param endLabel                   Localization for the end label.
-	 * @param dateRangeOptionsLabel      Localization for the date range options label.
+	 * @param matchPreviewLabelGenerator Receives the number of matching rows and if it's an estimate (extrapolated
+	 *                                   from a sample) and returns the shown text.
 	 * @return Returns this filter-component.
 	 */
-	public FilterComponent<T> withDateRangeLocalization(
-		final ItemLabelGenerator<DateRange> dateRangeLocalizerFunction,
-		final String startLabel,
-		final String endLabel,
-		final String dateRangeOptionsLabel)
+	public FilterComponent<T> withMatchPreviewLabelGenerator(
+		final SerializableBiFunction<Long, Boolean, String> matchPreviewLabelGenerator)
 	{
-		Objects.requireNonNull(dateRangeLocalizerFunction);
-		Objects.requireNonNull(startLabel);
-		Objects.requireNonNull(endLabel);
-		Objects.requireNonNull(dateRangeOptionsLabel);
+		this.matchPreviewLabelGenerator = Objects.requireNonNull(matchPreviewLabelGenerator);
 		
-		this.dateRangePickerQuery.withDateRangeLocalizerFunction(dateRangeLocalizerFunction);
-		this.dateRangePickerQuery.setStartLabel(startLabel);
-		this.dateRangePickerQuery.setEndLabel(endLabel);
-		this.dateRangePickerQuery.setDateRangeOptionsLabel(dateRangeOptionsLabel);
+		return this;
+	}
+	
+	private static String defaultMatchPreviewLabel(final long matches, final boolean estimated)
+	{
+		return (estimated ? "\u2248" : "") + matches + " matches";
+	}
+	
+	/**
+	 * Applies a contains condition on a string field to the grid while it's typed (see
+	 * {@link #withInputValueChangeMode} for how often). When the query is extended only the rows matching the previous
+	 * query are checked again, so every further character becomes cheaper. This also applies to the combo box shown
+	 * for string fields with {@link #withValueSuggestions}, where every typed character is applied.
+	 *
+	 * @param searchAsYouType If typed contains conditions should be applied immediately.
+	 * @return Returns this filter-component.
+	 */
+	public FilterComponent<T> withSearchAsYouType(final boolean searchAsYouType)
+	{
+		this.searchAsYouType = searchAsYouType;
 		
 		return this;
 	}
 	
 	/**
-	 * Sets the text of the 'AddNewFilter'-Button.
+	 * Sets how many chip badges are shown at most. Further badges are collapsed behind a button which expands them.
+	 * Useful when a lot of conditions are active, e.g. after restoring them from the url.
 	 *
-	 * @param buttonText The text displayed on the button.
+	 * @param maxVisibleChipBadges The maximum number of visible chip badges.
 	 * @return Returns this filter-component.
 	 */
-	public FilterComponent<T> withFilterButtonText(final String buttonText)
+	public FilterComponent<T> withMaxVisibleChipBadges(final int maxVisibleChipBadges)
 	{
-		Objects.requireNonNull(buttonText);
-		this.btnAddNewFilter.setText(buttonText);
+		if(maxVisibleChipBadges < 1)
+		{
+			throw new IllegalArgumentException("At least one chip badge must be visible");
+		}
+		
+		this.maxVisibleChipBadges = maxVisibleChipBadges;
+		this.updateChipBadgeOverflow();
 		
 		return this;
 	}
@@ -1114,25 +2306,49 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	{
 		Objects.requireNonNull(filterField);
 		
-		final List<FilterField<T, ?>> filteredFilterFields = this.filterFields.stream()
-			.filter(f -> f.getDescription().equals(filterField.getDescription()))
-			.toList();
+		this.registerFilterField(filterField);
+		
+		return this;
+	}
+	
+	/**
+	 * Registers the filter field. If a field with the same description is already existing, the comparators are
+	 * merged into the existing field.
+	 *
+	 * @return The registered field.
+	 */
+	private FilterField<T, ?> registerFilterField(final FilterField<T, ?> filterField)
+	{
+		final FilterField<T, ?> existingFilterField = this.filterFieldsByDescription.get(filterField.getDescription());
 		
 		// Check if filter field is already existing
 		// If not add the filter field to the filterFields
-		if(filteredFilterFields.isEmpty())
+		if(existingFilterField == null)
 		{
 			this.filterFields.add(filterField);
-			this.selFields.setItems(this.filterFields);
-		}
-		else
-		{
-			this.checkForNotDuplicatedComparatorsAndAddThemToTheFilterField(
-				filterField,
-				filteredFilterFields.getFirst());
+			this.indexFilterField(filterField);
+			this.updateFieldItems();
+			
+			return filterField;
 		}
 		
-		return this;
+		return this.checkForNotDuplicatedComparatorsAndAddThemToTheFilterField(filterField, existingFilterField);
+	}
+	
+	private void indexFilterField(final FilterField<T, ?> filterField)
+	{
+		this.filterFieldsByDescription.put(filterField.getDescription(), filterField);
+		this.filterFieldsById.put(filterField.getId(), filterField);
+	}
+	
+	/**
+	 * @param fieldId The id of the field or its description (old url format).
+	 * @return The registered field or <code>null</code> if there is none.
+	 */
+	private FilterField<T, ?> resolveFilterField(final String fieldId)
+	{
+		final FilterField<T, ?> filterField = this.filterFieldsById.get(fieldId);
+		return filterField != null ? filterField : this.filterFieldsByDescription.get(fieldId);
 	}
 	
 	private <X> FilterField<T, ?> checkForNotDuplicatedComparatorsAndAddThemToTheFilterField(
@@ -1143,13 +2359,15 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		
 		for(final FilterComparator comparator : newFilterField.getAvailableComparators())
 		{
-			if(!oldFilterField.getAvailableComparators().contains(comparator))
-			{
-				// Add filter field with new comparator
-				this.filterFields.remove(oldFilterField);
-				newlyBuildFilterField = oldFilterField.withAvailableComparator(comparator);
-				this.filterFields.add(oldFilterField);
-			}
+			newlyBuildFilterField = newlyBuildFilterField.withAvailableComparator(comparator);
+		}
+		
+		if(newlyBuildFilterField != oldFilterField)
+		{
+			// Filter fields are immutable - replace the old one with the one containing the new comparators
+			this.filterFields.set(this.filterFields.indexOf(oldFilterField), newlyBuildFilterField);
+			this.indexFilterField(newlyBuildFilterField);
+			this.updateFieldItems();
 		}
 		
 		return newlyBuildFilterField;
@@ -1169,6 +2387,36 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		return this.withFilter(simpleFilterField.getFilterField());
 	}
 	
+	/**
+	 * Used to create multiple filters at once. The selectable fields are only updated once.
+	 *
+	 * @param filterFields The new filterFields that should be created.
+	 * @return Returns this filter-component.
+	 * @see #withFilter(FilterField)
+	 */
+	public FilterComponent<T> withFilters(final Collection<? extends FilterField<T, ?>> filterFields)
+	{
+		Objects.requireNonNull(filterFields);
+		
+		this.runBatched(() -> filterFields.forEach(this::registerFilterField));
+		
+		return this;
+	}
+	
+	/**
+	 * Used to add all fields of a shared {@link FilterSchema}.
+	 *
+	 * @param filterSchema The schema, usually built once and shared by all filter components for the same data.
+	 * @return Returns this filter-component.
+	 * @see FilterSchema
+	 */
+	public FilterComponent<T> withFilterSchema(final FilterSchema<T> filterSchema)
+	{
+		Objects.requireNonNull(filterSchema);
+		
+		return this.withFilters(filterSchema.getFields());
+	}
+	
 	/**
 	 * Used to activate query parameters for the filter component.
 	 *
@@ -1187,6 +2435,19 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		return this;
 	}
 	
+	/**
+	 * Sets the limits for the conditions which are restored from the url. Conditions exceeding them are ignored.
+	 *
+	 * @param queryParameterLimits The limits.
+	 * @return Returns this filter component.
+	 */
+	public FilterComponent<T> withUrlParameterLimits(final QueryParameterLimits queryParameterLimits)
+	{
+		this.queryParameterLimits = Objects.requireNonNull(queryParameterLimits);
+		
+		return this;
+	}
+	
 	/**
 	 * 'setParameter' wouldn't be called in this class that's why we are using 'beforeEnter' here. Get the query
 	 * parameter and create the filters. Duplicated query parameters will create just one condition.
@@ -1199,61 +2460,54 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		// Get conditions with same identifier as this component
 		if(!this.identifier.isBlank())
 		{
-			final Map<String, List<String>> parametersValues =
-				beforeEnterEvent.getLocation().getQueryParameters().getParameters();
+			UrlState.get(this.ui).setLocation(beforeEnterEvent.getLocation());
 			
-			if(QueryParameterManager.parametersAreValid(parametersValues))
+			final List<QueryCondition> conditionsFromUrl;
+			try
 			{
-				this.queryComponentIds.clear();
-				this.queryFields.clear();
-				this.queryConditionFields.clear();
-				this.queryInputFields.clear();
-				
-				this.queryBadgeIds.clear();
-				this.queryBadgeEditables.clear();
-				this.queryBadgeDeletables.clear();
-				
-				final List<String> ids = parametersValues.get(QUERY_COMPONENT_ID_STRING);
-				
-				// Get all indices which component ids are matching this one
-				final int[] matchingIndices = IntStream.range(0, ids.size())
-					.filter(i -> this.identifier.equals(ids.get(i)))
-					.toArray();
-				
-				String componentId;
-				String field;
-				String condition;
-				String input;
-				String badgeId;
-				String editable;
-				String deletable;
+				// Duplicates are only removed after resolving, as a condition may use the old and the new ids
+				conditionsFromUrl = QueryParameterManager.readConditions(
+					beforeEnterEvent.getLocation().getQueryParameters().getParameters(),
+					this.identifier,
+					this.queryParameterLimits,
+					this::resolveQueryCondition);
+			}
+			catch(final IllegalArgumentException e)
+			{
+				// Malformed (e.g. manually modified) url or limits exceeded - ignore it
+				LOG.warn("Ignoring the conditions of filter-component '{}' from the url: {}",
+					this.identifier, e.getMessage());
+				return;
+			}
+			
+			if(!conditionsFromUrl.isEmpty())
+			{
+				// The conditions are only known after they were restored
+				this.queryConditions.clear();
 				
-				for(final int i : matchingIndices)
+				this.evaluationTimeBudget = this.queryParameterLimits.getEvaluationTimeBudget();
+				try
 				{
-					componentId = parametersValues.get(QUERY_COMPONENT_ID_STRING).get(i);
-					field = parametersValues.get(QUERY_FIELD_STRING).get(i);
-					condition = parametersValues.get(QUERY_CONDITION_STRING).get(i);
-					input = parametersValues.get(QUERY_INPUT_STRING).get(i);
-					
-					badgeId = parametersValues.get(QUERY_BADGE_ID_STRING).get(i);
-					editable = parametersValues.get(QUERY_BADGE_EDITABLE_STRING).get(i);
-					deletable = parametersValues.get(QUERY_BADGE_DELETABLE_STRING).get(i);
-					
-					if(this.queryParameterIsNotAlreadyExisting(componentId, field, condition, input))
+					this.runBatched(() ->
 					{
-						this.queryComponentIds.add(componentId);
-						this.queryFields.add(field);
-						this.queryConditionFields.add(condition);
-						this.queryInputFields.add(input);
-						
-						this.queryBadgeIds.add(badgeId);
-						this.queryBadgeEditables.add(editable);
-						this.queryBadgeDeletables.add(deletable);
-					}
+						this.removeInitialConditionIfBadgeIdAlreadyExists(conditionsFromUrl);
+						this.createConditionsFromQueryParameters(conditionsFromUrl);
+					});
+					// The evaluation might have been deferred until the grid fetches the data
+					this.getFilterDataProvider().getEngine().getMatchSet(this.evaluationTimeBudget);
+				}
+				catch(final FilterEvaluationTimeoutException e)
+				{
+					LOG.warn("Rejected the conditions of filter-component '{}' from the url: {}",
+						this.identifier, e.getMessage());
+					this.evaluationTimeBudget = null;
+					this.onResetFilter();
+					return;
+				}
+				finally
+				{
+					this.evaluationTimeBudget = null;
 				}
-				
-				this.removeInitialConditionIfBadgeIdAlreadyExists(this.queryBadgeIds);
-				this.createConditionsFromQueryParameters();
 				
 				this.btnResetFilter.setEnabled(true);
 			}
@@ -1264,56 +2518,29 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	 * This method is used to remove the initial filters after they have been added before the query parameters are
 	 * read.
 	 *
-	 * @param queryBadgeIds The list with all badge ids.
+	 * @param queryConditions The conditions from the url.
 	 */
-	private void removeInitialConditionIfBadgeIdAlreadyExists(final List<String> queryBadgeIds)
-	{
-		final List<ChipBadgeExtension<FilterCondition<T, ?>>> chipBadgesCopy = new ArrayList<>(this.chipBadges);
-		
-		for(final String badgeId : queryBadgeIds)
-		{
-			for(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge : chipBadgesCopy)
-			{
-				if(chipBadge.getBadgeId().equals(badgeId))
-				{
-					this.removeChipBadgeCondition(chipBadge);
-				}
-			}
-		}
-	}
-	
-	private boolean queryParameterIsNotAlreadyExisting(
-		final String componentId,
-		final String field,
-		final String condition,
-		final String input)
+	private void removeInitialConditionIfBadgeIdAlreadyExists(final List<QueryCondition> queryConditions)
 	{
-		for(int i = 0; i < this.queryComponentIds.size(); i++)
-		{
-			if(this.queryComponentIds.get(i).equals(componentId)
-				&& field.equals(this.queryFields.get(i))
-				&& condition.equals(this.queryConditionFields.get(i))
-				&& input.equals(this.queryInputFields.get(i)))
-			{
-				return false;
-			}
-		}
+		final Set<String> badgeIds = queryConditions.stream()
+			.map(QueryCondition::badgeId)
+			.collect(Collectors.toSet());
 		
-		return true;
+		new ArrayList<>(this.chipBadges).stream()
+			.filter(chipBadge -> badgeIds.contains(chipBadge.getBadgeId()))
+			.forEach(this::removeChipBadgeCondition);
 	}
 	
-	private String createMultipleQueryParameterString()
+	private QueryCondition createQueryCondition(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge)
 	{
-		final Map<String, List<String>> query = new HashMap<>();
-		query.put(QUERY_COMPONENT_ID_STRING, this.queryComponentIds);
-		query.put(QUERY_FIELD_STRING, this.queryFields);
-		query.put(QUERY_INPUT_STRING, this.queryInputFields);
-		query.put(QUERY_CONDITION_STRING, this.queryConditionFields);
-		query.put(QUERY_BADGE_ID_STRING, this.queryBadgeIds);
-		query.put(QUERY_BADGE_DELETABLE_STRING, this.queryBadgeDeletables);
-		query.put(QUERY_BADGE_EDITABLE_STRING, this.queryBadgeEditables);
-		
-		return new QueryParameters(query).getQueryString();
+		final FilterCondition<T, ?> filterCondition = chipBadge.getItem();
+		return new QueryCondition(
+			filterCondition.getItem().getId(),
+			filterCondition.getSelectedCondition().getId(),
+			filterCondition.getInputValue(),
+			chipBadge.getBadgeId(),
+			chipBadge.isBtnDeleteEnabled(),
+			chipBadge.isBtnEditEnabled());
 	}
 	
 	/**
@@ -1323,46 +2550,8 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	 */
 	private void addQueryParameter(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge)
 	{
-		final FilterCondition<T, ?> filterCondition = chipBadge.getItem();
-		this.queryFields.add(filterCondition.getItem().getDescription());
-		this.queryConditionFields.add(filterCondition.getSelectedCondition().getDescription());
-		this.queryInputFields.add(filterCondition.getInputValue());
-		this.queryBadgeIds.add(chipBadge.getBadgeId());
-		this.queryBadgeDeletables.add(String.valueOf(chipBadge.isBtnDeleteEnabled()));
-		this.queryBadgeEditables.add(String.valueOf(chipBadge.isBtnEditEnabled()));
-		
-		this.ui.getPage().fetchCurrentURL(currentUrl ->
-		{
-			final String questionMarkCharacter = "?";
-			String querySeperator = "";
-			String currentQuery = currentUrl.getQuery();
-			
-			if(currentQuery != null)
-			{
-				querySeperator = "&";
-			}
-			else
-			{
-				currentQuery = "";
-			}
-			
-			this.ui
-				.getPage()
-				.getHistory()
-				.replaceState(
-					null,
-					new Location(
-						currentUrl.getPath()
-							+ questionMarkCharacter
-							+ currentQuery
-							+ querySeperator
-							+ QueryParameterManager.createQueryParameterString(
-							this.identifier,
-							filterCondition,
-							chipBadge.getBadgeId(),
-							chipBadge.isBtnDeleteEnabled(),
-							chipBadge.isBtnEditEnabled())));
-		});
+		this.queryConditions.add(this.createQueryCondition(chipBadge));
+		this.updateUrl();
 	}
 	
 	/**
@@ -1372,56 +2561,26 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 	 */
 	private void removeQueryParameter(final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge)
 	{
-		this.ui.getPage().fetchCurrentURL(currentUrl ->
+		if(this.queryConditions.remove(this.createQueryCondition(chipBadge)))
 		{
-			if(currentUrl.getQuery() != null)
-			{
-				final Map<String, List<String>> param =
-					QueryParameters.fromString(currentUrl.getQuery()).getParameters();
-				final FilterCondition<T, ?> filterCondition = chipBadge.getItem();
-				
-				this.queryComponentIds = new LinkedList<>(param.get(QUERY_COMPONENT_ID_STRING));
-				this.queryFields = new LinkedList<>(param.get(QUERY_FIELD_STRING));
-				this.queryConditionFields = new LinkedList<>(param.get(QUERY_CONDITION_STRING));
-				this.queryInputFields = new LinkedList<>(param.get(QUERY_INPUT_STRING));
-				this.queryBadgeIds = new LinkedList<>(param.get(QUERY_BADGE_ID_STRING));
-				this.queryBadgeDeletables = new LinkedList<>(param.get(QUERY_BADGE_DELETABLE_STRING));
-				this.queryBadgeEditables = new LinkedList<>(param.get(QUERY_BADGE_EDITABLE_STRING));
-				
-				// Checking if condition is in the current url
-				if(this.queryComponentIds
-					.stream().anyMatch(x -> x.equals(this.identifier))
-					&& this.queryFields
-					.stream().anyMatch(x -> x.equals(filterCondition.getItem().getDescription()))
-					&& this.queryConditionFields
-					.stream().anyMatch(x -> x.equals(filterCondition.getSelectedCondition().getDescription()))
-					&& this.queryInputFields
-					.stream().anyMatch(x -> x.equals(filterCondition.getInputValue()))
-					&& this.queryBadgeIds
-					.stream().anyMatch(x -> x.equals(chipBadge.getBadgeId()))
-					&& this.queryBadgeDeletables
-					.stream().anyMatch(x -> x.equals(String.valueOf(chipBadge.isBtnDeleteEnabled())))
-					&& this.queryBadgeEditables
-					.stream().anyMatch(x -> x.equals(String.valueOf(chipBadge.isBtnEditEnabled()))))
-				{
-					
-					this.queryComponentIds.remove(this.identifier);
-					this.queryFields.remove(filterCondition.getItem().getDescription());
-					this.queryConditionFields.remove(filterCondition.getSelectedCondition().getDescription());
-					this.queryInputFields.remove(filterCondition.getInputValue());
-					this.queryBadgeIds.remove(chipBadge.getBadgeId());
-					this.queryBadgeDeletables.remove(String.valueOf(chipBadge.isBtnDeleteEnabled()));
-					this.queryBadgeEditables.remove(String.valueOf(chipBadge.isBtnEditEnabled()));
-					
-					this.ui
-						.getPage()
-						.getHistory()
-						.replaceState(null, currentUrl.getPath()
-							+ "?"
-							+ this.createMultipleQueryParameterString());
-				}
-			}
-		});
+			this.updateUrl();
+		}
+	}
+	
+	/**
+	 * Writes the conditions of this component into the url. Parameters of other components are kept.
+	 *
+	 * @see UrlState
+	 */
+	private void updateUrl()
+	{
+		if(this.identifier.isBlank())
+		{
+			return;
+		}
+		
+		// Coalesced - the browser is updated once before the response is sent
+		UrlState.get(this.ui).setConditions(this.identifier, List.copyOf(this.queryConditions));
 	}
 	
 	/**
@@ -1447,26 +2606,13 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		
 		if(conditionEditable)
 		{
-			final List<FilterField<T, ?>> filteredFilterFields = this.filterFields.stream()
-				.filter(f -> f.getDescription().equals(filterField.getDescription()))
-				.toList();
-			
 			// Check if filter field is already existing
-			// If not add the filter field to the filterFields
-			if(filteredFilterFields.isEmpty())
-			{
-				finalFilterField = finalFilterField.withAvailableComparator(selectedCondition);
-				this.filterFields.add(finalFilterField);
-			}
+			// If not add the filter field (with the selected condition) to the filterFields
 			// If yes check if the comparator is already in the filter field
-			else
-			{
-				finalFilterField = this.checkForNotDuplicatedComparatorsAndAddThemToTheFilterField(
-					filterField,
-					filteredFilterFields.getFirst());
-			}
-			
-			this.selFields.setItems(this.filterFields);
+			finalFilterField = this.registerFilterField(
+				this.filterFieldsByDescription.containsKey(filterField.getDescription())
+					? filterField
+					: filterField.withAvailableComparator(selectedCondition));
 		}
 		
 		final ChipBadgeExtension<FilterCondition<T, ?>> chipBadge = this.createBadgeConditionAndApplyFilter(
@@ -1540,4 +2686,68 @@ public class FilterComponent<T> extends Composite<VerticalLayout> implements Bef
 		
 		return filterComponent;
 	}
+	
+	/**
+	 * Used to add multiple initial filters at once. The grid is only filtered once after all conditions were added.
+	 *
+	 * @param initialFilters The initial filters which should be added.
+	 * @return Returns this filter component.
+	 * @see InitialFilter
+	 */
+	public FilterComponent<T> withInitialFilters(final Collection<InitialFilter<T>> initialFilters)
+	{
+		Objects.requireNonNull(initialFilters);
+		
+		this.runBatched(() ->
+		{
+			for(final InitialFilter<T> initialFilter : initialFilters)
+			{
+				if(initialFilter.getBadgeId() == null)
+				{
+					this.withInitialFilter(
+						initialFilter.getFilterField(),
+						initialFilter.getSelectedCondition(),
+						initialFilter.getSearchQuery(),
+						initialFilter.isDeletable(),
+						initialFilter.isEditable(),
+						initialFilter.getCustomizationDegree());
+				}
+				else
+				{
+					this.withInitialFilter(
+						initialFilter.getFilterField(),
+						initialFilter.getSelectedCondition(),
+						initialFilter.getSearchQuery(),
+						initialFilter.isDeletable(),
+						initialFilter.isEditable(),
+						initialFilter.getCustomizationDegree(),
+						initialFilter.getBadgeId());
+				}
+			}
+		});
+		
+		return this;
+	}
+	
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		
+		this.filterFieldsByDescription = new HashMap<>();
+		this.filterFieldsById = new HashMap<>();
+		this.filterFields.forEach(this::indexFilterField);
+		
+		if(this.defaultSharedResultCache)
+		{
+			this.sharedResultCache = SharedMatchSetCache.getDefault();
+		}
+	}
+	
+	
+	/**
+	 * Identifies a condition by its field, comparator and input value.
+	 */
+	private record ConditionKey(String field, String comparator, String inputValue)
+	{
+	}
 }
@@ -29,7 +29,7 @@ public final class ContainsComparator implements FilterComparator
 {
 	public static final String CONTAINS_COMPARATOR_DESCRIPTION = "contains";
 	
-	private static ContainsComparator instance;
+	private static final ContainsComparator INSTANCE = new ContainsComparator();
 	
 	private ContainsComparator()
 	{
@@ -37,12 +37,15 @@ public final class ContainsComparator implements FilterComparator
 	
 	public static ContainsComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new ContainsComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -51,6 +54,12 @@ public final class ContainsComparator implements FilterComparator
 		return CONTAINS_COMPARATOR_DESCRIPTION;
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "ct";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
@@ -59,6 +68,17 @@ public final class ContainsComparator implements FilterComparator
 			|| Enum.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * A value containing a search query also contains every part of it. Numbers are only compared with queries which
+	 * are numbers, so the other query has to be a number too if the search query is one.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return searchQuery.contains(otherSearchQuery)
+			&& (!TypeDetermination.isDouble(searchQuery) || TypeDetermination.isDouble(otherSearchQuery));
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
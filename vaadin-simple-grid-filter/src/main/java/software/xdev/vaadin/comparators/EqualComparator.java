@@ -30,7 +30,7 @@ import software.xdev.vaadin.comparators.utl.TypeDetermination;
  */
 public final class EqualComparator implements FilterComparator
 {
-	private static EqualComparator instance;
+	private static final EqualComparator INSTANCE = new EqualComparator();
 	
 	private EqualComparator()
 	{
@@ -38,12 +38,15 @@ public final class EqualComparator implements FilterComparator
 	
 	public static EqualComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new EqualComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -52,6 +55,12 @@ public final class EqualComparator implements FilterComparator
 		return "is equals to";
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "eq";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
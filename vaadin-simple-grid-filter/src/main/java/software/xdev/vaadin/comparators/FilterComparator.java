@@ -15,19 +15,45 @@
  */
 package software.xdev.vaadin.comparators;
 
+import java.io.Serializable;
 import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
 
 /**
- * Interface for comparator.
+ * Interface for comparator. Comparators are shared between sessions and should therefore be stateless.
  */
-public interface FilterComparator
+public interface FilterComparator extends Serializable
 {
 	String getDescription();
 	
+	/**
+	 * @return A short and stable id of the comparator which is used e.g. in the url. Must not change, otherwise
+	 * existing urls can no longer be restored. Defaults to the description.
+	 */
+	default String getId()
+	{
+		return this.getDescription();
+	}
+	
 	boolean isApplicable(Class<?> clazz);
 	
+	/**
+	 * Checks if every value matching the search query also matches the other search query, e.g. when the user
+	 * extended the search query. This allows to only check the previous matches instead of all rows.
+	 * <p>
+	 * Must be conservative: When in doubt <code>false</code> has to be returned. Defaults to equality.
+	 * </p>
+	 *
+	 * @param searchQuery      The (new) search query.
+	 * @param otherSearchQuery The other (previous) search query.
+	 * @return <code>true</code> if the search query is at least as restrictive as the other one.
+	 */
+	default boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return searchQuery.equals(otherSearchQuery);
+	}
+	
 	<B, T> Predicate<B> compare(ValueProvider<B, T> provider, String searchQuery);
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.comparators;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Thread-safe registry which maps the stable {@link FilterComparator#getId() ids} to the comparators.
+ * <p>
+ * The {@link #getDefault() default registry} contains all built-in comparators; custom comparators can be added to
+ * it. Comparators which aren't registered are still found by the {@link software.xdev.vaadin.FilterComponent} through
+ * the comparators of the field, but with a linear scan.
+ * </p>
+ */
+public final class FilterComparatorRegistry
+{
+	private static final FilterComparatorRegistry DEFAULT = new FilterComparatorRegistry(List.of(
+		EqualComparator.getInstance(),
+		NotEqualComparator.getInstance(),
+		ContainsComparator.getInstance(),
+		NotContainsComparator.getInstance(),
+		GreaterThanComparator.getInstance(),
+		GreaterThanOrEqualsComparator.getInstance(),
+		LessThanComparator.getInstance(),
+		LessThanOrEqualsComparator.getInstance(),
+		IsAfterComparator.getInstance(),
+		IsAfterOrEqualsComparator.getInstance(),
+		IsBeforeComparator.getInstance(),
+		IsBeforeOrEqualsComparator.getInstance(),
+		IsBetweenComparator.getInstance()));
+	
+	private final ConcurrentMap<String, FilterComparator> comparatorsById = new ConcurrentHashMap<>();
+	
+	public FilterComparatorRegistry()
+	{
+	}
+	
+	public FilterComparatorRegistry(final Collection<? extends FilterComparator> comparators)
+	{
+		comparators.forEach(this::register);
+	}
+	
+	/**
+	 * @return The application wide registry which contains all built-in comparators.
+	 */
+	public static FilterComparatorRegistry getDefault()
+	{
+		return DEFAULT;
+	}
+	
+	/**
+	 * Registers the comparator under its id. Registering the same comparator (or another instance of the same
+	 * class) again has no effect.
+	 *
+	 * @param comparator The comparator which should be registered.
+	 * @return The registered comparator with the id.
+	 * @throws IllegalStateException If another comparator is already registered with the same id.
+	 */
+	public FilterComparator register(final FilterComparator comparator)
+	{
+		Objects.requireNonNull(comparator);
+		
+		final FilterComparator registered = this.comparatorsById.putIfAbsent(comparator.getId(), comparator);
+		if(registered == null)
+		{
+			return comparator;
+		}
+		if(registered.getClass() != comparator.getClass())
+		{
+			throw new IllegalStateException("The id '" + comparator.getId() + "' of "
+				+ comparator.getClass().getName() + " is already used by " + registered.getClass().getName());
+		}
+		return registered;
+	}
+	
+	/**
+	 * @param id The id of the comparator.
+	 * @return The comparator with the id.
+	 */
+	public Optional<FilterComparator> get(final String id)
+	{
+		return Optional.ofNullable(this.comparatorsById.get(id));
+	}
+	
+	/**
+	 * @return An unmodifiable view of all registered comparators.
+	 */
+	public Collection<FilterComparator> getAll()
+	{
+		return Collections.unmodifiableCollection(this.comparatorsById.values());
+	}
+}
@@ -19,6 +19,7 @@ import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 // CPD-OFF - Fixed in v2
@@ -27,7 +28,7 @@ import software.xdev.vaadin.comparators.utl.TypeDetermination;
  */
 public final class GreaterThanComparator implements FilterComparator
 {
-    private static GreaterThanComparator instance;
+    private static final GreaterThanComparator INSTANCE = new GreaterThanComparator();
 
     private GreaterThanComparator()
     {
@@ -35,12 +36,15 @@ public final class GreaterThanComparator implements FilterComparator
 
     public static GreaterThanComparator getInstance()
     {
-        if (instance == null)
-        {
-            instance = new GreaterThanComparator();
-        }
-
-        return instance;
+        return INSTANCE;
+    }
+    
+    /**
+     * Keeps the singleton when deserialized.
+     */
+    private Object readResolve()
+    {
+        return INSTANCE;
     }
 
     @Override
@@ -49,12 +53,27 @@ public final class GreaterThanComparator implements FilterComparator
         return "is greater than";
     }
 
+    @Override
+    public String getId()
+    {
+        return "gt";
+    }
+
     @Override
     public boolean isApplicable(final Class<?> clazz)
     {
         return Number.class.isAssignableFrom(clazz);
     }
 
+    /**
+     * Values greater than a search query are also greater than every smaller search query.
+     */
+    @Override
+    public boolean implies(final String searchQuery, final String otherSearchQuery)
+    {
+        return SearchQueryComparison.isAtLeast(searchQuery, otherSearchQuery);
+    }
+    
     @Override
     public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
     {
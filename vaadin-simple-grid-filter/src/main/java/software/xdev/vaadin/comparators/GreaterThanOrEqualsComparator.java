@@ -19,6 +19,7 @@ import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 
@@ -27,7 +28,7 @@ public final class GreaterThanOrEqualsComparator implements FilterComparator
 {
 	public static final String GREATER_THAN_OR_EQUALS_COMPARATOR_DESCRIPTION = "is greater than or equals";
 	
-	private static GreaterThanOrEqualsComparator instance;
+	private static final GreaterThanOrEqualsComparator INSTANCE = new GreaterThanOrEqualsComparator();
 	
 	private GreaterThanOrEqualsComparator()
 	{
@@ -35,12 +36,15 @@ public final class GreaterThanOrEqualsComparator implements FilterComparator
 	
 	public static GreaterThanOrEqualsComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new GreaterThanOrEqualsComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -49,12 +53,27 @@ public final class GreaterThanOrEqualsComparator implements FilterComparator
 		return GREATER_THAN_OR_EQUALS_COMPARATOR_DESCRIPTION;
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "ge";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
 		return Number.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * Values greater than or equal to a search query are also greater than or equal to every smaller search query.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return SearchQueryComparison.isAtLeast(searchQuery, otherSearchQuery);
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
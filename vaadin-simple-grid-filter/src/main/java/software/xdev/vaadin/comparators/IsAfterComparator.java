@@ -22,6 +22,7 @@ import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 // CPD-OFF - Fixed in v2
@@ -30,7 +31,7 @@ import software.xdev.vaadin.comparators.utl.TypeDetermination;
  */
 public final class IsAfterComparator implements FilterComparator
 {
-	private static IsAfterComparator instance;
+	private static final IsAfterComparator INSTANCE = new IsAfterComparator();
 	
 	private IsAfterComparator()
 	{
@@ -38,12 +39,15 @@ public final class IsAfterComparator implements FilterComparator
 	
 	public static IsAfterComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new IsAfterComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -52,12 +56,27 @@ public final class IsAfterComparator implements FilterComparator
 		return "is after";
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "af";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
 		return TemporalAccessor.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * Values after a search query are also after every earlier search query of the same type.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return SearchQueryComparison.isAtLeast(searchQuery, otherSearchQuery);
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
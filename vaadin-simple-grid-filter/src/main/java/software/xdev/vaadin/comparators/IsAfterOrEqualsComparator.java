@@ -22,6 +22,7 @@ import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 // CPD-OFF - Fixed in v2
@@ -32,7 +33,7 @@ public final class IsAfterOrEqualsComparator implements FilterComparator
 {
 	public static final String IS_AFTER_OR_EQUALS_COMPARATOR_DESCRIPTION = "is after or equals";
 	
-	private static IsAfterOrEqualsComparator instance;
+	private static final IsAfterOrEqualsComparator INSTANCE = new IsAfterOrEqualsComparator();
 	
 	private IsAfterOrEqualsComparator()
 	{
@@ -40,12 +41,15 @@ public final class IsAfterOrEqualsComparator implements FilterComparator
 	
 	public static IsAfterOrEqualsComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new IsAfterOrEqualsComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -54,12 +58,27 @@ public final class IsAfterOrEqualsComparator implements FilterComparator
 		return IS_AFTER_OR_EQUALS_COMPARATOR_DESCRIPTION;
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "afe";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
 		return TemporalAccessor.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * Values after or equal to a search query are also after or equal to every earlier search query of the same type.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return SearchQueryComparison.isAtLeast(searchQuery, otherSearchQuery);
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
@@ -22,6 +22,7 @@ import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 // CPD-OFF - Fixed in v2
@@ -30,7 +31,7 @@ import software.xdev.vaadin.comparators.utl.TypeDetermination;
  */
 public final class IsBeforeComparator implements FilterComparator
 {
-	private static IsBeforeComparator instance;
+	private static final IsBeforeComparator INSTANCE = new IsBeforeComparator();
 	
 	private IsBeforeComparator()
 	{
@@ -38,12 +39,15 @@ public final class IsBeforeComparator implements FilterComparator
 	
 	public static IsBeforeComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new IsBeforeComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -52,12 +56,27 @@ public final class IsBeforeComparator implements FilterComparator
 		return "is before";
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "bf";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
 		return TemporalAccessor.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * Values before a search query are also before every later search query of the same type.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return SearchQueryComparison.isAtMost(searchQuery, otherSearchQuery);
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
@@ -22,6 +22,7 @@ import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 // CPD-OFF - Fixed in v2
@@ -32,7 +33,7 @@ public final class IsBeforeOrEqualsComparator implements FilterComparator
 {
 	public static final String IS_BEFORE_OR_EQUALS_COMPARATOR_DESCRIPTION = "is before or equals";
 	
-	private static IsBeforeOrEqualsComparator instance;
+	private static final IsBeforeOrEqualsComparator INSTANCE = new IsBeforeOrEqualsComparator();
 	
 	private IsBeforeOrEqualsComparator()
 	{
@@ -40,12 +41,15 @@ public final class IsBeforeOrEqualsComparator implements FilterComparator
 	
 	public static IsBeforeOrEqualsComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new IsBeforeOrEqualsComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -54,12 +58,27 @@ public final class IsBeforeOrEqualsComparator implements FilterComparator
 		return IS_BEFORE_OR_EQUALS_COMPARATOR_DESCRIPTION;
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "bfe";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
 		return TemporalAccessor.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * Values before or equal to a search query are also before or equal to every later search query of the same type.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return SearchQueryComparison.isAtMost(searchQuery, otherSearchQuery);
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
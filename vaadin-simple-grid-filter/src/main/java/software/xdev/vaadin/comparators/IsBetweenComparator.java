@@ -21,6 +21,7 @@ import java.util.function.Predicate;
 import com.vaadin.flow.function.ValueProvider;
 
 import software.xdev.vaadin.comparators.utl.IncorrectSearchQueryFormatException;
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 
@@ -32,7 +33,7 @@ public final class IsBetweenComparator implements FilterComparator
 	public static final String IS_BETWEEN_COMPARATOR_DESCRIPTION = "is between";
 	public static final String IS_BETWEEN_COMPARATOR_SEPARATOR = "#";
 	
-	private static IsBetweenComparator instance;
+	private static final IsBetweenComparator INSTANCE = new IsBetweenComparator();
 	
 	private IsBetweenComparator()
 	{
@@ -40,12 +41,15 @@ public final class IsBetweenComparator implements FilterComparator
 	
 	public static IsBetweenComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new IsBetweenComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -54,12 +58,39 @@ public final class IsBetweenComparator implements FilterComparator
 		return IS_BETWEEN_COMPARATOR_DESCRIPTION;
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "bw";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
 		return LocalDate.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * A range implies every range containing it. An empty search query matches everything.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		if(otherSearchQuery.isBlank() || searchQuery.equals(otherSearchQuery))
+		{
+			return true;
+		}
+		
+		final String[] dates = searchQuery.split(IS_BETWEEN_COMPARATOR_SEPARATOR);
+		final String[] otherDates = otherSearchQuery.split(IS_BETWEEN_COMPARATOR_SEPARATOR);
+		return dates.length == 2
+			&& otherDates.length == 2
+			&& TypeDetermination.isLocalDate(dates[0])
+			&& TypeDetermination.isLocalDate(dates[1])
+			&& SearchQueryComparison.isAtLeast(dates[0], otherDates[0])
+			&& SearchQueryComparison.isAtMost(dates[1], otherDates[1]);
+	}
+	
 	@SuppressWarnings("PMD.PreserveStackTrace") // Fixed in v2
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
@@ -19,6 +19,7 @@ import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 // CPD-OFF - Fixed in v2
@@ -27,7 +28,7 @@ import software.xdev.vaadin.comparators.utl.TypeDetermination;
  */
 public final class LessThanComparator implements FilterComparator
 {
-	private static LessThanComparator instance;
+	private static final LessThanComparator INSTANCE = new LessThanComparator();
 	
 	private LessThanComparator()
 	{
@@ -35,12 +36,15 @@ public final class LessThanComparator implements FilterComparator
 	
 	public static LessThanComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new LessThanComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -49,12 +53,27 @@ public final class LessThanComparator implements FilterComparator
 		return "is less than";
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "lt";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
 		return Number.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * Values less than a search query are also less than every greater search query.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return SearchQueryComparison.isAtMost(searchQuery, otherSearchQuery);
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
@@ -19,6 +19,7 @@ import java.util.function.Predicate;
 
 import com.vaadin.flow.function.ValueProvider;
 
+import software.xdev.vaadin.comparators.utl.SearchQueryComparison;
 import software.xdev.vaadin.comparators.utl.TypeDetermination;
 
 
@@ -27,7 +28,7 @@ public final class LessThanOrEqualsComparator implements FilterComparator
 {
 	public static final String LESS_THAN_OR_EQUALS_COMPARATOR_DESCRIPTION = "is less than or equals";
 	
-	private static LessThanOrEqualsComparator instance;
+	private static final LessThanOrEqualsComparator INSTANCE = new LessThanOrEqualsComparator();
 	
 	private LessThanOrEqualsComparator()
 	{
@@ -35,12 +36,15 @@ public final class LessThanOrEqualsComparator implements FilterComparator
 	
 	public static LessThanOrEqualsComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new LessThanOrEqualsComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -49,12 +53,27 @@ public final class LessThanOrEqualsComparator implements FilterComparator
 		return LESS_THAN_OR_EQUALS_COMPARATOR_DESCRIPTION;
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "le";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
 		return Number.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * Values less than or equal to a search query are also less than or equal to every greater search query.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return SearchQueryComparison.isAtMost(searchQuery, otherSearchQuery);
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
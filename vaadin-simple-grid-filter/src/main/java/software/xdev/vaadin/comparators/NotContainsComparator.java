@@ -27,7 +27,7 @@ import software.xdev.vaadin.comparators.utl.TypeDetermination;
  */
 public final class NotContainsComparator implements FilterComparator
 {
-	private static NotContainsComparator instance;
+	private static final NotContainsComparator INSTANCE = new NotContainsComparator();
 	
 	private NotContainsComparator()
 	{
@@ -35,12 +35,15 @@ public final class NotContainsComparator implements FilterComparator
 	
 	public static NotContainsComparator getInstance()
 	{
-		if(instance == null)
-		{
-			instance = new NotContainsComparator();
-		}
-		
-		return instance;
+		return INSTANCE;
+	}
+	
+	/**
+	 * Keeps the singleton when deserialized.
+	 */
+	private Object readResolve()
+	{
+		return INSTANCE;
 	}
 	
 	@Override
@@ -49,6 +52,12 @@ public final class NotContainsComparator implements FilterComparator
 		return "not contains";
 	}
 	
+	@Override
+	public String getId()
+	{
+		return "nct";
+	}
+	
 	@Override
 	public boolean isApplicable(final Class<?> clazz)
 	{
@@ -57,6 +66,17 @@ public final class NotContainsComparator implements FilterComparator
 			|| Enum.class.isAssignableFrom(clazz);
 	}
 	
+	/**
+	 * A value not containing a search query also doesn't contain any longer query which contains it. Numbers are only
+	 * compared with queries which are numbers, so the other query has to be a number too if the search query is one.
+	 */
+	@Override
+	public boolean implies(final String searchQuery, final String otherSearchQuery)
+	{
+		return otherSearchQuery.contains(searchQuery)
+			&& (!TypeDetermination.isDouble(searchQuery) || TypeDetermination.isDouble(otherSearchQuery));
+	}
+	
 	@Override
 	public <B, T> Predicate<B> compare(final ValueProvider<B, T> provider, final String searchQuery)
 	{
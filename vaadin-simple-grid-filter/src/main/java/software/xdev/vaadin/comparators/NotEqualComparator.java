@@ -30,7 +30,7 @@ import software.xdev.vaadin.comparators.utl.TypeDetermination;
  */
 public final class NotEqualComparator implements FilterComparator
 {
-    private static NotEqualComparator instance;
+    private static final NotEqualComparator INSTANCE = new NotEqualComparator();
 
     private NotEqualComparator()
     {
@@ -38,12 +38,15 @@ public final class NotEqualComparator implements FilterComparator
 
     public static NotEqualComparator getInstance()
     {
-        if (instance == null)
-        {
-            instance = new NotEqualComparator();
-        }
+        return INSTANCE;
+    }
 
-        return instance;
+    /**
+     * Keeps the singleton when deserialized.
+     */
+    private Object readResolve()
+    {
+        return INSTANCE;
     }
 
     @Override
@@ -52,6 +55,12 @@ public final class NotEqualComparator implements FilterComparator
         return "is not equals to";
     }
 
+    @Override
+    public String getId()
+    {
+        return "ne";
+    }
+
     @Override
     public boolean isApplicable(final Class<?> clazz)
     {
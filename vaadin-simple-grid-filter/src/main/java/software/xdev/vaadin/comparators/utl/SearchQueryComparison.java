@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.comparators.utl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.OptionalInt;
+
+
+/**
+ * Used for comparing two search queries of ordering comparators (numbers, dates and date-times) with each other.
+ */
+public final class SearchQueryComparison
+{
+	private SearchQueryComparison()
+	{
+	}
+	
+	/**
+	 * @return <code>true</code> if both search queries are of the same type and the search query is greater than or
+	 * equal to the other one.
+	 */
+	public static boolean isAtLeast(final String searchQuery, final String otherSearchQuery)
+	{
+		final OptionalInt comparison = compare(searchQuery, otherSearchQuery);
+		return comparison.isPresent() && comparison.getAsInt() >= 0;
+	}
+	
+	/**
+	 * @return <code>true</code> if both search queries are of the same type and the search query is less than or
+	 * equal to the other one.
+	 */
+	public static boolean isAtMost(final String searchQuery, final String otherSearchQuery)
+	{
+		final OptionalInt comparison = compare(searchQuery, otherSearchQuery);
+		return comparison.isPresent() && comparison.getAsInt() <= 0;
+	}
+	
+	/**
+	 * Compares the search queries if both are numbers, dates or date-times.
+	 *
+	 * @return The result of the comparison or empty if the search queries are not comparable.
+	 */
+	public static OptionalInt compare(final String searchQuery, final String otherSearchQuery)
+	{
+		if(TypeDetermination.isDouble(searchQuery) && TypeDetermination.isDouble(otherSearchQuery))
+		{
+			final double value = Double.parseDouble(searchQuery);
+			final double otherValue = Double.parseDouble(otherSearchQuery);
+			// NaN is not ordered - no number is less or greater than it
+			return Double.isNaN(value) || Double.isNaN(otherValue)
+				? OptionalInt.empty()
+				: OptionalInt.of(Double.compare(value, otherValue));
+		}
+		if(TypeDetermination.isLocalDate(searchQuery) && TypeDetermination.isLocalDate(otherSearchQuery))
+		{
+			return OptionalInt.of(LocalDate.parse(searchQuery).compareTo(LocalDate.parse(otherSearchQuery)));
+		}
+		try
+		{
+			// Parsed the same way as by the comparators
+			return OptionalInt.of(LocalDateTime.parse(searchQuery).compareTo(LocalDateTime.parse(otherSearchQuery)));
+		}
+		catch(final DateTimeParseException e)
+		{
+			return OptionalInt.empty();
+		}
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+
+/**
+ * The distinct values of a field sorted case-insensitively, together with the number of rows containing them.
+ * <p>
+ * Used to suggest values starting with a prefix: The values with the prefix are located with a binary search, the
+ * most frequent ones are then taken from this range with a sparse table of the most frequent value of each range
+ * whose length is a power of two. A suggestion therefore takes <code>O(log size + limit * log limit)</code> steps,
+ * independent of the number of values with the prefix. The table takes <code>O(size * log size)</code> memory.
+ * </p>
+ * <p>
+ * Immutable and therefore thread-safe.
+ * </p>
+ */
+public final class DistinctValueIndex
+{
+	// Sorted - the lower case variants of the values, used for the prefix search
+	private final String[] keys;
+	// The value shown for the key - the spelling which was found first
+	private final String[] values;
+	private final int[] counts;
+	// mostFrequent[k][i] - the position of the most frequent value in [i, i + 2^k)
+	private final int[][] mostFrequent;
+	
+	private DistinctValueIndex(final String[] keys, final String[] values, final int[] counts)
+	{
+		this.keys = keys;
+		this.values = values;
+		this.counts = counts;
+		
+		final int levels = keys.length > 0 ? 32 - Integer.numberOfLeadingZeros(keys.length) : 0;
+		this.mostFrequent = new int[levels][];
+		if(levels > 0)
+		{
+			this.mostFrequent[0] = new int[keys.length];
+			Arrays.setAll(this.mostFrequent[0], i -> i);
+		}
+		for(int k = 1; k < levels; k++)
+		{
+			final int[] previous = this.mostFrequent[k - 1];
+			final int half = 1 << (k - 1);
+			final int[] level = new int[keys.length - (1 << k) + 1];
+			for(int i = 0; i < level.length; i++)
+			{
+				level[i] = this.moreFrequent(previous[i], previous[i + half]);
+			}
+			this.mostFrequent[k] = level;
+		}
+	}
+	
+	/**
+	 * @param rows          The rows.
+	 * @param valueProvider Provides the value of a row. <code>null</code> values are ignored.
+	 * @return The index of the distinct values.
+	 */
+	public static <T> DistinctValueIndex build(
+		final List<T> rows,
+		final Function<? super T, ?> valueProvider)
+	{
+		final Map<String, Entry> entries = new HashMap<>();
+		for(final T row : rows)
+		{
+			final Object value = valueProvider.apply(row);
+			if(value != null)
+			{
+				final String string = value.toString();
+				entries.computeIfAbsent(string.toLowerCase(Locale.ROOT), k -> new Entry(string)).count++;
+			}
+		}
+		
+		final String[] keys = entries.keySet().toArray(String[]::new);
+		Arrays.sort(keys);
+		
+		final String[] values = new String[keys.length];
+		final int[] counts = new int[keys.length];
+		for(int i = 0; i < keys.length; i++)
+		{
+			final Entry entry = entries.get(keys[i]);
+			values[i] = entry.value;
+			counts[i] = entry.count;
+		}
+		return new DistinctValueIndex(keys, values, counts);
+	}
+	
+	/**
+	 * @return The number of distinct values.
+	 */
+	public int size()
+	{
+		return this.keys.length;
+	}
+	
+	/**
+	 * @param prefix The prefix, compared case-insensitively.
+	 * @param limit  The maximum number of suggestions.
+	 * @return The values starting with the prefix ordered by the number of rows containing them (descending).
+	 */
+	public List<String> suggest(final String prefix, final int limit)
+	{
+		final String key = prefix.toLowerCase(Locale.ROOT);
+		final int from = this.lowerBound(key);
+		final int to = key.isEmpty() ? this.keys.length : this.lowerBound(key + Character.MAX_VALUE);
+		final int range = to - from;
+		if(range <= 0 || limit <= 0)
+		{
+			return List.of();
+		}
+		
+		final List<String> suggestions = new ArrayList<>(Math.min(limit, range));
+		// The most frequent value of each pending range - the next suggestion is the most frequent of them
+		final PriorityQueue<Range> pending = new PriorityQueue<>((a, b) ->
+			a.mostFrequent() == b.mostFrequent()
+				? 0
+				: this.moreFrequent(a.mostFrequent(), b.mostFrequent()) == a.mostFrequent() ? -1 : 1);
+		pending.add(this.rangeOf(from, to));
+		while(!pending.isEmpty() && suggestions.size() < limit)
+		{
+			final Range next = pending.poll();
+			final int position = next.mostFrequent();
+			suggestions.add(this.values[position]);
+			if(next.from() < position)
+			{
+				pending.add(this.rangeOf(next.from(), position));
+			}
+			if(position + 1 < next.to())
+			{
+				pending.add(this.rangeOf(position + 1, next.to()));
+			}
+		}
+		return suggestions;
+	}
+	
+	/**
+	 * @return The first position whose key is not less than the given key.
+	 */
+	private int lowerBound(final String key)
+	{
+		int low = 0;
+		int high = this.keys.length;
+		while(low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			if(this.keys[mid].compareTo(key) < 0)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * @return The non-empty range <code>[from, to)</code> together with the position of its most frequent value.
+	 */
+	private Range rangeOf(final int from, final int to)
+	{
+		// Two overlapping power of two ranges cover the range
+		final int k = 31 - Integer.numberOfLeadingZeros(to - from);
+		final int[] level = this.mostFrequent[k];
+		return new Range(this.moreFrequent(level[from], level[to - (1 << k)]), from, to);
+	}
+	
+	/**
+	 * @return The position of the more frequent value, the lower position for equal counts.
+	 */
+	private int moreFrequent(final int a, final int b)
+	{
+		if(this.counts[a] != this.counts[b])
+		{
+			return this.counts[a] > this.counts[b] ? a : b;
+		}
+		return Math.min(a, b);
+	}
+	
+	
+	private record Range(int mostFrequent, int from, int to)
+	{
+	}
+	
+	
+	private static final class Entry
+	{
+		private final String value;
+		private int count;
+		
+		Entry(final String value)
+		{
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.function.SerializablePredicate;
+
+import software.xdev.vaadin.model.FilterCondition;
+
+
+/**
+ * {@link ListDataProvider} which materializes the rows matching the {@link FilterCondition}s once per change.
+ * <p>
+ * The default {@link ListDataProvider} streams and filters the whole backing collection for every fetched page and
+ * every size query. This provider instead serves unsorted fetches in <code>O(limit)</code> and size queries in
+ * <code>O(1)</code> from the {@link MatchSet}. Sorted fetches are served from the sort indexes of the
+ * {@link FilterEngine} without comparing rows again. Additional in-memory filters (e.g. set through the grid's list
+ * data view) are applied to the matching rows only.
+ * </p>
+ *
+ * @param <T> Bean type
+ */
+public class FilterDataProvider<T> extends ListDataProvider<T>
+{
+	private final FilterEngine<T> engine;
+	
+	private transient Comparator<T> combinedSortingQuery;
+	private transient Comparator<T> combinedSortingProvider;
+	private transient Comparator<T> combinedSorting;
+	
+	public FilterDataProvider(final Collection<T> items)
+	{
+		super(items);
+		this.engine = new FilterEngine<>(this::getItems, this::getId);
+	}
+	
+	public FilterEngine<T> getEngine()
+	{
+		return this.engine;
+	}
+	
+	/**
+	 * Sets the conditions which have to be fulfilled by all displayed rows and refreshes the data.
+	 * <p>
+	 * The refresh is skipped when the matching rows didn't change, e.g. when a redundant condition was added.
+	 * </p>
+	 */
+	public void setConditions(final Collection<? extends FilterCondition<T, ?>> conditions)
+	{
+		this.setConditions(conditions, null);
+	}
+	
+	/**
+	 * Sets the conditions which have to be fulfilled by all displayed rows and refreshes the data.
+	 *
+	 * @param conditions The conditions.
+	 * @param timeBudget The maximum time an immediate evaluation may take or <code>null</code> for no limit.
+	 * @throws FilterEvaluationTimeoutException If the time budget was exceeded.
+	 * @see FilterEngine#setConditions(Collection, Duration)
+	 */
+	public void setConditions(
+		final Collection<? extends FilterCondition<T, ?>> conditions,
+		final Duration timeBudget)
+	{
+		if(this.engine.setConditions(conditions, timeBudget))
+		{
+			super.refreshAll();
+		}
+	}
+	
+	public MatchSet getMatchSet()
+	{
+		return this.engine.getMatchSet();
+	}
+	
+	@Override
+	public Stream<T> fetch(final Query<T, SerializablePredicate<T>> query)
+	{
+		final MatchSet matches = this.engine.getMatchSet();
+		final Predicate<T> filter = this.getAdditionalFilter(query);
+		final Comparator<T> sorting = this.getSorting(query);
+		
+		if(sorting == null)
+		{
+			if(filter == null)
+			{
+				final int end = (int)Math.min((long)query.getOffset() + query.getLimit(), matches.size());
+				return IntStream.range(Math.min(query.getOffset(), end), end)
+					.mapToObj(rank -> this.engine.getRow(matches.select(rank)))
+					.filter(Objects::nonNull);
+			}
+			return this.streamMatches(matches).filter(filter).skip(query.getOffset()).limit(query.getLimit());
+		}
+		
+		if(filter == null)
+		{
+			final int requested = (int)Math.min((long)query.getOffset() + query.getLimit(), matches.size());
+			// Only the requested rows are sorted when the sorting is used for the first time
+			final int[] sorted = this.engine.getSortedMatches(this.getSortKey(query, sorting), sorting, requested);
+			final int end = Math.min(requested, sorted.length);
+			return IntStream.range(Math.min(query.getOffset(), end), end)
+				.mapToObj(i -> this.engine.getRow(sorted[i]))
+				.filter(Objects::nonNull);
+		}
+		return Arrays.stream(this.engine.getSortedMatches(this.getSortKey(query, sorting), sorting, Integer.MAX_VALUE))
+			.mapToObj(this.engine::getRow)
+			.filter(Objects::nonNull)
+			.filter(filter)
+			.skip(query.getOffset())
+			.limit(query.getLimit());
+	}
+	
+	@Override
+	public int size(final Query<T, SerializablePredicate<T>> query)
+	{
+		final MatchSet matches = this.engine.getMatchSet();
+		final Predicate<T> filter = this.getAdditionalFilter(query);
+		
+		return filter == null
+			? matches.size()
+			: (int)this.streamMatches(matches).filter(filter).count();
+	}
+	
+	protected Stream<T> streamMatches(final MatchSet matches)
+	{
+		return matches.stream()
+			.mapToObj(this.engine::getRow)
+			.filter(Objects::nonNull);
+	}
+	
+	/**
+	 * @return The combination of the filter of this provider and the filter of the query or <code>null</code>.
+	 */
+	protected Predicate<T> getAdditionalFilter(final Query<T, SerializablePredicate<T>> query)
+	{
+		final Predicate<T> providerFilter = this.getFilter();
+		final Predicate<T> queryFilter = query.getFilter().orElse(null);
+		
+		if(providerFilter == null)
+		{
+			return queryFilter;
+		}
+		return queryFilter == null ? providerFilter : providerFilter.and(queryFilter);
+	}
+	
+	/**
+	 * @return The combination of the sorting of the query and the sorting of this provider or <code>null</code>.
+	 * The same instance is returned as long as both sortings are unchanged, as the sort indexes of the
+	 * {@link FilterEngine} are identified by it.
+	 */
+	protected Comparator<T> getSorting(final Query<T, SerializablePredicate<T>> query)
+	{
+		final Comparator<T> querySorting = query.getInMemorySorting();
+		final Comparator<T> providerSorting = this.getSortComparator();
+		
+		if(querySorting == null)
+		{
+			return providerSorting;
+		}
+		if(providerSorting == null)
+		{
+			return querySorting;
+		}
+		
+		if(this.combinedSorting == null
+			|| this.combinedSortingQuery != querySorting
+			|| this.combinedSortingProvider != providerSorting)
+		{
+			this.combinedSortingQuery = querySorting;
+			this.combinedSortingProvider = providerSorting;
+			this.combinedSorting = querySorting.thenComparing(providerSorting);
+		}
+		return this.combinedSorting;
+	}
+	
+	/**
+	 * Identifies the sorting of the query, so that the sort indexes of the {@link FilterEngine} are reused when the
+	 * same sorting is requested again with a new comparator. A grid creates a new comparator whenever the sorting
+	 * is changed, but the sort orders of its query are identified by the column keys and the directions.
+	 * <p>
+	 * Queries without sort orders are identified by the comparator. Subclasses have to override this method if the
+	 * sort orders don't describe the in-memory sorting, e.g. when multiple sorted columns don't have a key.
+	 * </p>
+	 *
+	 * @param query   The query.
+	 * @param sorting The sorting returned by {@link #getSorting(Query)}.
+	 * @return The key of the sorting.
+	 */
+	protected Object getSortKey(final Query<T, SerializablePredicate<T>> query, final Comparator<T> sorting)
+	{
+		if(query.getInMemorySorting() == null || query.getSortOrders().isEmpty())
+		{
+			return sorting;
+		}
+		return new SortKey(
+			query.getSortOrders().stream()
+				.map(order -> new SortProperty(order.getSorted(), order.getDirection()))
+				.toList(),
+			this.getSortComparator());
+	}
+	
+	@Override
+	public void refreshAll()
+	{
+		this.engine.invalidateData();
+		super.refreshAll();
+	}
+	
+	/**
+	 * Refreshes the data after items were only appended to the backing collection, e.g. for a continuous stream of
+	 * events. Unlike {@link #refreshAll()} only the appended items are evaluated against the conditions.
+	 *
+	 * @see FilterEngine#rowsAppended()
+	 */
+	public void refreshAppended()
+	{
+		this.engine.rowsAppended();
+		super.refreshAll();
+	}
+	
+	/**
+	 * Removes the items from the backing collection and refreshes the data. Unlike removing them directly and calling
+	 * {@link #refreshAll()}, the remaining items don't have to be evaluated again.
+	 *
+	 * @param itemsToRemove The items to remove, identified by their {@link #getId(Object) id}.
+	 * @see FilterEngine#rowsRemoved(int[])
+	 */
+	public void removeItems(final Collection<? extends T> itemsToRemove)
+	{
+		final Set<Object> ids = itemsToRemove.stream().map(this::getId).collect(Collectors.toSet());
+		// Must be located before they are removed
+		final int[] ordinals = ids.stream().mapToInt(this.engine::getOrdinal).toArray();
+		
+		this.getItems().removeIf(item -> ids.contains(this.getId(item)));
+		
+		if(Arrays.stream(ordinals).anyMatch(ordinal -> ordinal < 0))
+		{
+			// Unknown or ambiguous ids
+			this.refreshAll();
+			return;
+		}
+		this.engine.rowsRemoved(ordinals);
+		super.refreshAll();
+	}
+	
+	@Override
+	public void refreshItem(final T item)
+	{
+		if(this.rowUpdated(item))
+		{
+			super.refreshAll();
+		}
+		else
+		{
+			super.refreshItem(item);
+		}
+	}
+	
+	@Override
+	public void refreshItem(final T item, final boolean refreshChildren)
+	{
+		if(this.rowUpdated(item))
+		{
+			super.refreshAll();
+		}
+		else
+		{
+			super.refreshItem(item, refreshChildren);
+		}
+	}
+	
+	/**
+	 * Only the updated item is checked against the conditions again.
+	 *
+	 * @return <code>true</code> if the item may no longer (or now) match the conditions or its position changed.
+	 */
+	protected boolean rowUpdated(final T item)
+	{
+		final int ordinal = this.engine.getOrdinal(this.getId(item));
+		if(ordinal < 0)
+		{
+			this.engine.invalidateMatches();
+			return true;
+		}
+		return this.engine.rowUpdated(ordinal);
+	}
+	
+	
+	private record SortProperty(String property, SortDirection direction)
+	{
+	}
+	
+	
+	/**
+	 * @param providerSorting Identified by its identity like in {@link #getSorting(Query)}.
+	 */
+	private record SortKey(List<SortProperty> sortOrders, Comparator<?> providerSorting)
+	{
+	}
+}
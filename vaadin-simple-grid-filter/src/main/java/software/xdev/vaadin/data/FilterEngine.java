@@ -0,0 +1,1961 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.function.ValueProvider;
+
+import software.xdev.vaadin.comparators.FilterComparator;
+import software.xdev.vaadin.model.FilterCondition;
+import software.xdev.vaadin.model.FilterField;
+
+
+/**
+ * Evaluates {@link FilterCondition}s against an in-memory dataset and keeps the result as a {@link MatchSet}.
+ * <p>
+ * The match set is only computed once after the conditions or the data have changed and then reused for all
+ * following accesses.
+ * </p>
+ * <p>
+ * For sorted access a permutation of all rows is built once per comparator and dataset. Intersecting it with the
+ * match set yields the sorted matches in <code>O(n)</code>, so that changing the conditions of a sorted grid doesn't
+ * require sorting again.
+ * </p>
+ * <p>
+ * The match sets of recently used conditions are kept in a {@link MatchSetCache}, so that returning to a previous
+ * combination of conditions doesn't require an evaluation. Engines on the same immutable dataset can additionally
+ * share their results through a {@link SharedMatchSetCache}.
+ * </p>
+ * <p>
+ * Match sets computed elsewhere (e.g. in the background for frequently used presets) can be added as materialized
+ * match sets. They are not evicted and are kept up to date when rows are appended, updated or removed (see
+ * {@link #getRevision()}).
+ * </p>
+ * <p>
+ * Appended, updated and removed rows can be reported individually (see {@link #rowsAppended()},
+ * {@link #rowUpdated(int)} and {@link #rowsRemoved(int[])}). Only these rows are evaluated and the match sets, the
+ * sort indexes and the facet counts are patched instead of being recomputed.
+ * </p>
+ *
+ * @param <T> Bean type
+ */
+public class FilterEngine<T> implements Serializable
+{
+	/**
+	 * A top-k selection is only used when at most this fraction of the matches is requested.
+	 */
+	private static final int TOP_K_MAX_FRACTION = 4;
+	private static final int TIME_CHECK_INTERVAL_MASK = 1023;
+	private static final int MAX_FACET_COUNTS = 16;
+	
+	private final SerializableSupplier<? extends Collection<T>> itemsSupplier;
+	private final SerializableFunction<T, Object> idProvider;
+	
+	private final MatchSetCache resultCache = new MatchSetCache();
+	
+	private List<FilterCondition<T, ?>> conditions = List.of();
+	private int maxSortIndexes = 3;
+	
+	// Application-scoped - not serialized, the default cache is re-attached after deserialization
+	private transient SharedMatchSetCache sharedCache;
+	private boolean defaultSharedCache;
+	private String datasetId;
+	private long datasetVersion;
+	
+	// Derived data - can always be recomputed
+	private transient List<T> rows;
+	// If the rows are a copy of the items instead of the items themselves
+	private transient boolean rowsCopied;
+	private transient FilterKey conditionsKey;
+	private transient MatchSet matchSet;
+	// The match set of the previous conditions if the current ones are narrower - only these rows have to be checked
+	private transient MatchSet narrowedMatchSet;
+	// The match set of the previous conditions if the current ones are wider - only the other rows have to be checked
+	private transient MatchSet widenedMatchSet;
+	// Most recently used first
+	private transient LinkedList<SortIndex<T>> sortIndexes;
+	private transient SortedMatches<T> sortedMatches;
+	// Incremented whenever the data or its values change
+	private transient long revision;
+	private transient Map<FilterKey, Materialized<T>> materialized;
+	// The conditions of the match sets in the result cache
+	private transient Map<FilterKey, List<? extends FilterCondition<T, ?>>> cachedConditions;
+	// By the id of the field
+	private transient Map<String, DistinctValueIndex> distinctValueIndexes;
+	// Least recently used first
+	private transient LinkedHashMap<FacetKey, Facet<T>> facetCounts;
+	// Appending - the ordinals of the current match set with spare capacity for appended rows
+	private transient int[] appendBuffer;
+	private transient MatchSet appendBufferOwner;
+	// The ordinals of the rows by their id, -1 if the id isn't unique
+	private transient Map<Object, Integer> ordinalsById;
+	private transient int ordinalsByIdRowCount;
+	
+	/**
+	 * @param itemsSupplier Supplies the current items of the dataset.
+	 */
+	public FilterEngine(final SerializableSupplier<? extends Collection<T>> itemsSupplier)
+	{
+		this(itemsSupplier, item -> item);
+	}
+	
+	/**
+	 * @param itemsSupplier Supplies the current items of the dataset.
+	 * @param idProvider    Provides the id of an item, used to locate updated or removed rows.
+	 */
+	public FilterEngine(
+		final SerializableSupplier<? extends Collection<T>> itemsSupplier,
+		final SerializableFunction<T, Object> idProvider)
+	{
+		this.itemsSupplier = Objects.requireNonNull(itemsSupplier);
+		this.idProvider = Objects.requireNonNull(idProvider);
+	}
+	
+	public List<FilterCondition<T, ?>> getConditions()
+	{
+		return this.conditions;
+	}
+	
+	/**
+	 * Sets the conditions which all have to be fulfilled by a row.
+	 * <p>
+	 * If a match set was already computed, the new one is computed immediately and compared to it. When the matching
+	 * rows are identical the previous match set (and everything derived from it) is kept.
+	 * </p>
+	 *
+	 * @return <code>false</code> if the matching rows are known to be unchanged.
+	 */
+	public boolean setConditions(final Collection<? extends FilterCondition<T, ?>> conditions)
+	{
+		return this.setConditions(conditions, null);
+	}
+	
+	/**
+	 * Sets the conditions which all have to be fulfilled by a row.
+	 *
+	 * @param conditions The conditions.
+	 * @param timeBudget The maximum time an immediate evaluation may take or <code>null</code> for no limit.
+	 * @return <code>false</code> if the matching rows are known to be unchanged.
+	 * @throws FilterEvaluationTimeoutException If the time budget was exceeded. The conditions are set anyway.
+	 * @see #setConditions(Collection)
+	 */
+	public boolean setConditions(
+		final Collection<? extends FilterCondition<T, ?>> conditions,
+		final Duration timeBudget)
+	{
+		final MatchSet previous = this.matchSet;
+		final List<FilterCondition<T, ?>> previousConditions = this.conditions;
+		
+		this.conditions = List.copyOf(conditions);
+		this.conditionsKey = null;
+		this.matchSet = null;
+		this.narrowedMatchSet = previous != null && isNarrowing(this.conditions, previousConditions)
+			? previous
+			: null;
+		this.widenedMatchSet = previous != null
+			&& this.narrowedMatchSet == null
+			&& isNarrowing(previousConditions, this.conditions)
+			? previous
+			: null;
+		
+		if(previous == null)
+		{
+			return true;
+		}
+		if(this.getMatchSet(timeBudget).equals(previous))
+		{
+			this.matchSet = previous;
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Must be called when the dataset has changed. Everything that was derived from the data is discarded.
+	 */
+	public void invalidateData()
+	{
+		this.rows = null;
+		this.ordinalsById = null;
+		this.invalidateMatches();
+	}
+	
+	/**
+	 * Must be called when the values of rows have changed. The match set and the sort indexes are recomputed
+	 * lazily.
+	 */
+	public void invalidateMatches()
+	{
+		this.matchSet = null;
+		this.narrowedMatchSet = null;
+		this.widenedMatchSet = null;
+		this.sortIndexes = null;
+		this.sortedMatches = null;
+		this.resultCache.clear();
+		this.cachedConditions = null;
+		this.materialized = null;
+		this.distinctValueIndexes = null;
+		this.facetCounts = null;
+		this.appendBuffer = null;
+		this.appendBufferOwner = null;
+		this.revision++;
+	}
+	
+	/**
+	 * Must be called instead of {@link #invalidateData()} when rows were only appended to the dataset, e.g. for a
+	 * continuous stream of events. The existing rows and their values must be unchanged.
+	 * <p>
+	 * Only the appended rows are checked against the current and the materialized conditions and added to their
+	 * match sets. The sort indexes and the sorted matches are merged lazily when a sorted access requires them, so
+	 * frequent small appends don't copy them each time. Match sets of other conditions, facet counts and the
+	 * distinct values are recomputed lazily.
+	 * </p>
+	 */
+	public void rowsAppended()
+	{
+		if(this.rows == null)
+		{
+			// Nothing was derived from the data yet
+			return;
+		}
+		
+		if(this.rowsCopied)
+		{
+			final Collection<T> items = this.itemsSupplier.get();
+			items.stream().skip(this.rows.size()).forEach(this.rows::add);
+		}
+		else if(this.itemsSupplier.get() != this.rows)
+		{
+			this.invalidateData();
+			return;
+		}
+		
+		final int rowCount = this.rows.size();
+		final MatchSet previous = this.matchSet;
+		if(previous != null && previous.getRowCount() > rowCount)
+		{
+			// Rows were removed - not append-only
+			this.invalidateData();
+			return;
+		}
+		
+		if(previous != null && previous.getRowCount() < rowCount)
+		{
+			this.matchSet = this.appendMatches(previous, rowCount);
+			this.cacheMatchSet(this.getConditionsKey(), this.conditions, this.matchSet);
+		}
+		// The appended matches are the last ones - they are merged on the next sorted access
+		final SortedMatches<T> cached = this.sortedMatches;
+		this.sortedMatches = cached != null && cached.complete() && cached.matches() == previous
+			&& this.matchSet != null
+			? new SortedMatches<>(cached.key(), cached.comparator(), this.matchSet, cached.ordinals(), true)
+			: null;
+		if(this.ordinalsById != null)
+		{
+			this.indexOrdinals(rowCount);
+		}
+		if(this.materialized != null)
+		{
+			this.materialized.replaceAll((key, entry) -> entry.withAppendedRows(this.rows));
+		}
+		
+		this.narrowedMatchSet = null;
+		this.widenedMatchSet = null;
+		this.distinctValueIndexes = null;
+		this.facetCounts = null;
+		this.revision++;
+	}
+	
+	/**
+	 * Must be called instead of {@link #invalidateMatches()} when the values of a single row have changed.
+	 * <p>
+	 * Only this row is checked against the current, the cached and the materialized conditions and moved to its new
+	 * position in the sort indexes. Facet counts are kept if the row wasn't counted and only increased if it's now
+	 * counted. The distinct values are recomputed lazily, as the previous values of the row are unknown.
+	 * </p>
+	 *
+	 * @param ordinal The ordinal of the row (see {@link #getOrdinal(Object)}).
+	 * @return <code>true</code> if the row now or no longer matches or its position within the sorted matches
+	 * changed, <code>false</code> if only the displayed values of the row have to be refreshed.
+	 */
+	public boolean rowUpdated(final int ordinal)
+	{
+		if(this.rows == null)
+		{
+			// Nothing was derived from the data yet
+			return true;
+		}
+		Objects.checkIndex(ordinal, this.rows.size());
+		
+		final MatchSet previous = this.matchSet;
+		if(previous != null && previous.getRowCount() != this.rows.size())
+		{
+			this.invalidateMatches();
+			return true;
+		}
+		
+		// Only a changed membership or a changed position within the displayed (sorted) matches is reported
+		boolean changed = false;
+		if(previous != null)
+		{
+			this.matchSet = compile(this.conditions).test(this.rows.get(ordinal))
+				? previous.withRow(ordinal)
+				: previous.withoutRow(ordinal);
+			changed = this.matchSet != previous;
+		}
+		
+		// Before the sort indexes, as the sorted matches may be the permutation of a sort index
+		final SortedMatches<T> cached = this.sortedMatches != null
+			? this.mergeAppendedMatches(this.sortedMatches)
+			: null;
+		this.sortedMatches = null;
+		int[] movedInPlace = null;
+		int[] movedInPlaceRanks = null;
+		if(cached != null && this.isComplete(cached) && cached.matches() == previous)
+		{
+			final boolean include = this.matchSet.contains(ordinal);
+			final int[] ranks = this.ranksOf(cached.ordinals(), cached.ranks());
+			final int index = ranks[ordinal];
+			if(index >= 0 && include)
+			{
+				changed |= move(this.ordinalOrder(cached.comparator()), cached.ordinals(), ranks, index) != index;
+				movedInPlace = cached.ordinals();
+				movedInPlaceRanks = ranks;
+				this.sortedMatches = new SortedMatches<>(
+					cached.key(),
+					cached.comparator(),
+					this.matchSet,
+					cached.ordinals(),
+					true,
+					ranks);
+			}
+			else
+			{
+				this.sortedMatches = new SortedMatches<>(
+					cached.key(),
+					cached.comparator(),
+					this.matchSet,
+					this.reposition(cached.comparator(), cached.ordinals(), index, ordinal, include),
+					true);
+			}
+		}
+		else if(cached != null && (previous == null || previous.contains(ordinal) || changed))
+		{
+			// Only the first sorted matches are known, the row may have moved into or out of them
+			changed = true;
+		}
+		
+		if(this.sortIndexes != null)
+		{
+			for(final ListIterator<SortIndex<T>> it = this.sortIndexes.listIterator(); it.hasNext(); )
+			{
+				final SortIndex<T> index = this.mergeAppendedRows(it.next());
+				if(index.permutation() == movedInPlace)
+				{
+					// Already moved as the sorted matches
+					it.set(new SortIndex<>(index.key(), index.comparator(), movedInPlace, movedInPlaceRanks));
+					continue;
+				}
+				
+				final int[] ranks = this.ranksOf(index.permutation(), index.ranks());
+				move(this.ordinalOrder(index.comparator()), index.permutation(), ranks, ranks[ordinal]);
+				it.set(new SortIndex<>(index.key(), index.comparator(), index.permutation(), ranks));
+			}
+		}
+		
+		this.patchRowUpdated(ordinal);
+		return changed;
+	}
+	
+	/**
+	 * Checks the updated row against the conditions of the cached and materialized match sets and the facet counts.
+	 */
+	private void patchRowUpdated(final int ordinal)
+	{
+		final T row = this.rows.get(ordinal);
+		final int rowCount = this.rows.size();
+		
+		// The current match set was already patched and replaces its cached entry below
+		final FilterKey currentKey = this.matchSet != null ? this.getConditionsKey() : null;
+		final Set<FilterKey> cachedKeys = new HashSet<>();
+		this.resultCache.replaceAll((key, matches) ->
+		{
+			final List<? extends FilterCondition<T, ?>> cachedConditions =
+				this.cachedConditions != null ? this.cachedConditions.get(key) : null;
+			if(cachedConditions == null || matches.getRowCount() != rowCount)
+			{
+				return null;
+			}
+			cachedKeys.add(key);
+			if(key.equals(currentKey))
+			{
+				return matches;
+			}
+			return compile(cachedConditions).test(row) ? matches.withRow(ordinal) : matches.withoutRow(ordinal);
+		});
+		if(this.cachedConditions != null)
+		{
+			this.cachedConditions.keySet().retainAll(cachedKeys);
+		}
+		if(this.matchSet != null)
+		{
+			this.cacheMatchSet(currentKey, this.conditions, this.matchSet);
+		}
+		
+		if(this.materialized != null)
+		{
+			this.materialized.replaceAll((key, entry) -> entry.withRowUpdated(ordinal, row));
+		}
+		if(this.facetCounts != null)
+		{
+			this.facetCounts.replaceAll((key, facet) -> facet.withRowUpdated(ordinal, row));
+			this.facetCounts.values().removeIf(Objects::isNull);
+		}
+		
+		this.discardDerivedFromValues();
+	}
+	
+	/**
+	 * Must be called instead of {@link #invalidateData()} right after rows were removed from the dataset.
+	 * <p>
+	 * The removed rows are dropped from the current, the cached and the materialized match sets and the sort indexes
+	 * without evaluating or sorting any rows. Facet counts are kept if none of the removed rows was counted. The
+	 * distinct values are recomputed lazily, as the values of the removed rows are unknown.
+	 * </p>
+	 *
+	 * @param removedOrdinals The ordinals of the removed rows before they were removed (see
+	 *                        {@link #getOrdinal(Object)}).
+	 */
+	public void rowsRemoved(final int[] removedOrdinals)
+	{
+		if(this.rows == null)
+		{
+			// Nothing was derived from the data yet
+			return;
+		}
+		
+		final int[] removed = Arrays.stream(removedOrdinals).sorted().distinct().toArray();
+		if(removed.length == 0)
+		{
+			return;
+		}
+		
+		final int previousRowCount = this.rowsCopied ? this.rows.size() : this.rows.size() + removed.length;
+		final MatchSet previous = this.matchSet;
+		if(removed[0] < 0
+			|| removed[removed.length - 1] >= previousRowCount
+			|| previous != null && previous.getRowCount() != previousRowCount)
+		{
+			this.invalidateData();
+			return;
+		}
+		
+		if(this.rowsCopied)
+		{
+			final List<T> remaining = new ArrayList<>(previousRowCount - removed.length);
+			int next = 0;
+			for(int i = 0; i < previousRowCount; i++)
+			{
+				if(next < removed.length && removed[next] == i)
+				{
+					next++;
+				}
+				else
+				{
+					remaining.add(this.rows.get(i));
+				}
+			}
+			this.rows = remaining;
+		}
+		
+		if(previous != null)
+		{
+			this.matchSet = previous.withRowsRemoved(removed);
+		}
+		if(this.sortIndexes != null)
+		{
+			// Indexes with pending appended rows can't be merged anymore, as the ordinals changed
+			this.sortIndexes.removeIf(index -> index.permutation().length != previousRowCount);
+			this.sortIndexes.replaceAll(index -> new SortIndex<>(
+				index.key(),
+				index.comparator(),
+				withRowsRemoved(index.permutation(), removed)));
+		}
+		
+		final SortedMatches<T> cached = this.sortedMatches;
+		this.sortedMatches = cached != null && this.isComplete(cached) && cached.matches() == previous
+			? new SortedMatches<>(
+				cached.key(),
+				cached.comparator(),
+				this.matchSet,
+				withRowsRemoved(cached.ordinals(), removed),
+				true)
+			: null;
+		
+		this.ordinalsById = null;
+		this.patchRowsRemoved(removed, previousRowCount);
+	}
+	
+	/**
+	 * Drops the removed rows from the cached and materialized match sets and the facet counts.
+	 */
+	private void patchRowsRemoved(final int[] removed, final int previousRowCount)
+	{
+		this.resultCache.replaceAll((key, matches) -> matches.getRowCount() == previousRowCount
+			? matches.withRowsRemoved(removed)
+			: null);
+		if(this.matchSet != null)
+		{
+			this.cacheMatchSet(this.getConditionsKey(), this.conditions, this.matchSet);
+		}
+		
+		if(this.materialized != null)
+		{
+			this.materialized.values().removeIf(entry -> entry.matchSet().getRowCount() != previousRowCount);
+			this.materialized.replaceAll((key, entry) -> entry.withRowsRemoved(removed));
+		}
+		if(this.facetCounts != null)
+		{
+			this.facetCounts.replaceAll((key, facet) -> facet.withRowsRemoved(removed));
+			this.facetCounts.values().removeIf(Objects::isNull);
+		}
+		
+		this.discardDerivedFromValues();
+	}
+	
+	/**
+	 * Discards everything which can't be patched after rows were updated or removed.
+	 */
+	private void discardDerivedFromValues()
+	{
+		this.narrowedMatchSet = null;
+		this.widenedMatchSet = null;
+		this.distinctValueIndexes = null;
+		this.appendBuffer = null;
+		this.appendBufferOwner = null;
+		// Match sets computed in the background for the previous rows are outdated
+		this.revision++;
+	}
+	
+	/**
+	 * Caches the match set of the conditions. The conditions are kept, so that the match set can be patched when a
+	 * row is updated.
+	 */
+	private void cacheMatchSet(
+		final FilterKey key,
+		final List<? extends FilterCondition<T, ?>> conditionsOfKey,
+		final MatchSet matches)
+	{
+		this.resultCache.put(key, matches);
+		if(this.cachedConditions == null)
+		{
+			this.cachedConditions = new HashMap<>();
+		}
+		this.cachedConditions.put(key, List.copyOf(conditionsOfKey));
+		if(this.cachedConditions.size() > this.resultCache.size() * 2)
+		{
+			// Conditions of evicted match sets
+			this.cachedConditions.keySet().removeIf(k -> !this.resultCache.contains(k));
+		}
+	}
+	
+	/**
+	 * Locates a row by its id. An index of all ids is built on the first call and kept up to date when rows are
+	 * appended.
+	 *
+	 * @param id The id of the row.
+	 * @return The ordinal of the row or <code>-1</code> if there is no row or more than one row with the id.
+	 */
+	public int getOrdinal(final Object id)
+	{
+		if(this.ordinalsById == null)
+		{
+			this.ordinalsById = new HashMap<>();
+			this.ordinalsByIdRowCount = 0;
+			this.indexOrdinals(this.getRows().size());
+		}
+		return this.ordinalsById.getOrDefault(id, -1);
+	}
+	
+	private void indexOrdinals(final int rowCount)
+	{
+		for(int i = this.ordinalsByIdRowCount; i < rowCount; i++)
+		{
+			this.ordinalsById.merge(this.idProvider.apply(this.rows.get(i)), i, (o1, o2) -> -1);
+		}
+		this.ordinalsByIdRowCount = rowCount;
+	}
+	
+	/**
+	 * Adds or removes the row within the ordinals sorted by the comparator. Rows with equal values are ordered by
+	 * their ordinal like in a stable sort. Rows which stay included are moved in place instead (see
+	 * {@link #move(Comparator, int[], int[], int)}).
+	 *
+	 * @param index   The index of the row within the sorted ordinals or <code>-1</code>.
+	 * @param include If the row should be part of the result.
+	 * @return The given array if nothing changed, otherwise a new array.
+	 */
+	private int[] reposition(
+		final Comparator<? super T> comparator,
+		final int[] sorted,
+		final int index,
+		final int ordinal,
+		final boolean include)
+	{
+		if(index >= 0 && !include)
+		{
+			final int[] result = new int[sorted.length - 1];
+			System.arraycopy(sorted, 0, result, 0, index);
+			System.arraycopy(sorted, index + 1, result, index, result.length - index);
+			return result;
+		}
+		if(index >= 0 || !include)
+		{
+			return sorted;
+		}
+		
+		final int position = firstGreater(this.ordinalOrder(comparator), sorted, 0, sorted.length, ordinal);
+		final int[] result = new int[sorted.length + 1];
+		System.arraycopy(sorted, 0, result, 0, position);
+		result[position] = ordinal;
+		System.arraycopy(sorted, position, result, position + 1, sorted.length - position);
+		return result;
+	}
+	
+	/**
+	 * @return The order of the rows by the comparator and then by their ordinal.
+	 */
+	private Comparator<Integer> ordinalOrder(final Comparator<? super T> comparator)
+	{
+		final List<T> r = this.rows;
+		return ((Comparator<Integer>)(i1, i2) -> comparator.compare(r.get(i1), r.get(i2)))
+			.thenComparingInt(Integer::intValue);
+	}
+	
+	/**
+	 * @param sorted The sorted ordinals.
+	 * @param ranks  The existing ranks of the sorted ordinals or <code>null</code>.
+	 * @return The index of every ordinal within the sorted ordinals, <code>-1</code> if it's not contained. Only
+	 * built if the existing ranks are missing or don't cover all rows.
+	 */
+	private int[] ranksOf(final int[] sorted, final int[] ranks)
+	{
+		if(ranks != null && ranks.length == this.rows.size())
+		{
+			return ranks;
+		}
+		
+		final int[] built = new int[this.rows.size()];
+		Arrays.fill(built, -1);
+		for(int i = 0; i < sorted.length; i++)
+		{
+			built[sorted[i]] = i;
+		}
+		return built;
+	}
+	
+	/**
+	 * Moves the row at the index in place to its position according to the order. All other ordinals are in order.
+	 * The new position is found with a binary search and only the ordinals in between are shifted.
+	 *
+	 * @param ranks The ranks of the sorted ordinals, updated for the shifted ordinals.
+	 * @return The new index of the row.
+	 */
+	private static int move(final Comparator<Integer> order, final int[] sorted, final int[] ranks, final int index)
+	{
+		final int ordinal = sorted[index];
+		final int target;
+		if(index > 0 && order.compare(sorted[index - 1], ordinal) > 0)
+		{
+			target = firstGreater(order, sorted, 0, index - 1, ordinal);
+			System.arraycopy(sorted, target, sorted, target + 1, index - target);
+		}
+		else if(index < sorted.length - 1 && order.compare(ordinal, sorted[index + 1]) > 0)
+		{
+			target = firstGreater(order, sorted, index + 2, sorted.length, ordinal) - 1;
+			System.arraycopy(sorted, index + 1, sorted, index, target - index);
+		}
+		else
+		{
+			return index;
+		}
+		sorted[target] = ordinal;
+		
+		for(int i = Math.min(index, target); i <= Math.max(index, target); i++)
+		{
+			ranks[sorted[i]] = i;
+		}
+		return target;
+	}
+	
+	/**
+	 * @return The first index within the range whose ordinal is ordered after the given one or <code>to</code>.
+	 */
+	private static int firstGreater(
+		final Comparator<Integer> order,
+		final int[] sorted,
+		final int from,
+		final int to,
+		final int ordinal)
+	{
+		int low = from;
+		int high = to;
+		while(low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			if(order.compare(sorted[mid], ordinal) > 0)
+			{
+				high = mid;
+			}
+			else
+			{
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * @param removed The distinct ordinals of the removed rows in ascending order.
+	 * @return The ordinals without the removed rows, with the following ordinals decreased accordingly.
+	 */
+	private static int[] withRowsRemoved(final int[] ordinals, final int[] removed)
+	{
+		final int[] result = new int[ordinals.length];
+		int size = 0;
+		for(final int ordinal : ordinals)
+		{
+			final int position = Arrays.binarySearch(removed, ordinal);
+			if(position < 0)
+			{
+				// Number of removed rows before the ordinal
+				result[size++] = ordinal + position + 1;
+			}
+		}
+		return size == result.length ? result : Arrays.copyOf(result, size);
+	}
+	
+	/**
+	 * Checks the appended rows against the current conditions and adds the matching ones to the match set. The
+	 * ordinals are collected in a buffer with spare capacity, so that appending a row costs amortized
+	 * <code>O(1)</code>. This is safe, as match sets only access the ordinals up to their size.
+	 */
+	private MatchSet appendMatches(final MatchSet previous, final int rowCount)
+	{
+		final int from = previous.getRowCount();
+		final Predicate<T> predicate = compile(this.conditions);
+		
+		int start = from;
+		int[] buffer = this.appendBuffer;
+		int size = previous.size();
+		if(previous.isAll())
+		{
+			// Stays a match set of all rows as long as all appended rows match
+			while(start < rowCount && predicate.test(this.rows.get(start)))
+			{
+				start++;
+			}
+			if(start == rowCount)
+			{
+				return MatchSet.all(rowCount);
+			}
+			buffer = new int[Math.max(16, rowCount)];
+			Arrays.setAll(buffer, i -> i);
+			// The row at start is not matching
+			size = start++;
+		}
+		else if(buffer == null || this.appendBufferOwner != previous)
+		{
+			buffer = Arrays.copyOf(previous.toArray(), Math.max(16, size + (size >> 1)));
+		}
+		
+		for(int i = start; i < rowCount; i++)
+		{
+			if(predicate.test(this.rows.get(i)))
+			{
+				if(size == buffer.length)
+				{
+					buffer = Arrays.copyOf(
+						buffer,
+						Math.min(Math.max(rowCount, 16), buffer.length + (buffer.length >> 1)));
+				}
+				buffer[size++] = i;
+			}
+		}
+		
+		final MatchSet appended = MatchSet.of(buffer, size, rowCount);
+		this.appendBuffer = buffer;
+		this.appendBufferOwner = appended;
+		return appended;
+	}
+	
+	/**
+	 * @return The index including the rows appended since it was built or last merged.
+	 */
+	private SortIndex<T> mergeAppendedRows(final SortIndex<T> index)
+	{
+		final int rowCount = this.getRows().size();
+		if(index.permutation().length >= rowCount)
+		{
+			return index;
+		}
+		return new SortIndex<>(
+			index.key(),
+			index.comparator(),
+			this.mergeAppended(
+				index.comparator(),
+				index.permutation(),
+				IntStream.range(index.permutation().length, rowCount)));
+	}
+	
+	/**
+	 * @return The sorted matches including the matches appended since they were sorted or last merged.
+	 */
+	private SortedMatches<T> mergeAppendedMatches(final SortedMatches<T> sorted)
+	{
+		final MatchSet matches = sorted.matches();
+		if(!sorted.complete() || sorted.ordinals().length >= matches.size())
+		{
+			return sorted;
+		}
+		// The appended matches are the last ones
+		return new SortedMatches<>(
+			sorted.key(),
+			sorted.comparator(),
+			matches,
+			this.mergeAppended(
+				sorted.comparator(),
+				sorted.ordinals(),
+				IntStream.range(sorted.ordinals().length, matches.size()).map(matches::select)),
+			true);
+	}
+	
+	/**
+	 * @return If the sorted matches contain all matches, i.e. there are no pending appended matches.
+	 */
+	private boolean isComplete(final SortedMatches<T> sorted)
+	{
+		return sorted.complete() && sorted.ordinals().length == sorted.matches().size();
+	}
+	
+	/**
+	 * @param sorted   The ordinals ordered by the comparator.
+	 * @param appended The ordinals of the appended rows to add. They are greater than all sorted ordinals.
+	 * @return A new array with all ordinals ordered by the comparator.
+	 */
+	private int[] mergeAppended(
+		final Comparator<? super T> comparator,
+		final int[] sorted,
+		final IntStream appended)
+	{
+		final int[] sortedAppended = appended
+			.boxed()
+			.sorted((i1, i2) -> comparator.compare(this.rows.get(i1), this.rows.get(i2)))
+			.mapToInt(Integer::intValue)
+			.toArray();
+		if(sortedAppended.length == 0)
+		{
+			return sorted;
+		}
+		
+		// The existing rows come first for equal values as they have the lower ordinals
+		final int[] merged = new int[sorted.length + sortedAppended.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while(i < sorted.length && j < sortedAppended.length)
+		{
+			merged[k++] = comparator.compare(this.rows.get(sortedAppended[j]), this.rows.get(sorted[i])) < 0
+				? sortedAppended[j++]
+				: sorted[i++];
+		}
+		System.arraycopy(sorted, i, merged, k, sorted.length - i);
+		System.arraycopy(sortedAppended, j, merged, k + sorted.length - i, sortedAppended.length - j);
+		return merged;
+	}
+	
+	/**
+	 * Returns the distinct values of the field, e.g. to suggest values while typing. The index is built on first
+	 * access and kept until the data changes.
+	 *
+	 * @param field The field.
+	 * @return The index of the distinct values.
+	 */
+	public DistinctValueIndex getDistinctValueIndex(final FilterField<T, ?> field)
+	{
+		if(this.distinctValueIndexes == null)
+		{
+			this.distinctValueIndexes = new HashMap<>();
+		}
+		return this.distinctValueIndexes.computeIfAbsent(
+			field.getId(),
+			id -> DistinctValueIndex.build(this.getRows(), field.getValueProvider()));
+	}
+	
+	/**
+	 * @return The revision of the data. It changes whenever the data or the values of rows have changed.
+	 */
+	public long getRevision()
+	{
+		return this.revision;
+	}
+	
+	/**
+	 * Adds a match set which was computed outside the engine, e.g. in the background with
+	 * {@link #evaluate(List, List, Duration)}. It is kept until it's removed or the data is invalidated. Appended,
+	 * updated and removed rows are applied to it (see {@link #rowsAppended()}).
+	 *
+	 * @param conditionsToMatch The conditions.
+	 * @param matchSet          The match set of the conditions.
+	 * @param revision          The revision of the data the match set was computed for.
+	 * @return <code>false</code> if the match set is outdated and was therefore discarded.
+	 */
+	public boolean putMaterialized(
+		final List<? extends FilterCondition<T, ?>> conditionsToMatch,
+		final MatchSet matchSet,
+		final long revision)
+	{
+		if(revision != this.revision || matchSet.getRowCount() != this.getRows().size())
+		{
+			return false;
+		}
+		if(this.materialized == null)
+		{
+			this.materialized = new HashMap<>();
+		}
+		this.materialized.put(
+			FilterKey.of(conditionsToMatch),
+			new Materialized<>(List.copyOf(conditionsToMatch), matchSet));
+		return true;
+	}
+	
+	public void removeMaterialized(final FilterKey key)
+	{
+		if(this.materialized != null)
+		{
+			this.materialized.remove(key);
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if a materialized match set of the current revision exists for the key.
+	 */
+	public boolean isMaterialized(final FilterKey key)
+	{
+		return this.materialized != null && this.materialized.containsKey(key);
+	}
+	
+	/**
+	 * @return The cache of the match sets of recently used conditions. Can be used to configure its limits.
+	 */
+	public MatchSetCache getResultCache()
+	{
+		return this.resultCache;
+	}
+	
+	/**
+	 * Shares the computed match sets with all other engines using the same cache and dataset.
+	 * <p>
+	 * The dataset id and version must identify the data <b>and</b> the fields: Conditions are only identified by
+	 * the ids of their field and comparator. If the data changes the version has to be changed too.
+	 * After deserialization the engine is attached to the {@link SharedMatchSetCache#getDefault() default cache}
+	 * again if it was used, otherwise this method has to be called again.
+	 * </p>
+	 *
+	 * @param sharedCache    The application-scoped cache or <code>null</code> to stop sharing.
+	 * @param datasetId      The id of the dataset.
+	 * @param datasetVersion The version of the dataset.
+	 */
+	public void setSharedCache(
+		final SharedMatchSetCache sharedCache,
+		final String datasetId,
+		final long datasetVersion)
+	{
+		if(sharedCache != null)
+		{
+			Objects.requireNonNull(datasetId);
+		}
+		this.sharedCache = sharedCache;
+		this.defaultSharedCache = sharedCache != null && sharedCache.isDefault();
+		this.datasetId = datasetId;
+		this.datasetVersion = datasetVersion;
+	}
+	
+	/**
+	 * @return The shared cache or <code>null</code> if the match sets aren't shared.
+	 */
+	public SharedMatchSetCache getSharedCache()
+	{
+		return this.sharedCache;
+	}
+	
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		
+		if(this.defaultSharedCache)
+		{
+			this.sharedCache = SharedMatchSetCache.getDefault();
+		}
+	}
+	
+	/**
+	 * @return The canonical key of the current conditions.
+	 */
+	public FilterKey getConditionsKey()
+	{
+		if(this.conditionsKey == null)
+		{
+			this.conditionsKey = FilterKey.of(this.conditions);
+		}
+		return this.conditionsKey;
+	}
+	
+	public int getMaxSortIndexes()
+	{
+		return this.maxSortIndexes;
+	}
+	
+	/**
+	 * Sets how many sort indexes (one <code>int</code> per row each) are kept at most. The least recently used
+	 * index is discarded first. <code>0</code> disables the indexes.
+	 */
+	public void setMaxSortIndexes(final int maxSortIndexes)
+	{
+		if(maxSortIndexes < 0)
+		{
+			throw new IllegalArgumentException("maxSortIndexes must not be negative");
+		}
+		this.maxSortIndexes = maxSortIndexes;
+		this.sortIndexes = null;
+	}
+	
+	/**
+	 * @return A random access snapshot of the dataset. The ordinals of the {@link MatchSet} refer to this list.
+	 */
+	public List<T> getRows()
+	{
+		if(this.rows == null)
+		{
+			final Collection<T> items = this.itemsSupplier.get();
+			this.rowsCopied = !(items instanceof List<T> && items instanceof RandomAccess);
+			this.rows = this.rowsCopied ? new ArrayList<>(items) : (List<T>)items;
+		}
+		return this.rows;
+	}
+	
+	/**
+	 * @param ordinal The ordinal of the row.
+	 * @return The row or <code>null</code> if the dataset was modified and the ordinal no longer exists.
+	 */
+	public T getRow(final int ordinal)
+	{
+		final List<T> r = this.getRows();
+		return ordinal < r.size() ? r.get(ordinal) : null;
+	}
+	
+	/**
+	 * @return The rows matching the current conditions. Computed once after every change.
+	 */
+	public MatchSet getMatchSet()
+	{
+		if(this.matchSet == null)
+		{
+			this.matchSet = this.conditions.isEmpty()
+				? MatchSet.all(this.getRows().size())
+				: this.computeMatchSet(this.getConditionsKey());
+		}
+		return this.matchSet;
+	}
+	
+	/**
+	 * Computes the match set like {@link #getMatchSet()}, but aborts the evaluation if it takes longer than the time
+	 * budget, e.g. for conditions supplied by an untrusted url.
+	 *
+	 * @param timeBudget The maximum time the evaluation may take.
+	 * @return The rows matching the current conditions.
+	 * @throws FilterEvaluationTimeoutException If the time budget was exceeded. Nothing is cached in this case.
+	 */
+	public MatchSet getMatchSet(final Duration timeBudget)
+	{
+		if(this.matchSet == null)
+		{
+			this.matchSet = this.conditions.isEmpty()
+				? MatchSet.all(this.getRows().size())
+				: this.computeMatchSet(this.getConditionsKey(), timeBudget);
+		}
+		return this.matchSet;
+	}
+	
+	protected MatchSet computeMatchSet(final FilterKey key)
+	{
+		return this.computeMatchSet(key, null);
+	}
+	
+	protected MatchSet computeMatchSet(final FilterKey key, final Duration timeBudget)
+	{
+		return this.computeMatchSet(
+			key,
+			this.conditions,
+			this.narrowedMatchSet,
+			this.widenedMatchSet,
+			timeBudget);
+	}
+	
+	/**
+	 * @param candidates The rows which can match at all or <code>null</code> if all rows have to be checked.
+	 * @param known      The rows which are known to match or <code>null</code>.
+	 */
+	private MatchSet computeMatchSet(
+		final FilterKey key,
+		final List<? extends FilterCondition<T, ?>> conditionsToEvaluate,
+		final MatchSet candidates,
+		final MatchSet known,
+		final Duration timeBudget)
+	{
+		final MatchSet cached = this.getKnownMatchSet(key, conditionsToEvaluate);
+		if(cached != null)
+		{
+			return cached;
+		}
+		
+		final int rowCount = this.getRows().size();
+		final MatchSet computed;
+		if(candidates != null && candidates.getRowCount() == rowCount)
+		{
+			computed = this.evaluate(candidates, conditionsToEvaluate, timeBudget);
+		}
+		else if(known != null && known.getRowCount() == rowCount)
+		{
+			computed = this.evaluateExcept(known, conditionsToEvaluate, timeBudget);
+		}
+		else
+		{
+			computed = this.evaluate(conditionsToEvaluate, timeBudget);
+		}
+		this.cacheMatchSet(key, conditionsToEvaluate, computed);
+		if(this.sharedCache != null)
+		{
+			this.sharedCache.put(this.datasetId, this.datasetVersion, key, computed);
+		}
+		return computed;
+	}
+	
+	/**
+	 * @return The materialized or cached match set of the key or <code>null</code> if it has to be evaluated.
+	 */
+	private MatchSet getKnownMatchSet(
+		final FilterKey key,
+		final List<? extends FilterCondition<T, ?>> conditionsOfKey)
+	{
+		if(this.materialized != null)
+		{
+			final Materialized<T> materializedMatches = this.materialized.get(key);
+			if(materializedMatches != null)
+			{
+				return materializedMatches.matchSet();
+			}
+		}
+		
+		final int rowCount = this.getRows().size();
+		final MatchSet cached = this.resultCache.get(key);
+		if(cached != null && cached.getRowCount() == rowCount)
+		{
+			return cached;
+		}
+		
+		if(this.sharedCache != null)
+		{
+			final MatchSet shared = this.sharedCache.get(this.datasetId, this.datasetVersion, key);
+			if(shared != null && shared.getRowCount() == rowCount)
+			{
+				this.cacheMatchSet(key, conditionsOfKey, shared);
+				return shared;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the match set of the given conditions only if it's known without evaluating any rows, i.e. if it's the
+	 * match set of the current conditions or it's materialized or cached.
+	 *
+	 * @param conditionsToMatch The conditions which all have to be fulfilled.
+	 * @return The matching rows or <code>null</code> if they would have to be evaluated.
+	 * @see #getMatchSetOf(List)
+	 */
+	public MatchSet getKnownMatchSetOf(final List<? extends FilterCondition<T, ?>> conditionsToMatch)
+	{
+		if(conditionsToMatch.isEmpty())
+		{
+			return MatchSet.all(this.getRows().size());
+		}
+		
+		final FilterKey key = FilterKey.of(conditionsToMatch);
+		if(this.matchSet != null && key.equals(this.getConditionsKey()))
+		{
+			return this.matchSet;
+		}
+		return this.getKnownMatchSet(key, conditionsToMatch);
+	}
+	
+	/**
+	 * Returns the rows matching the given conditions instead of the current ones. The match sets are cached like the
+	 * ones of the current conditions.
+	 *
+	 * @param conditionsToMatch The conditions which all have to be fulfilled.
+	 * @return The matching rows.
+	 */
+	public MatchSet getMatchSetOf(final List<? extends FilterCondition<T, ?>> conditionsToMatch)
+	{
+		if(conditionsToMatch.isEmpty())
+		{
+			return MatchSet.all(this.getRows().size());
+		}
+		
+		final FilterKey key = FilterKey.of(conditionsToMatch);
+		return key.equals(this.getConditionsKey())
+			? this.getMatchSet()
+			: this.computeMatchSet(key, conditionsToMatch, null, null, null);
+	}
+	
+	/**
+	 * Counts how many rows have each value of the field, considering only the rows which match the current
+	 * conditions of <b>other</b> fields. This is the number of rows which would match if the value was selected for
+	 * the field. The counts are computed in a single pass over the matching rows and cached until the conditions of
+	 * the other fields or the data change.
+	 *
+	 * @param field The field, usually an enum or boolean field.
+	 * @return The counts by the value (the name for enums). Values without a matching row are missing.
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, Integer> getFacetCounts(final FilterField<T, ?> field)
+	{
+		final List<FilterCondition<T, ?>> otherConditions = this.getConditionsOfOtherFields(field);
+		final ValueProvider<T, ?> valueProvider = field.getValueProvider();
+		return (Map<String, Integer>)this.getFacetCounts(
+			new FacetKey(field.getId(), FilterKey.of(otherConditions), null),
+			otherConditions,
+			(counts, row) ->
+			{
+				final Object value = valueProvider.apply(row);
+				if(value == null)
+				{
+					return counts;
+				}
+				final Map<String, Integer> added = new HashMap<>((Map<String, Integer>)counts);
+				added.merge(value instanceof final Enum<?> e ? e.name() : value.toString(), 1, Integer::sum);
+				return Collections.unmodifiableMap(added);
+			},
+			(matches, r) ->
+			{
+				final Map<String, Integer> counts = new HashMap<>();
+				for(int i = 0; i < matches.size(); i++)
+				{
+					final Object value = valueProvider.apply(r.get(matches.select(i)));
+					if(value != null)
+					{
+						counts.merge(value instanceof final Enum<?> e ? e.name() : value.toString(), 1, Integer::sum);
+					}
+				}
+				return Collections.unmodifiableMap(counts);
+			});
+	}
+	
+	/**
+	 * Counts the values of the field per bucket like {@link #getFacetCounts(FilterField)}, e.g. for numeric or date
+	 * fields.
+	 *
+	 * @param field      The field.
+	 * @param boundaries The ascending lower boundaries of the buckets. Bucket <code>0</code> contains the values
+	 *                   below the first boundary, bucket <code>i</code> the values from boundary <code>i - 1</code>
+	 *                   (inclusive) to boundary <code>i</code> (exclusive).
+	 * @return The counts of the <code>boundaries.size() + 1</code> buckets.
+	 */
+	public <V extends Comparable<? super V>> int[] getBucketCounts(
+		final FilterField<T, V> field,
+		final List<V> boundaries)
+	{
+		final List<V> sortedBoundaries = List.copyOf(boundaries);
+		final List<FilterCondition<T, ?>> otherConditions = this.getConditionsOfOtherFields(field);
+		final ValueProvider<T, V> valueProvider = field.getValueProvider();
+		final int[] counts = (int[])this.getFacetCounts(
+			new FacetKey(field.getId(), FilterKey.of(otherConditions), sortedBoundaries),
+			otherConditions,
+			(bucketCounts, row) ->
+			{
+				final V value = valueProvider.apply(row);
+				if(value == null)
+				{
+					return bucketCounts;
+				}
+				final int[] added = ((int[])bucketCounts).clone();
+				added[bucketOf(sortedBoundaries, value)]++;
+				return added;
+			},
+			(matches, r) ->
+			{
+				final int[] bucketCounts = new int[sortedBoundaries.size() + 1];
+				for(int i = 0; i < matches.size(); i++)
+				{
+					final V value = valueProvider.apply(r.get(matches.select(i)));
+					if(value != null)
+					{
+						bucketCounts[bucketOf(sortedBoundaries, value)]++;
+					}
+				}
+				return bucketCounts;
+			});
+		return counts.clone();
+	}
+	
+	private static <V extends Comparable<? super V>> int bucketOf(final List<V> boundaries, final V value)
+	{
+		// Number of boundaries which are less than or equal to the value
+		int low = 0;
+		int high = boundaries.size();
+		while(low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			if(boundaries.get(mid).compareTo(value) <= 0)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	private List<FilterCondition<T, ?>> getConditionsOfOtherFields(final FilterField<T, ?> field)
+	{
+		return this.conditions.stream()
+			.filter(condition -> !condition.getItem().getId().equals(field.getId()))
+			.toList();
+	}
+	
+	/**
+	 * @param key             Identifies the counts.
+	 * @param otherConditions The conditions the counted rows have to match.
+	 * @param adder           Returns new counts with the value of the row added.
+	 * @param computation     Counts the values of the given matching rows.
+	 * @return The cached or computed counts.
+	 */
+	private Object getFacetCounts(
+		final FacetKey key,
+		final List<FilterCondition<T, ?>> otherConditions,
+		final BiFunction<Object, T, Object> adder,
+		final BiFunction<MatchSet, List<T>, Object> computation)
+	{
+		if(this.facetCounts == null)
+		{
+			this.facetCounts = new LinkedHashMap<>(16, 0.75f, true);
+		}
+		
+		Facet<T> facet = this.facetCounts.get(key);
+		if(facet == null)
+		{
+			final MatchSet matches = this.getMatchSetOf(otherConditions);
+			facet = new Facet<>(otherConditions, matches, computation.apply(matches, this.getRows()), adder);
+			this.facetCounts.put(key, facet);
+			if(this.facetCounts.size() > MAX_FACET_COUNTS)
+			{
+				this.facetCounts.remove(this.facetCounts.keySet().iterator().next());
+			}
+		}
+		return facet.counts();
+	}
+	
+	/**
+	 * Returns the ordinals of the matching rows ordered by the given comparator.
+	 * <p>
+	 * The indexes are identified by the identity of the comparator, the caller must therefore reuse the same
+	 * instance for the same sorting. The sorting is stable, rows which are equal keep their order in the dataset.
+	 * </p>
+	 *
+	 * @param comparator The sorting.
+	 * @return The sorted ordinals. The array is shared and must not be modified. It's updated in place when the
+	 * position of a row changes (see {@link #rowUpdated(int)}).
+	 * @see #getSortedMatches(Object, Comparator, int)
+	 */
+	public int[] getSortedMatches(final Comparator<? super T> comparator)
+	{
+		return this.getSortedMatches(comparator, comparator, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Returns at least the first <code>count</code> ordinals of the matching rows ordered by the given comparator.
+	 * <p>
+	 * If there is no sort index for the comparator yet and only a small part of the matches is requested (e.g. the
+	 * first page of a grid) the requested rows are selected with a bounded heap in <code>O(n log count)</code>.
+	 * The sort index is only built once more rows are requested.
+	 * </p>
+	 *
+	 * @param comparator The sorting.
+	 * @param count      The number of required ordinals.
+	 * @return The sorted ordinals - all or at least <code>count</code>. The array is shared and must not be
+	 * modified.
+	 * @see #getSortedMatches(Comparator)
+	 */
+	public int[] getSortedMatches(final Comparator<? super T> comparator, final int count)
+	{
+		return this.getSortedMatches(comparator, comparator, count);
+	}
+	
+	/**
+	 * Returns at least the first <code>count</code> ordinals of the matching rows ordered by the given comparator.
+	 * <p>
+	 * The sort indexes are identified by the given key instead of the comparator. This allows reusing them when
+	 * the caller creates a new comparator for the same sorting, e.g. a grid whenever the sorting is changed.
+	 * </p>
+	 *
+	 * @param sortKey    Identifies the sorting (e.g. the sorted properties and directions). Equal keys must
+	 *                   describe the same order.
+	 * @param comparator The sorting.
+	 * @param count      The number of required ordinals.
+	 * @return The sorted ordinals - all or at least <code>count</code>. The array is shared and must not be
+	 * modified.
+	 * @see #getSortedMatches(Comparator, int)
+	 */
+	public int[] getSortedMatches(final Object sortKey, final Comparator<? super T> comparator, final int count)
+	{
+		Objects.requireNonNull(sortKey);
+		final MatchSet matches = this.getMatchSet();
+		
+		final SortedMatches<T> cached = this.sortedMatches;
+		final boolean sameSorting = cached != null && cached.key().equals(sortKey) && cached.matches() == matches;
+		if(sameSorting && cached.complete())
+		{
+			// Appended matches are only merged now
+			this.sortedMatches = this.mergeAppendedMatches(cached);
+			return this.sortedMatches.ordinals();
+		}
+		if(sameSorting && cached.ordinals().length >= count)
+		{
+			return cached.ordinals();
+		}
+		
+		// Only for the first request, afterwards the user is scrolling and the whole index is required
+		if(!sameSorting
+			&& count <= matches.size() / TOP_K_MAX_FRACTION
+			&& this.findSortIndex(sortKey) == null)
+		{
+			final int[] top = this.selectTop(matches, comparator, count);
+			this.sortedMatches = new SortedMatches<>(sortKey, comparator, matches, top, false);
+			return top;
+		}
+		
+		final int[] permutation = this.getSortIndex(sortKey, comparator);
+		final int[] ordinals;
+		if(matches.isAll())
+		{
+			ordinals = permutation;
+		}
+		else
+		{
+			ordinals = new int[matches.size()];
+			int size = 0;
+			for(final int ordinal : permutation)
+			{
+				if(matches.contains(ordinal))
+				{
+					ordinals[size++] = ordinal;
+				}
+			}
+		}
+		
+		this.sortedMatches = new SortedMatches<>(sortKey, comparator, matches, ordinals, true);
+		return ordinals;
+	}
+	
+	/**
+	 * Selects the first <code>count</code> matches with a bounded max-heap.
+	 */
+	protected int[] selectTop(final MatchSet matches, final Comparator<? super T> comparator, final int count)
+	{
+		if(count <= 0)
+		{
+			return new int[0];
+		}
+		
+		final List<T> r = this.getRows();
+		// Ties are resolved by the ordinal so that the result is identical to the stable sort
+		final Comparator<Integer> ordinalComparator = ((Comparator<Integer>)(i1, i2) ->
+			comparator.compare(r.get(i1), r.get(i2)))
+			.thenComparingInt(Integer::intValue);
+		
+		final PriorityQueue<Integer> heap = new PriorityQueue<>(count + 1, ordinalComparator.reversed());
+		matches.stream().forEach(ordinal ->
+		{
+			if(heap.size() < count)
+			{
+				heap.add(ordinal);
+			}
+			else if(ordinalComparator.compare(ordinal, heap.peek()) < 0)
+			{
+				heap.poll();
+				heap.add(ordinal);
+			}
+		});
+		
+		final int[] top = new int[heap.size()];
+		for(int i = top.length - 1; i >= 0; i--)
+		{
+			top[i] = heap.poll();
+		}
+		return top;
+	}
+	
+	private SortIndex<T> findSortIndex(final Object sortKey)
+	{
+		if(this.sortIndexes != null)
+		{
+			for(final SortIndex<T> index : this.sortIndexes)
+			{
+				if(index.key().equals(sortKey))
+				{
+					return index;
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @param sortKey    Identifies the sorting.
+	 * @param comparator The sorting, only used if there is no index for the key yet.
+	 * @return A permutation of all row ordinals ordered by the comparator.
+	 */
+	protected int[] getSortIndex(final Object sortKey, final Comparator<? super T> comparator)
+	{
+		if(this.sortIndexes == null)
+		{
+			this.sortIndexes = new LinkedList<>();
+		}
+		
+		final SortIndex<T> existing = this.findSortIndex(sortKey);
+		if(existing != null)
+		{
+			// Appended rows are only merged now
+			final SortIndex<T> merged = this.mergeAppendedRows(existing);
+			this.sortIndexes.remove(existing);
+			this.sortIndexes.addFirst(merged);
+			return merged.permutation();
+		}
+		
+		final List<T> r = this.getRows();
+		final Integer[] boxed = new Integer[r.size()];
+		Arrays.setAll(boxed, i -> i);
+		// Arrays.sort for objects is a stable merge sort
+		Arrays.sort(boxed, (i1, i2) -> comparator.compare(r.get(i1), r.get(i2)));
+		final int[] permutation = Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+		
+		if(this.maxSortIndexes > 0)
+		{
+			this.sortIndexes.addFirst(new SortIndex<>(sortKey, comparator, permutation));
+			while(this.sortIndexes.size() > this.maxSortIndexes)
+			{
+				this.sortIndexes.removeLast();
+			}
+		}
+		return permutation;
+	}
+	
+	/**
+	 * Evaluates the given conditions against all rows.
+	 *
+	 * @param conditionsToEvaluate The conditions which all have to be fulfilled.
+	 * @return The matching rows.
+	 */
+	public MatchSet evaluate(final List<? extends FilterCondition<T, ?>> conditionsToEvaluate)
+	{
+		return this.evaluate(conditionsToEvaluate, null);
+	}
+	
+	/**
+	 * Evaluates the given conditions against all rows.
+	 *
+	 * @param conditionsToEvaluate The conditions which all have to be fulfilled.
+	 * @param timeBudget           The maximum time the evaluation may take or <code>null</code> for no limit.
+	 * @return The matching rows.
+	 * @throws FilterEvaluationTimeoutException If the time budget was exceeded.
+	 */
+	public MatchSet evaluate(
+		final List<? extends FilterCondition<T, ?>> conditionsToEvaluate,
+		final Duration timeBudget)
+	{
+		return evaluate(this.getRows(), conditionsToEvaluate, timeBudget);
+	}
+	
+	/**
+	 * Evaluates the given conditions against the rows. Doesn't access any engine, so it can be called from any thread
+	 * as long as the rows aren't modified concurrently.
+	 *
+	 * @param r                    The rows, usually a copy of {@link #getRows()}.
+	 * @param conditionsToEvaluate The conditions which all have to be fulfilled.
+	 * @param timeBudget           The maximum time the evaluation may take or <code>null</code> for no limit.
+	 * @return The matching rows.
+	 * @throws FilterEvaluationTimeoutException If the time budget was exceeded.
+	 */
+	public static <T> MatchSet evaluate(
+		final List<T> r,
+		final List<? extends FilterCondition<T, ?>> conditionsToEvaluate,
+		final Duration timeBudget)
+	{
+		if(conditionsToEvaluate.isEmpty())
+		{
+			return MatchSet.all(r.size());
+		}
+		
+		final long deadline = timeBudget != null ? System.nanoTime() + timeBudget.toNanos() : 0;
+		
+		final Predicate<T> predicate = compile(conditionsToEvaluate);
+		final MatchSet.Builder builder = new MatchSet.Builder(r.size());
+		for(int i = 0; i < r.size(); i++)
+		{
+			// Checking the time is comparatively expensive - only do it every few rows
+			if(timeBudget != null && (i & TIME_CHECK_INTERVAL_MASK) == 0 && System.nanoTime() - deadline > 0)
+			{
+				throw new FilterEvaluationTimeoutException(timeBudget, i);
+			}
+			if(predicate.test(r.get(i)))
+			{
+				builder.add(i);
+			}
+		}
+		return builder.build();
+	}
+	
+	/**
+	 * Evaluates the given conditions against the candidates only, e.g. the previous matches when the conditions were
+	 * narrowed.
+	 *
+	 * @param candidates           The rows which can match at all.
+	 * @param conditionsToEvaluate The conditions which all have to be fulfilled.
+	 * @param timeBudget           The maximum time the evaluation may take or <code>null</code> for no limit.
+	 * @return The matching rows.
+	 * @throws FilterEvaluationTimeoutException If the time budget was exceeded.
+	 */
+	public MatchSet evaluate(
+		final MatchSet candidates,
+		final List<? extends FilterCondition<T, ?>> conditionsToEvaluate,
+		final Duration timeBudget)
+	{
+		final List<T> r = this.getRows();
+		if(candidates.isAll())
+		{
+			return evaluate(r, conditionsToEvaluate, timeBudget);
+		}
+		if(conditionsToEvaluate.isEmpty())
+		{
+			return candidates;
+		}
+		
+		final long deadline = timeBudget != null ? System.nanoTime() + timeBudget.toNanos() : 0;
+		
+		final Predicate<T> predicate = compile(conditionsToEvaluate);
+		final MatchSet.Builder builder = new MatchSet.Builder(r.size(), candidates.size());
+		for(int i = 0; i < candidates.size(); i++)
+		{
+			if(timeBudget != null && (i & TIME_CHECK_INTERVAL_MASK) == 0 && System.nanoTime() - deadline > 0)
+			{
+				throw new FilterEvaluationTimeoutException(timeBudget, i);
+			}
+			final int ordinal = candidates.select(i);
+			if(predicate.test(r.get(ordinal)))
+			{
+				builder.add(ordinal);
+			}
+		}
+		return builder.build();
+	}
+	
+	/**
+	 * Evaluates the given conditions against the rows which are not known to match, e.g. the rows which didn't match
+	 * the previous conditions when the conditions were widened. The known matches are kept without checking them.
+	 *
+	 * @param known                The rows which are known to match.
+	 * @param conditionsToEvaluate The conditions which all have to be fulfilled.
+	 * @param timeBudget           The maximum time the evaluation may take or <code>null</code> for no limit.
+	 * @return The matching rows.
+	 * @throws FilterEvaluationTimeoutException If the time budget was exceeded.
+	 */
+	public MatchSet evaluateExcept(
+		final MatchSet known,
+		final List<? extends FilterCondition<T, ?>> conditionsToEvaluate,
+		final Duration timeBudget)
+	{
+		final List<T> r = this.getRows();
+		if(known.isAll() || conditionsToEvaluate.isEmpty())
+		{
+			return MatchSet.all(r.size());
+		}
+		
+		final long deadline = timeBudget != null ? System.nanoTime() + timeBudget.toNanos() : 0;
+		
+		final Predicate<T> predicate = compile(conditionsToEvaluate);
+		final MatchSet.Builder builder = new MatchSet.Builder(r.size(), known.size() << 1);
+		// Walks through the known matches and the rows in between them at the same time
+		int nextKnownRank = 0;
+		int nextKnown = known.isEmpty() ? r.size() : known.select(0);
+		for(int i = 0; i < r.size(); i++)
+		{
+			if(i == nextKnown)
+			{
+				builder.add(i);
+				nextKnownRank++;
+				nextKnown = nextKnownRank < known.size() ? known.select(nextKnownRank) : r.size();
+				continue;
+			}
+			if(timeBudget != null && (i & TIME_CHECK_INTERVAL_MASK) == 0 && System.nanoTime() - deadline > 0)
+			{
+				throw new FilterEvaluationTimeoutException(timeBudget, i);
+			}
+			if(predicate.test(r.get(i)))
+			{
+				builder.add(i);
+			}
+		}
+		return builder.build();
+	}
+	
+	/**
+	 * Checks if the conditions are at least as restrictive as the previous ones, i.e. if every previous condition is
+	 * implied by one of the conditions (see {@link FilterComparator#implies(String, String)}). This is e.g. the case
+	 * when a condition was added or a contains query was extended. Swapping the arguments checks if the conditions
+	 * were widened.
+	 */
+	static boolean isNarrowing(
+		final List<? extends FilterCondition<?, ?>> conditions,
+		final List<? extends FilterCondition<?, ?>> previousConditions)
+	{
+		for(final FilterCondition<?, ?> previous : previousConditions)
+		{
+			boolean implied = false;
+			for(final FilterCondition<?, ?> condition : conditions)
+			{
+				if(condition.getItem().getId().equals(previous.getItem().getId())
+					&& condition.getSelectedCondition().getId().equals(previous.getSelectedCondition().getId())
+					&& implies(condition, previous))
+				{
+					implied = true;
+					break;
+				}
+			}
+			if(!implied)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static boolean implies(final FilterCondition<?, ?> condition, final FilterCondition<?, ?> other)
+	{
+		final String input = condition.getInputValue();
+		final String otherInput = other.getInputValue();
+		if(input == null || otherInput == null)
+		{
+			return Objects.equals(input, otherInput);
+		}
+		return condition.getSelectedCondition().implies(input, otherInput);
+	}
+	
+	/**
+	 * Combines the conditions into a single predicate which stops at the first unfulfilled condition.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Predicate<T> compile(final Collection<? extends FilterCondition<T, ?>> conditions)
+	{
+		final Predicate<T>[] predicates = conditions.stream()
+			.map(FilterCondition::createPredicate)
+			.toArray(Predicate[]::new);
+		
+		return item ->
+		{
+			for(final Predicate<T> predicate : predicates)
+			{
+				if(!predicate.test(item))
+				{
+					return false;
+				}
+			}
+			return true;
+		};
+	}
+	
+	
+	private record FacetKey(String fieldId, FilterKey otherConditions, List<?> boundaries)
+	{
+	}
+	
+	
+	/**
+	 * A materialized match set with its conditions, so that appended rows can be evaluated.
+	 */
+	private record Materialized<T>(List<FilterCondition<T, ?>> conditions, MatchSet matchSet)
+	{
+		Materialized<T> withAppendedRows(final List<T> rows)
+		{
+			if(this.matchSet.getRowCount() >= rows.size())
+			{
+				return this;
+			}
+			
+			final Predicate<T> predicate = compile(this.conditions);
+			final MatchSet.Builder builder = new MatchSet.Builder(rows.size(), this.matchSet.size() + 16);
+			this.matchSet.stream().forEach(builder::add);
+			for(int i = this.matchSet.getRowCount(); i < rows.size(); i++)
+			{
+				if(predicate.test(rows.get(i)))
+				{
+					builder.add(i);
+				}
+			}
+			return new Materialized<>(this.conditions, builder.build());
+		}
+		
+		Materialized<T> withRowUpdated(final int ordinal, final T row)
+		{
+			return new Materialized<>(
+				this.conditions,
+				compile(this.conditions).test(row)
+					? this.matchSet.withRow(ordinal)
+					: this.matchSet.withoutRow(ordinal));
+		}
+		
+		Materialized<T> withRowsRemoved(final int[] removed)
+		{
+			return new Materialized<>(this.conditions, this.matchSet.withRowsRemoved(removed));
+		}
+	}
+	
+	
+	/**
+	 * Facet counts together with the rows which were counted.
+	 *
+	 * @param otherConditions The conditions the counted rows match.
+	 * @param counted         The counted rows.
+	 * @param counts          The counts.
+	 * @param adder           Returns new counts with the value of the row added.
+	 */
+	private record Facet<T>(
+		List<FilterCondition<T, ?>> otherConditions,
+		MatchSet counted,
+		Object counts,
+		BiFunction<Object, T, Object> adder)
+	{
+		/**
+		 * @return The facet including the row if it now matches or <code>null</code> if the row was counted, as its
+		 * previous value is unknown.
+		 */
+		Facet<T> withRowUpdated(final int ordinal, final T row)
+		{
+			if(this.counted.contains(ordinal))
+			{
+				return null;
+			}
+			if(!compile(this.otherConditions).test(row))
+			{
+				return this;
+			}
+			return new Facet<>(
+				this.otherConditions,
+				this.counted.withRow(ordinal),
+				this.adder.apply(this.counts, row),
+				this.adder);
+		}
+		
+		/**
+		 * @return The facet without the removed rows or <code>null</code> if one of them was counted.
+		 */
+		Facet<T> withRowsRemoved(final int[] removed)
+		{
+			for(final int ordinal : removed)
+			{
+				if(this.counted.contains(ordinal))
+				{
+					return null;
+				}
+			}
+			return new Facet<>(this.otherConditions, this.counted.withRowsRemoved(removed), this.counts, this.adder);
+		}
+	}
+	
+	
+	/**
+	 * @param ranks The index of every ordinal within the permutation or <code>null</code>. Built when a row is
+	 *              updated for the first time and maintained while rows are moved in place.
+	 */
+	private record SortIndex<T>(Object key, Comparator<? super T> comparator, int[] permutation, int[] ranks)
+	{
+		SortIndex(final Object key, final Comparator<? super T> comparator, final int[] permutation)
+		{
+			this(key, comparator, permutation, null);
+		}
+	}
+	
+	
+	/**
+	 * @param ranks The index of every ordinal within the ordinals (<code>-1</code> if not contained) or
+	 *              <code>null</code>. Like the ranks of a {@link SortIndex}.
+	 */
+	private record SortedMatches<T>(
+		Object key,
+		Comparator<? super T> comparator,
+		MatchSet matches,
+		int[] ordinals,
+		boolean complete,
+		int[] ranks)
+	{
+		SortedMatches(
+			final Object key,
+			final Comparator<? super T> comparator,
+			final MatchSet matches,
+			final int[] ordinals,
+			final boolean complete)
+		{
+			this(key, comparator, matches, ordinals, complete, null);
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import java.time.Duration;
+
+
+/**
+ * Thrown when the evaluation of conditions takes longer than the given time budget.
+ */
+public class FilterEvaluationTimeoutException extends RuntimeException
+{
+	public FilterEvaluationTimeoutException(final Duration timeBudget, final int evaluatedRows)
+	{
+		super("Evaluation of the conditions exceeded the time budget of " + timeBudget.toMillis() + "ms after "
+			+ evaluatedRows + " rows");
+	}
+}
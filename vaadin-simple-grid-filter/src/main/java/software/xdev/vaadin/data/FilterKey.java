@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import software.xdev.vaadin.model.FilterCondition;
+
+
+/**
+ * Canonical, order-insensitive key of a set of {@link FilterCondition}s.
+ * <p>
+ * Conditions are identified by the ids of their field and comparator and by their input value. As all
+ * conditions have to be fulfilled, the order and duplicates of the conditions don't matter.
+ * </p>
+ */
+public final class FilterKey implements Serializable
+{
+	private static final Comparator<Part> PART_COMPARATOR = Comparator
+		.comparing(Part::field)
+		.thenComparing(Part::comparator)
+		.thenComparing(Part::value, Comparator.nullsFirst(Comparator.naturalOrder()));
+	
+	private final List<Part> parts;
+	private final int hash;
+	
+	private FilterKey(final List<Part> parts)
+	{
+		this.parts = parts;
+		this.hash = parts.hashCode();
+	}
+	
+	public static FilterKey of(final Collection<? extends FilterCondition<?, ?>> conditions)
+	{
+		return new FilterKey(conditions.stream()
+			.map(c -> new Part(
+				c.getItem().getId(),
+				c.getSelectedCondition().getId(),
+				c.getInputValue()))
+			.distinct()
+			.sorted(PART_COMPARATOR)
+			.toList());
+	}
+	
+	/**
+	 * @return The number of distinct conditions.
+	 */
+	public int size()
+	{
+		return this.parts.size();
+	}
+	
+	public boolean isEmpty()
+	{
+		return this.parts.isEmpty();
+	}
+	
+	@Override
+	public boolean equals(final Object o)
+	{
+		if(this == o)
+		{
+			return true;
+		}
+		return o instanceof final FilterKey other && this.hash == other.hash && this.parts.equals(other.parts);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return this.hash;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return this.parts.toString();
+	}
+	
+	
+	private record Part(String field, String comparator, String value) implements Serializable
+	{
+		Part
+		{
+			Objects.requireNonNull(field);
+			Objects.requireNonNull(comparator);
+		}
+	}
+}
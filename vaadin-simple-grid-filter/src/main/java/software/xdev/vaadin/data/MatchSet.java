@@ -0,0 +1,392 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+
+/**
+ * Immutable set of the rows (identified by their ordinal/index inside the dataset) which match a filter.
+ * <p>
+ * The ordinals are stored sorted in an <code>int</code> array, so that the n-th match can be selected in
+ * <code>O(1)</code> and the rank of a row can be determined in <code>O(log n)</code>.
+ * </p>
+ */
+public final class MatchSet
+{
+	private static final int[] EMPTY = new int[0];
+	
+	/**
+	 * Sorted ordinals of the matching rows or <code>null</code> if all rows are matching.
+	 */
+	private final int[] ordinals;
+	private final int size;
+	private final int rowCount;
+	
+	private volatile long[] bits;
+	private int hash;
+	
+	private MatchSet(final int[] ordinals, final int size, final int rowCount)
+	{
+		this.ordinals = ordinals;
+		this.size = size;
+		this.rowCount = rowCount;
+	}
+	
+	/**
+	 * @param rowCount Number of rows in the dataset.
+	 * @return A match set containing all rows.
+	 */
+	public static MatchSet all(final int rowCount)
+	{
+		return new MatchSet(null, rowCount, rowCount);
+	}
+	
+	/**
+	 * @param rowCount Number of rows in the dataset.
+	 * @return A match set containing no rows.
+	 */
+	public static MatchSet none(final int rowCount)
+	{
+		return new MatchSet(EMPTY, 0, rowCount);
+	}
+	
+	/**
+	 * @param sortedOrdinals The ordinals of the matching rows in ascending order. The array is not copied.
+	 * @param size           The number of used entries of the array.
+	 * @param rowCount       Number of rows in the dataset.
+	 * @return A new match set.
+	 */
+	public static MatchSet of(final int[] sortedOrdinals, final int size, final int rowCount)
+	{
+		Objects.requireNonNull(sortedOrdinals);
+		Objects.checkFromToIndex(0, size, sortedOrdinals.length);
+		
+		return size == rowCount ? all(rowCount) : new MatchSet(sortedOrdinals, size, rowCount);
+	}
+	
+	/**
+	 * @return The number of matching rows.
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+	
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+	
+	/**
+	 * @return The number of rows of the dataset, for which this match set was created.
+	 */
+	public int getRowCount()
+	{
+		return this.rowCount;
+	}
+	
+	/**
+	 * @return <code>true</code> if all rows of the dataset are matching.
+	 */
+	public boolean isAll()
+	{
+		return this.ordinals == null;
+	}
+	
+	/**
+	 * @param rank The position of the match (0 based).
+	 * @return The ordinal of the row which is the n-th match.
+	 */
+	public int select(final int rank)
+	{
+		Objects.checkIndex(rank, this.size);
+		return this.ordinals == null ? rank : this.ordinals[rank];
+	}
+	
+	/**
+	 * @param ordinal The ordinal of the row.
+	 * @return The position of the row within the matches or <code>-1</code> if the row isn't matching.
+	 */
+	public int rank(final int ordinal)
+	{
+		if(this.ordinals == null)
+		{
+			return ordinal >= 0 && ordinal < this.rowCount ? ordinal : -1;
+		}
+		
+		final int index = Arrays.binarySearch(this.ordinals, 0, this.size, ordinal);
+		return index >= 0 ? index : -1;
+	}
+	
+	/**
+	 * Checks in <code>O(1)</code> if the row is matching. A bitset is built for this on the first call.
+	 */
+	public boolean contains(final int ordinal)
+	{
+		if(ordinal < 0 || ordinal >= this.rowCount)
+		{
+			return false;
+		}
+		if(this.ordinals == null)
+		{
+			return true;
+		}
+		
+		return (this.getBits()[ordinal >>> 6] & (1L << ordinal)) != 0;
+	}
+	
+	private long[] getBits()
+	{
+		long[] b = this.bits;
+		if(b == null)
+		{
+			b = new long[(this.rowCount + 63) >>> 6];
+			for(int i = 0; i < this.size; i++)
+			{
+				final int ordinal = this.ordinals[i];
+				b[ordinal >>> 6] |= 1L << ordinal;
+			}
+			this.bits = b;
+		}
+		return b;
+	}
+	
+	/**
+	 * @return The ordinals of the matching rows in ascending order.
+	 */
+	public IntStream stream()
+	{
+		return this.ordinals == null
+			? IntStream.range(0, this.size)
+			: Arrays.stream(this.ordinals, 0, this.size);
+	}
+	
+	/**
+	 * @return A new array with the ordinals of the matching rows in ascending order.
+	 */
+	public int[] toArray()
+	{
+		return this.stream().toArray();
+	}
+	
+	/**
+	 * @param ordinal The ordinal of a row which matches now.
+	 * @return A match set which additionally contains the row.
+	 */
+	public MatchSet withRow(final int ordinal)
+	{
+		Objects.checkIndex(ordinal, this.rowCount);
+		if(this.contains(ordinal))
+		{
+			return this;
+		}
+		
+		final int index = -Arrays.binarySearch(this.ordinals, 0, this.size, ordinal) - 1;
+		final int[] result = new int[this.size + 1];
+		System.arraycopy(this.ordinals, 0, result, 0, index);
+		result[index] = ordinal;
+		System.arraycopy(this.ordinals, index, result, index + 1, this.size - index);
+		return of(result, result.length, this.rowCount);
+	}
+	
+	/**
+	 * @param ordinal The ordinal of a row which no longer matches.
+	 * @return A match set which doesn't contain the row.
+	 */
+	public MatchSet withoutRow(final int ordinal)
+	{
+		Objects.checkIndex(ordinal, this.rowCount);
+		if(!this.contains(ordinal))
+		{
+			return this;
+		}
+		
+		final int[] result = new int[this.size - 1];
+		if(this.ordinals == null)
+		{
+			Arrays.setAll(result, i -> i < ordinal ? i : i + 1);
+		}
+		else
+		{
+			final int index = this.rank(ordinal);
+			System.arraycopy(this.ordinals, 0, result, 0, index);
+			System.arraycopy(this.ordinals, index + 1, result, index, this.size - index - 1);
+		}
+		return of(result, result.length, this.rowCount);
+	}
+	
+	/**
+	 * Returns the match set after rows were removed from the dataset. The ordinals of the following rows are
+	 * decreased accordingly.
+	 *
+	 * @param removedOrdinals The distinct ordinals of the removed rows in ascending order.
+	 * @return A match set for the smaller dataset.
+	 */
+	public MatchSet withRowsRemoved(final int[] removedOrdinals)
+	{
+		final int newRowCount = this.rowCount - removedOrdinals.length;
+		if(this.ordinals == null)
+		{
+			return all(newRowCount);
+		}
+		
+		final int[] result = new int[this.size];
+		int newSize = 0;
+		int removed = 0;
+		for(int i = 0; i < this.size; i++)
+		{
+			final int ordinal = this.ordinals[i];
+			while(removed < removedOrdinals.length && removedOrdinals[removed] < ordinal)
+			{
+				removed++;
+			}
+			if(removed >= removedOrdinals.length || removedOrdinals[removed] != ordinal)
+			{
+				result[newSize++] = ordinal - removed;
+			}
+		}
+		return of(result, newSize, newRowCount);
+	}
+	
+	/**
+	 * @return The estimated memory (in bytes) required by this match set including its lazily built bitset.
+	 */
+	public long estimateMemoryUsage()
+	{
+		long bytes = 40;
+		if(this.ordinals != null)
+		{
+			bytes += 16 + 4L * this.ordinals.length;
+			bytes += 16 + 8L * ((this.rowCount + 63) >>> 6);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * @return A fingerprint of the matching rows (count and hash of the ordinals). Two match sets with different
+	 * fingerprints are never {@link #equals(Object) equal}.
+	 */
+	public long getFingerprint()
+	{
+		return (long)this.size << 32 | (this.hashCode() & 0xFFFFFFFFL);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		int h = this.hash;
+		if(h == 0)
+		{
+			h = this.ordinals == null
+				? Integer.hashCode(this.rowCount)
+				: 31 * Integer.hashCode(this.rowCount) + hashOrdinals(this.ordinals, this.size);
+			this.hash = h;
+		}
+		return h;
+	}
+	
+	private static int hashOrdinals(final int[] ordinals, final int size)
+	{
+		int h = 1;
+		for(int i = 0; i < size; i++)
+		{
+			h = 31 * h + ordinals[i];
+		}
+		return h;
+	}
+	
+	/**
+	 * Two match sets are equal if they contain the same rows of datasets with the same size.
+	 */
+	@Override
+	public boolean equals(final Object o)
+	{
+		if(this == o)
+		{
+			return true;
+		}
+		if(!(o instanceof final MatchSet other)
+			|| this.size != other.size
+			|| this.rowCount != other.rowCount
+			|| this.getFingerprint() != other.getFingerprint())
+		{
+			return false;
+		}
+		if(this.ordinals == null || other.ordinals == null)
+		{
+			// Same size -> both contain all rows
+			return true;
+		}
+		return Arrays.equals(this.ordinals, 0, this.size, other.ordinals, 0, other.size);
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "MatchSet[" + this.size + "/" + this.rowCount + "]";
+	}
+	
+	
+	/**
+	 * Collects ordinals in ascending order.
+	 */
+	public static final class Builder
+	{
+		private final int rowCount;
+		private int[] ordinals;
+		private int size;
+		
+		public Builder(final int rowCount)
+		{
+			this(rowCount, 16);
+		}
+		
+		public Builder(final int rowCount, final int expectedSize)
+		{
+			this.rowCount = rowCount;
+			this.ordinals = new int[Math.max(1, Math.min(expectedSize, rowCount))];
+		}
+		
+		/**
+		 * @param ordinal The ordinal; must be greater than the previously added one.
+		 * @return Returns this builder.
+		 */
+		public Builder add(final int ordinal)
+		{
+			if(this.size == this.ordinals.length)
+			{
+				this.ordinals = Arrays.copyOf(
+					this.ordinals,
+					(int)Math.min(Math.max(this.rowCount, 1), (long)this.ordinals.length << 1));
+			}
+			this.ordinals[this.size++] = ordinal;
+			return this;
+		}
+		
+		public int size()
+		{
+			return this.size;
+		}
+		
+		public MatchSet build()
+		{
+			return MatchSet.of(this.ordinals, this.size, this.rowCount);
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+
+/**
+ * Bounded LRU cache of computed {@link MatchSet}s, used per {@link FilterEngine} (and therefore usually per session).
+ * <p>
+ * Returning to a previously used combination of conditions (e.g. removing a condition and adding it again or
+ * resetting to the initial filters) can then be served without evaluating the conditions again. The cache is bounded
+ * by the number of entries and by the estimated memory of the match sets.
+ * </p>
+ * <p>
+ * Not thread-safe; it's accessed while holding the session lock.
+ * </p>
+ */
+public class MatchSetCache implements Serializable
+{
+	public static final int DEFAULT_MAX_ENTRIES = 16;
+	public static final long DEFAULT_MAX_MEMORY = 16L * 1024 * 1024;
+	
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+	private long maxMemory = DEFAULT_MAX_MEMORY;
+	
+	// The cached results are not serialized - they can always be recomputed
+	private transient LinkedHashMap<FilterKey, MatchSet> entries;
+	private transient long memory;
+	
+	private LinkedHashMap<FilterKey, MatchSet> entries()
+	{
+		if(this.entries == null)
+		{
+			this.entries = new LinkedHashMap<>(16, 0.75f, true);
+		}
+		return this.entries;
+	}
+	
+	public int getMaxEntries()
+	{
+		return this.maxEntries;
+	}
+	
+	/**
+	 * @param maxEntries The maximum number of cached match sets. <code>0</code> disables the cache.
+	 */
+	public void setMaxEntries(final int maxEntries)
+	{
+		if(maxEntries < 0)
+		{
+			throw new IllegalArgumentException("maxEntries must not be negative");
+		}
+		this.maxEntries = maxEntries;
+		this.evict();
+	}
+	
+	public long getMaxMemory()
+	{
+		return this.maxMemory;
+	}
+	
+	/**
+	 * @param maxMemory The maximum estimated memory (in bytes) of all cached match sets.
+	 * @see MatchSet#estimateMemoryUsage()
+	 */
+	public void setMaxMemory(final long maxMemory)
+	{
+		if(maxMemory < 0)
+		{
+			throw new IllegalArgumentException("maxMemory must not be negative");
+		}
+		this.maxMemory = maxMemory;
+		this.evict();
+	}
+	
+	/**
+	 * @return The cached match set or <code>null</code>.
+	 */
+	public MatchSet get(final FilterKey key)
+	{
+		return this.entries().get(key);
+	}
+	
+	public void put(final FilterKey key, final MatchSet matchSet)
+	{
+		final long size = matchSet.estimateMemoryUsage();
+		if(this.maxEntries == 0 || size > this.maxMemory)
+		{
+			return;
+		}
+		
+		final MatchSet previous = this.entries().put(key, matchSet);
+		if(previous != null)
+		{
+			this.memory -= previous.estimateMemoryUsage();
+		}
+		this.memory += size;
+		
+		this.evict();
+	}
+	
+	/**
+	 * @return <code>true</code> if a match set is cached for the key. Unlike {@link #get(FilterKey)} this doesn't
+	 * count as a use of the entry.
+	 */
+	public boolean contains(final FilterKey key)
+	{
+		return this.entries().containsKey(key);
+	}
+	
+	/**
+	 * Replaces all cached match sets, e.g. to patch them after rows changed. The order of use is kept.
+	 *
+	 * @param function Returns the new match set of the key or <code>null</code> to remove the entry.
+	 */
+	public void replaceAll(final BiFunction<FilterKey, MatchSet, MatchSet> function)
+	{
+		final Iterator<Map.Entry<FilterKey, MatchSet>> it = this.entries().entrySet().iterator();
+		while(it.hasNext())
+		{
+			final Map.Entry<FilterKey, MatchSet> entry = it.next();
+			final MatchSet replacement = function.apply(entry.getKey(), entry.getValue());
+			this.memory -= entry.getValue().estimateMemoryUsage();
+			if(replacement == null)
+			{
+				it.remove();
+			}
+			else
+			{
+				entry.setValue(replacement);
+				this.memory += replacement.estimateMemoryUsage();
+			}
+		}
+		this.evict();
+	}
+	
+	private void evict()
+	{
+		final Iterator<Map.Entry<FilterKey, MatchSet>> it = this.entries().entrySet().iterator();
+		while(it.hasNext() && (this.entries().size() > this.maxEntries || this.memory > this.maxMemory))
+		{
+			this.memory -= it.next().getValue().estimateMemoryUsage();
+			it.remove();
+		}
+	}
+	
+	public void clear()
+	{
+		this.entries().clear();
+		this.memory = 0;
+	}
+	
+	public int size()
+	{
+		return this.entries().size();
+	}
+	
+	/**
+	 * @return The estimated memory (in bytes) of all cached match sets.
+	 */
+	public long getMemory()
+	{
+		return this.memory;
+	}
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+
+/**
+ * Application-scoped, thread-safe and memory-bounded cache of {@link MatchSet}s which is shared by multiple
+ * {@link FilterEngine}s, e.g. all users looking at the same reference dataset.
+ * <p>
+ * Entries are identified by the id and version of the dataset and the {@link FilterKey} of the conditions. The first
+ * engine computing a match set pays for it, all others get a hit.
+ * </p>
+ * <p>
+ * The cache is split into independently locked segments. Each segment uses a W-TinyLFU like eviction: new entries
+ * are added to a small LRU window, entries leaving the window are only admitted to the main area (a segmented LRU)
+ * if they were requested more frequently than the entry which would be evicted for them. Frequencies are estimated
+ * with a count-min sketch which is periodically aged.
+ * </p>
+ * <p>
+ * Large match sets (e.g. of conditions matching a lot of rows of a big dataset) would evict most of a segment. They
+ * are therefore kept in a separate segment which has half of the total memory.
+ * </p>
+ * <p>
+ * The cache itself is not serializable. Engines and filter-components using the {@link #getDefault() default cache}
+ * are attached to it again after deserialization (e.g. session replication), all others stop sharing.
+ * </p>
+ *
+ * @see FilterEngine#setSharedCache(SharedMatchSetCache, String, long)
+ */
+public class SharedMatchSetCache
+{
+	public static final long DEFAULT_MAX_MEMORY = 64L * 1024 * 1024;
+	
+	private static volatile SharedMatchSetCache defaultCache;
+	
+	private final Segment[] segments;
+	private final int segmentMask;
+	// Match sets which are larger than this are stored in the large segment
+	private final long largeEntryThreshold;
+	private final Segment largeSegment;
+	// Running computations, so that concurrent requests for the same match set wait instead of computing it again
+	private final ConcurrentHashMap<Key, CompletableFuture<MatchSet>> computations = new ConcurrentHashMap<>();
+	
+	public SharedMatchSetCache()
+	{
+		this(DEFAULT_MAX_MEMORY);
+	}
+	
+	/**
+	 * @param maxMemory The maximum estimated memory (in bytes) of all cached match sets.
+	 */
+	public SharedMatchSetCache(final long maxMemory)
+	{
+		this(maxMemory, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * @param maxMemory   The maximum estimated memory (in bytes) of all cached match sets.
+	 * @param concurrency The expected number of concurrently accessing threads. Rounded up to a power of two.
+	 */
+	public SharedMatchSetCache(final long maxMemory, final int concurrency)
+	{
+		if(maxMemory < 0)
+		{
+			throw new IllegalArgumentException("maxMemory must not be negative");
+		}
+		
+		final int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(concurrency, 64)) * 2 - 1);
+		final long largeSegmentMemory = maxMemory / 2;
+		final long segmentMemory = (maxMemory - largeSegmentMemory) / segmentCount;
+		this.segments = new Segment[segmentCount];
+		for(int i = 0; i < segmentCount; i++)
+		{
+			this.segments[i] = new Segment(segmentMemory);
+		}
+		this.segmentMask = segmentCount - 1;
+		this.largeEntryThreshold = segmentMemory / 8;
+		this.largeSegment = new Segment(largeSegmentMemory);
+	}
+	
+	/**
+	 * @return The application-wide default cache, created on first use.
+	 */
+	public static SharedMatchSetCache getDefault()
+	{
+		SharedMatchSetCache cache = defaultCache;
+		if(cache == null)
+		{
+			synchronized(SharedMatchSetCache.class)
+			{
+				cache = defaultCache;
+				if(cache == null)
+				{
+					cache = new SharedMatchSetCache();
+					defaultCache = cache;
+				}
+			}
+		}
+		return cache;
+	}
+	
+	/**
+	 * Replaces the application-wide default cache, e.g. to use another memory limit. Should be called on startup
+	 * before the default cache is used.
+	 */
+	public static void setDefault(final SharedMatchSetCache cache)
+	{
+		defaultCache = Objects.requireNonNull(cache);
+	}
+	
+	/**
+	 * @return If this is the {@link #getDefault() default cache}, which is re-attached after deserialization.
+	 */
+	public boolean isDefault()
+	{
+		return this == defaultCache;
+	}
+	
+	/**
+	 * @return The cached match set or <code>null</code>.
+	 */
+	public MatchSet get(final String datasetId, final long datasetVersion, final FilterKey filterKey)
+	{
+		final Key key = new Key(datasetId, datasetVersion, filterKey);
+		final MatchSet matchSet = this.segmentFor(key).get(key);
+		return matchSet != null ? matchSet : this.largeSegment.get(key);
+	}
+	
+	public void put(
+		final String datasetId,
+		final long datasetVersion,
+		final FilterKey filterKey,
+		final MatchSet matchSet)
+	{
+		Objects.requireNonNull(matchSet);
+		final Key key = new Key(datasetId, datasetVersion, filterKey);
+		if(matchSet.estimateMemoryUsage() > this.largeEntryThreshold)
+		{
+			this.largeSegment.put(key, matchSet);
+		}
+		else
+		{
+			this.segmentFor(key).put(key, matchSet);
+		}
+	}
+	
+	/**
+	 * Returns the cached match set or computes and caches it. If the same match set is currently computed by
+	 * another thread, the result of that computation is awaited instead, so it's only computed once.
+	 *
+	 * @param computation Computes the match set, e.g. in the background.
+	 * @return The cached or computed match set.
+	 */
+	public MatchSet computeIfAbsent(
+		final String datasetId,
+		final long datasetVersion,
+		final FilterKey filterKey,
+		final Supplier<MatchSet> computation)
+	{
+		final MatchSet cached = this.get(datasetId, datasetVersion, filterKey);
+		if(cached != null)
+		{
+			return cached;
+		}
+		
+		final Key key = new Key(datasetId, datasetVersion, filterKey);
+		final CompletableFuture<MatchSet> future = new CompletableFuture<>();
+		final CompletableFuture<MatchSet> running = this.computations.putIfAbsent(key, future);
+		if(running != null)
+		{
+			return running.join();
+		}
+		
+		try
+		{
+			final MatchSet computed = Objects.requireNonNull(computation.get());
+			this.put(datasetId, datasetVersion, filterKey, computed);
+			future.complete(computed);
+			return computed;
+		}
+		catch(final RuntimeException ex)
+		{
+			future.completeExceptionally(ex);
+			throw ex;
+		}
+		finally
+		{
+			this.computations.remove(key, future);
+		}
+	}
+	
+	/**
+	 * Removes all entries of a dataset, e.g. after a new version was published.
+	 */
+	public void invalidate(final String datasetId)
+	{
+		for(final Segment segment : this.segments)
+		{
+			segment.removeIf(key -> key.datasetId().equals(datasetId));
+		}
+		this.largeSegment.removeIf(key -> key.datasetId().equals(datasetId));
+	}
+	
+	public void clear()
+	{
+		for(final Segment segment : this.segments)
+		{
+			segment.removeIf(key -> true);
+		}
+		this.largeSegment.removeIf(key -> true);
+	}
+	
+	/**
+	 * @return The number of cached match sets.
+	 */
+	public int size()
+	{
+		int size = this.largeSegment.size();
+		for(final Segment segment : this.segments)
+		{
+			size += segment.size();
+		}
+		return size;
+	}
+	
+	/**
+	 * @return The estimated memory (in bytes) of all cached match sets.
+	 */
+	public long getMemory()
+	{
+		long memory = this.largeSegment.getMemory();
+		for(final Segment segment : this.segments)
+		{
+			memory += segment.getMemory();
+		}
+		return memory;
+	}
+	
+	private Segment segmentFor(final Key key)
+	{
+		final int h = key.hashCode();
+		return this.segments[(h ^ (h >>> 16)) & this.segmentMask];
+	}
+	
+	
+	private record Key(String datasetId, long datasetVersion, FilterKey filterKey)
+	{
+		Key
+		{
+			Objects.requireNonNull(datasetId);
+			Objects.requireNonNull(filterKey);
+		}
+	}
+	
+	
+	/**
+	 * A segment with a window LRU (~1% of the memory) and a main segmented LRU (20% probation, 80% protected).
+	 */
+	private static final class Segment
+	{
+		private final long maxWindow;
+		private final long maxMain;
+		private final long maxProtected;
+		
+		private final FrequencySketch sketch = new FrequencySketch();
+		
+		// All maps are in LRU order (eldest first)
+		private final LinkedHashMap<Key, MatchSet> window = new LinkedHashMap<>();
+		private final LinkedHashMap<Key, MatchSet> probation = new LinkedHashMap<>();
+		private final LinkedHashMap<Key, MatchSet> protectedArea = new LinkedHashMap<>();
+		
+		private long windowMemory;
+		private long probationMemory;
+		private long protectedMemory;
+		
+		Segment(final long maxMemory)
+		{
+			this.maxWindow = Math.max(1, maxMemory / 100);
+			this.maxMain = maxMemory - this.maxWindow;
+			this.maxProtected = this.maxMain * 4 / 5;
+		}
+		
+		synchronized MatchSet get(final Key key)
+		{
+			this.sketch.increment(key.hashCode());
+			
+			MatchSet value = this.window.remove(key);
+			if(value != null)
+			{
+				this.window.put(key, value);
+				return value;
+			}
+			
+			value = this.protectedArea.remove(key);
+			if(value != null)
+			{
+				this.protectedArea.put(key, value);
+				return value;
+			}
+			
+			value = this.probation.remove(key);
+			if(value != null)
+			{
+				// Promote - the entry was requested again
+				this.probationMemory -= value.estimateMemoryUsage();
+				this.protectedArea.put(key, value);
+				this.protectedMemory += value.estimateMemoryUsage();
+				this.demoteProtected();
+			}
+			return value;
+		}
+		
+		synchronized void put(final Key key, final MatchSet value)
+		{
+			final long size = value.estimateMemoryUsage();
+			if(size > this.maxMain)
+			{
+				return;
+			}
+			
+			this.remove(key);
+			this.sketch.increment(key.hashCode());
+			
+			this.window.put(key, value);
+			this.windowMemory += size;
+			
+			// Move the eldest entries of the window into the main area if they are admitted
+			final Iterator<Map.Entry<Key, MatchSet>> it = this.window.entrySet().iterator();
+			while(this.windowMemory > this.maxWindow && it.hasNext())
+			{
+				final Map.Entry<Key, MatchSet> candidate = it.next();
+				it.remove();
+				this.windowMemory -= candidate.getValue().estimateMemoryUsage();
+				this.admit(candidate.getKey(), candidate.getValue());
+			}
+		}
+		
+		private void admit(final Key candidate, final MatchSet value)
+		{
+			final long size = value.estimateMemoryUsage();
+			final int candidateFrequency = this.sketch.frequency(candidate.hashCode());
+			
+			// Collect the victims first, so that nothing is evicted when the candidate is rejected
+			final List<Key> victims = new ArrayList<>();
+			long freed = 0;
+			final Iterator<Map.Entry<Key, MatchSet>> it = Stream.concat(
+					this.probation.entrySet().stream(),
+					this.protectedArea.entrySet().stream())
+				.iterator();
+			while(this.probationMemory + this.protectedMemory - freed + size > this.maxMain && it.hasNext())
+			{
+				final Map.Entry<Key, MatchSet> victim = it.next();
+				if(this.sketch.frequency(victim.getKey().hashCode()) >= candidateFrequency)
+				{
+					// The candidate is rejected
+					return;
+				}
+				victims.add(victim.getKey());
+				freed += victim.getValue().estimateMemoryUsage();
+			}
+			
+			victims.forEach(this::remove);
+			this.probation.put(candidate, value);
+			this.probationMemory += size;
+		}
+		
+		private void demoteProtected()
+		{
+			final Iterator<Map.Entry<Key, MatchSet>> it = this.protectedArea.entrySet().iterator();
+			while(this.protectedMemory > this.maxProtected && it.hasNext())
+			{
+				final Map.Entry<Key, MatchSet> entry = it.next();
+				it.remove();
+				final long size = entry.getValue().estimateMemoryUsage();
+				this.protectedMemory -= size;
+				this.probation.put(entry.getKey(), entry.getValue());
+				this.probationMemory += size;
+			}
+		}
+		
+		private void remove(final Key key)
+		{
+			MatchSet value = this.window.remove(key);
+			if(value != null)
+			{
+				this.windowMemory -= value.estimateMemoryUsage();
+			}
+			value = this.probation.remove(key);
+			if(value != null)
+			{
+				this.probationMemory -= value.estimateMemoryUsage();
+			}
+			value = this.protectedArea.remove(key);
+			if(value != null)
+			{
+				this.protectedMemory -= value.estimateMemoryUsage();
+			}
+		}
+		
+		synchronized void removeIf(final Predicate<Key> predicate)
+		{
+			this.window.keySet().stream()
+				.filter(predicate)
+				.toList()
+				.forEach(this::remove);
+			this.probation.keySet().stream()
+				.filter(predicate)
+				.toList()
+				.forEach(this::remove);
+			this.protectedArea.keySet().stream()
+				.filter(predicate)
+				.toList()
+				.forEach(this::remove);
+		}
+		
+		synchronized int size()
+		{
+			return this.window.size() + this.probation.size() + this.protectedArea.size();
+		}
+		
+		synchronized long getMemory()
+		{
+			return this.windowMemory + this.probationMemory + this.protectedMemory;
+		}
+	}
+	
+	
+	/**
+	 * Count-min sketch with 4 rows which estimates how often a key was requested. All counters are halved
+	 * periodically so that old popularity fades.
+	 */
+	private static final class FrequencySketch
+	{
+		private static final int WIDTH = 1024;
+		private static final int SAMPLE_SIZE = 10 * WIDTH;
+		private static final int[] SEEDS = {0x97cb3127, 0xb1e8d5a7, 0x3c6ef372, 0x5be0cd19};
+		
+		private final int[][] counters = new int[SEEDS.length][WIDTH];
+		private int additions;
+		
+		void increment(final int hash)
+		{
+			for(int i = 0; i < SEEDS.length; i++)
+			{
+				this.counters[i][index(hash, i)]++;
+			}
+			
+			if(++this.additions >= SAMPLE_SIZE)
+			{
+				this.age();
+			}
+		}
+		
+		int frequency(final int hash)
+		{
+			int min = Integer.MAX_VALUE;
+			for(int i = 0; i < SEEDS.length; i++)
+			{
+				min = Math.min(min, this.counters[i][index(hash, i)]);
+			}
+			return min;
+		}
+		
+		private void age()
+		{
+			for(final int[] row : this.counters)
+			{
+				for(int j = 0; j < row.length; j++)
+				{
+					row[j] >>>= 1;
+				}
+			}
+			this.additions /= 2;
+		}
+		
+		private static int index(final int hash, final int row)
+		{
+			int h = (hash ^ SEEDS[row]) * 0x9E3779B9;
+			h ^= h >>> 16;
+			return h & (WIDTH - 1);
+		}
+	}
+}
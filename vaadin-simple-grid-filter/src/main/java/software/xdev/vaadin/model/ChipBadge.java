@@ -48,6 +48,11 @@ public class ChipBadge<T> extends Composite<Span> implements HasSize, HasStyle
 	
 	protected String badgeId;
 	
+	/**
+	 * Cached result of the {@link ItemLabelGenerator}. <code>null</code> when the label has to be (re)generated.
+	 */
+	protected String labelText;
+	
 	public ChipBadge(final T item)
 	{
 		this.item = item;
@@ -73,7 +78,11 @@ public class ChipBadge<T> extends Composite<Span> implements HasSize, HasStyle
 	@Override
 	protected void onAttach(final AttachEvent attachEvent)
 	{
-		this.updateTextFromItemLabelGenerator();
+		// The label is kept while detached, so it only has to be generated when the item or generator changed
+		if(this.labelText == null)
+		{
+			this.updateTextFromItemLabelGenerator();
+		}
 	}
 	
 	public T getItem()
@@ -94,11 +103,13 @@ public class ChipBadge<T> extends Composite<Span> implements HasSize, HasStyle
 	public void setItem(final T item)
 	{
 		this.item = item;
+		this.labelText = null;
 	}
 	
 	public void setItemLabelGenerator(final ItemLabelGenerator<T> itemLabelGenerator)
 	{
 		this.itemLabelGenerator = itemLabelGenerator;
+		this.labelText = null;
 	}
 	
 	/**
@@ -106,7 +117,20 @@ public class ChipBadge<T> extends Composite<Span> implements HasSize, HasStyle
 	 */
 	public void updateTextFromItemLabelGenerator()
 	{
-		this.label.setText(this.itemLabelGenerator.apply(this.item));
+		this.labelText = this.itemLabelGenerator.apply(this.item);
+		this.label.setText(this.labelText);
+	}
+	
+	/**
+	 * @return The text of the label. It is generated once and cached until the item or generator changes.
+	 */
+	public String getLabelText()
+	{
+		if(this.labelText == null)
+		{
+			this.updateTextFromItemLabelGenerator();
+		}
+		return this.labelText;
 	}
 	
 	public Registration addBtnDeleteClickListener(final ComponentEventListener<ClickEvent<Button>> listener)
@@ -28,7 +28,10 @@ public class ChipBadgeExtension<T> extends ChipBadge<T>
 	public static final String BTN_DELETE_CHIP_COMPONENT = "btnDeleteChipComponent";
 	public static final String BTN_EDIT_CHIP_COMPONENT = "btnEditChipComponent";
 	
-	protected final Button btnEdit = new Button(VaadinIcon.PENCIL.create());
+	/**
+	 * Only created when the badge is editable, as most badges never show it.
+	 */
+	protected Button btnEdit;
 	
 	private CustomizationDegree customizationDegree = CustomizationDegree.EVERYTHING;
 	
@@ -36,35 +39,48 @@ public class ChipBadgeExtension<T> extends ChipBadge<T>
 	{
 		super(item);
 		
-		this.initBtnEdit();
+		this.initBtnDelete();
 	}
 	
-	private void initBtnEdit()
+	private void initBtnDelete()
 	{
 		this.btnDelete.setEnabled(true);
 		this.btnDelete.setVisible(true);
 		this.btnDelete.setId(BTN_DELETE_CHIP_COMPONENT);
-		
-		this.btnEdit.setEnabled(false);
-		this.btnEdit.setVisible(false);
-		this.btnEdit.setId(BTN_EDIT_CHIP_COMPONENT);
-		
-		this.btnEdit.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY_INLINE);
-		this.btnEdit.getStyle().set("font-size", "var(--lumo-font-size-m)");
-		this.btnEdit.setSizeUndefined();
-		
-		this.getContent().add(this.btnEdit);
+	}
+	
+	protected Button getOrCreateBtnEdit()
+	{
+		if(this.btnEdit == null)
+		{
+			this.btnEdit = new Button(VaadinIcon.PENCIL.create());
+			this.btnEdit.setEnabled(false);
+			this.btnEdit.setVisible(false);
+			this.btnEdit.setId(BTN_EDIT_CHIP_COMPONENT);
+			
+			this.btnEdit.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY_INLINE);
+			this.btnEdit.getStyle().set("font-size", "var(--lumo-font-size-m)");
+			this.btnEdit.setSizeUndefined();
+			
+			this.getContent().add(this.btnEdit);
+		}
+		return this.btnEdit;
 	}
 	
 	public void setBtnEditEnabled(final boolean enabled)
 	{
-		this.btnEdit.setEnabled(enabled);
+		if(!enabled && this.btnEdit == null)
+		{
+			return;
+		}
+		
+		this.getOrCreateBtnEdit().setEnabled(enabled);
 		this.btnEdit.setVisible(enabled);
 	}
 	
 	public boolean isBtnEditEnabled()
 	{
-		return this.btnEdit.isEnabled();
+		return this.btnEdit != null && this.btnEdit.isEnabled();
 	}
 	
 	public void setBtnDeleteEnabled(final boolean enabled)
@@ -90,6 +106,6 @@ public class ChipBadgeExtension<T> extends ChipBadge<T>
 	
 	public Registration addBtnEditClickListener(final ComponentEventListener<ClickEvent<Button>> listener)
 	{
-		return this.btnEdit.addClickListener(listener);
+		return this.getOrCreateBtnEdit().addClickListener(listener);
 	}
 }
@@ -15,6 +15,9 @@
  */
 package software.xdev.vaadin.model;
 
+import java.io.Serializable;
+import java.util.function.Predicate;
+
 import software.xdev.vaadin.comparators.FilterComparator;
 
 
@@ -22,7 +25,7 @@ import software.xdev.vaadin.comparators.FilterComparator;
  * @param <B> The bean.
  * @param <T> The type or field to use.
  */
-public class FilterCondition<B, T>
+public class FilterCondition<B, T> implements Serializable
 {
 	private final FilterField<B, T> item;
 	private final FilterComparator selectedCondition;
@@ -53,6 +56,14 @@ public class FilterCondition<B, T>
 		return this.inputValue;
 	}
 	
+	/**
+	 * @return A predicate which checks if a bean matches this condition.
+	 */
+	public Predicate<B> createPredicate()
+	{
+		return this.selectedCondition.compare(this.item.getValueProvider(), this.inputValue);
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -15,6 +15,8 @@
  */
 package software.xdev.vaadin.model;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.vaadin.flow.function.ValueProvider;
@@ -36,26 +38,44 @@ import software.xdev.vaadin.comparators.NotEqualComparator;
 
 
 /**
- * @param <B> The bean.
- * @param <T> The type or field to use.
+ * A field which can be filtered. Instances are immutable and can therefore be shared between sessions, e.g. through a
+ * {@link FilterSchema}.
+ *
+ * @param <B> Bean type
+ * @param <T> Type of the field
  */
-public class FilterField<B, T>
+public class FilterField<B, T> implements Serializable
 {
 	private final ValueProvider<B, T> valueProvider;
 	private final String description;
 	private final Class<T> type;
 	private final List<FilterComparator> availableComparators;
+	private final String id;
 	
 	public FilterField(
 		final ValueProvider<B, T> valueProvider,
 		final String description,
 		final Class<T> type,
 		final List<FilterComparator> availableComparators)
+	{
+		this(valueProvider, description, type, availableComparators, null);
+	}
+	
+	/**
+	 * @param id A short and stable id of the field or <code>null</code> to use the description.
+	 */
+	public FilterField(
+		final ValueProvider<B, T> valueProvider,
+		final String description,
+		final Class<T> type,
+		final List<FilterComparator> availableComparators,
+		final String id)
 	{
 		this.valueProvider = valueProvider;
 		this.description = description;
 		this.type = type;
-		this.availableComparators = availableComparators;
+		this.availableComparators = List.copyOf(availableComparators);
+		this.id = id;
 	}
 	
 	public ValueProvider<B, T> getValueProvider()
@@ -68,11 +88,34 @@ public class FilterField<B, T>
 		return this.description;
 	}
 	
+	/**
+	 * @return A short and stable id of the field which is used e.g. in the url. Defaults to the description.
+	 */
+	public String getId()
+	{
+		return this.id != null ? this.id : this.description;
+	}
+	
+	/**
+	 * Sets a short and stable id which is used instead of the description e.g. in the url. Should be used when the
+	 * description is long or localized.
+	 *
+	 * @param id The id of the field.
+	 * @return Returns a new filter field.
+	 */
+	public FilterField<B, T> withId(final String id)
+	{
+		return this.copy(this.availableComparators, id);
+	}
+	
 	public Class<T> getType()
 	{
 		return this.type;
 	}
 	
+	/**
+	 * @return The unmodifiable list of comparators that are available for this field.
+	 */
 	public List<FilterComparator> getAvailableComparators()
 	{
 		return this.availableComparators;
@@ -82,16 +125,31 @@ public class FilterField<B, T>
 	 * Used to make a custom comparator available for selection.
 	 *
 	 * @param comparator The custom comparator.
-	 * @return Returns a new filter field.
+	 * @return Returns a new filter field or this one if the comparator is already available.
 	 */
 	public FilterField<B, T> withAvailableComparator(final FilterComparator comparator)
 	{
-		if(this.availableComparators.stream().noneMatch(c -> c.getClass() == comparator.getClass()))
+		if(this.availableComparators.stream().anyMatch(c -> c.getClass() == comparator.getClass()))
 		{
-			this.availableComparators.add(comparator);
+			return this;
 		}
 		
-		return new FilterField<>(this.valueProvider, this.description, this.type, this.availableComparators);
+		final List<FilterComparator> comparators = new ArrayList<>(this.availableComparators);
+		comparators.add(comparator);
+		
+		return this.copy(comparators, this.id);
+	}
+	
+	/**
+	 * Creates a copy of this field with the given comparators and id.
+	 *
+	 * @param comparators The comparators of the new field.
+	 * @param id          The id of the new field or <code>null</code>.
+	 * @return Returns a new filter field.
+	 */
+	protected FilterField<B, T> copy(final List<FilterComparator> comparators, final String id)
+	{
+		return new FilterField<>(this.valueProvider, this.description, this.type, comparators, id);
 	}
 	
 	public FilterField<B, T> withEqualComparator()
@@ -39,8 +39,19 @@ public class FilterFieldEnumExtension<B, T extends Enum<?>> extends FilterField<
 		final List<FilterComparator> availableComparators,
 		final Enum<?>[] enumValues)
 	{
-		super(valueProvider, description, type, availableComparators);
-		this.enumValues = enumValues;
+		this(valueProvider, description, type, availableComparators, enumValues, null);
+	}
+	
+	public FilterFieldEnumExtension(
+		final ValueProvider<B, T> valueProvider,
+		final String description,
+		final Class<T> type,
+		final List<FilterComparator> availableComparators,
+		final Enum<?>[] enumValues,
+		final String id)
+	{
+		super(valueProvider, description, type, availableComparators, id);
+		this.enumValues = enumValues.clone();
 	}
 	
 	public Enum[] getEnumValues()
@@ -51,16 +62,24 @@ public class FilterFieldEnumExtension<B, T extends Enum<?>> extends FilterField<
 	@Override
 	public FilterFieldEnumExtension<B, T> withAvailableComparator(final FilterComparator comparator)
 	{
-		if(this.getAvailableComparators().stream().noneMatch(c -> c.getClass() == comparator.getClass()))
-		{
-			this.getAvailableComparators().add(comparator);
-		}
-		
+		return (FilterFieldEnumExtension<B, T>)super.withAvailableComparator(comparator);
+	}
+	
+	@Override
+	public FilterFieldEnumExtension<B, T> withId(final String id)
+	{
+		return (FilterFieldEnumExtension<B, T>)super.withId(id);
+	}
+	
+	@Override
+	protected FilterFieldEnumExtension<B, T> copy(final List<FilterComparator> comparators, final String id)
+	{
 		return new FilterFieldEnumExtension<>(
 			this.getValueProvider(),
 			this.getDescription(),
 			this.getType(),
-			this.getAvailableComparators(),
-			this.enumValues);
+			comparators,
+			this.enumValues,
+			id);
 	}
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import software.xdev.vaadin.comparators.FilterComparator;
+
+
+/**
+ * Immutable and thread-safe set of {@link FilterField}s.
+ * <p>
+ * The schema is intended to be built once (e.g. at application startup) and shared by all
+ * {@link software.xdev.vaadin.FilterComponent}s which filter the same kind of data. Lookups by description are
+ * precomputed.
+ * </p>
+ *
+ * @param <T> Bean type
+ * @see software.xdev.vaadin.FilterComponent#withFilterSchema(FilterSchema)
+ */
+public final class FilterSchema<T>
+{
+	private final List<FilterField<T, ?>> fields;
+	private final Map<String, FilterField<T, ?>> fieldsByDescription;
+	private final Map<String, Map<String, FilterComparator>> comparatorsByFieldDescription;
+	
+	private FilterSchema(final Map<String, FilterField<T, ?>> fieldsByDescription)
+	{
+		this.fields = List.copyOf(fieldsByDescription.values());
+		this.fieldsByDescription = Collections.unmodifiableMap(new LinkedHashMap<>(fieldsByDescription));
+		
+		final Map<String, Map<String, FilterComparator>> comparators = new LinkedHashMap<>();
+		for(final FilterField<T, ?> field : this.fields)
+		{
+			final Map<String, FilterComparator> fieldComparators = new LinkedHashMap<>();
+			field.getAvailableComparators().forEach(c -> fieldComparators.putIfAbsent(c.getDescription(), c));
+			comparators.put(field.getDescription(), Collections.unmodifiableMap(fieldComparators));
+		}
+		this.comparatorsByFieldDescription = Collections.unmodifiableMap(comparators);
+	}
+	
+	public static <T> Builder<T> builder()
+	{
+		return new Builder<>();
+	}
+	
+	/**
+	 * @return The unmodifiable list of all fields in the order they were added.
+	 */
+	public List<FilterField<T, ?>> getFields()
+	{
+		return this.fields;
+	}
+	
+	public Optional<FilterField<T, ?>> getField(final String description)
+	{
+		return Optional.ofNullable(this.fieldsByDescription.get(description));
+	}
+	
+	/**
+	 * @param fieldDescription      The description of the field.
+	 * @param comparatorDescription The description of the comparator.
+	 * @return The comparator if it's available for the field.
+	 */
+	public Optional<FilterComparator> getComparator(final String fieldDescription, final String comparatorDescription)
+	{
+		return Optional.ofNullable(this.comparatorsByFieldDescription.get(fieldDescription))
+			.map(comparators -> comparators.get(comparatorDescription));
+	}
+	
+	
+	public static final class Builder<T>
+	{
+		private final Map<String, FilterField<T, ?>> fieldsByDescription = new LinkedHashMap<>();
+		
+		private Builder()
+		{
+		}
+		
+		/**
+		 * Adds a field to the schema. If a field with the same description already exists, the comparators of both
+		 * fields are merged.
+		 *
+		 * @param filterField The field which should be added.
+		 * @return Returns this builder.
+		 */
+		public Builder<T> withFilter(final FilterField<T, ?> filterField)
+		{
+			Objects.requireNonNull(filterField);
+			
+			this.fieldsByDescription.merge(filterField.getDescription(), filterField, this::mergeComparators);
+			
+			return this;
+		}
+		
+		public Builder<T> withFilter(final SimpleFilterField<T> simpleFilterField)
+		{
+			Objects.requireNonNull(simpleFilterField);
+			
+			return this.withFilter(simpleFilterField.getFilterField());
+		}
+		
+		public Builder<T> withFilters(final Iterable<? extends FilterField<T, ?>> filterFields)
+		{
+			Objects.requireNonNull(filterFields);
+			filterFields.forEach(this::withFilter);
+			
+			return this;
+		}
+		
+		private FilterField<T, ?> mergeComparators(
+			final FilterField<T, ?> existing,
+			final FilterField<T, ?> added)
+		{
+			FilterField<T, ?> merged = existing;
+			for(final FilterComparator comparator : added.getAvailableComparators())
+			{
+				merged = merged.withAvailableComparator(comparator);
+			}
+			return merged;
+		}
+		
+		public FilterSchema<T> build()
+		{
+			return new FilterSchema<>(this.fieldsByDescription);
+		}
+	}
+}
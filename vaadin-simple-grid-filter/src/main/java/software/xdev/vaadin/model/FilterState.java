@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.model;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import software.xdev.vaadin.qp.FilterStateCodec;
+import software.xdev.vaadin.qp.QueryCondition;
+
+
+/**
+ * Immutable snapshot of the conditions of a {@link software.xdev.vaadin.FilterComponent}, consisting of the ids of
+ * fields and comparators, the input values and the flags of the badges.
+ * <p>
+ * The snapshot doesn't reference any component or field, so it can be stored (e.g. in a replicated session) instead of
+ * the component. It is serialized in the compact format of the url (see {@link FilterStateCodec}).
+ * </p>
+ *
+ * @see software.xdev.vaadin.FilterComponent#exportState()
+ * @see software.xdev.vaadin.FilterComponent#restoreState(FilterState)
+ */
+public final class FilterState implements Serializable
+{
+	private static final FilterState EMPTY = new FilterState(List.of());
+	
+	private final transient List<QueryCondition> conditions;
+	
+	public FilterState(final Collection<QueryCondition> conditions)
+	{
+		this.conditions = List.copyOf(conditions);
+	}
+	
+	public static FilterState empty()
+	{
+		return EMPTY;
+	}
+	
+	/**
+	 * @param encoded A state encoded with {@link #encode()}.
+	 * @return The decoded state.
+	 * @throws IllegalArgumentException If the value is malformed.
+	 */
+	public static FilterState decode(final String encoded)
+	{
+		return new FilterState(FilterStateCodec.decode(Objects.requireNonNull(encoded)));
+	}
+	
+	/**
+	 * @return The conditions in the order of the badges.
+	 */
+	public List<QueryCondition> getConditions()
+	{
+		return this.conditions;
+	}
+	
+	public boolean isEmpty()
+	{
+		return this.conditions.isEmpty();
+	}
+	
+	/**
+	 * @return The url-safe encoded state.
+	 */
+	public String encode()
+	{
+		return FilterStateCodec.encode(this.conditions);
+	}
+	
+	@Override
+	public boolean equals(final Object o)
+	{
+		return this == o || o instanceof final FilterState other && this.conditions.equals(other.conditions);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return this.conditions.hashCode();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "FilterState" + this.conditions;
+	}
+	
+	@Serial
+	private Object writeReplace()
+	{
+		return new SerializedForm(this.encode());
+	}
+	
+	@Serial
+	private void readObject(final ObjectInputStream in) throws InvalidObjectException
+	{
+		throw new InvalidObjectException("Serialized form required");
+	}
+	
+	/**
+	 * Only the encoded conditions are written.
+	 */
+	private record SerializedForm(String encoded) implements Serializable
+	{
+		@Serial
+		private Object readResolve() throws InvalidObjectException
+		{
+			try
+			{
+				return decode(this.encoded);
+			}
+			catch(final IllegalArgumentException e)
+			{
+				final InvalidObjectException ex = new InvalidObjectException(e.getMessage());
+				ex.initCause(e);
+				throw ex;
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.model;
+
+import java.util.Objects;
+
+import software.xdev.vaadin.comparators.FilterComparator;
+
+
+/**
+ * Describes an initial filter condition which can be added in bulk.
+ *
+ * @param <T> Bean type
+ * @see software.xdev.vaadin.FilterComponent#withInitialFilters(java.util.Collection)
+ */
+public class InitialFilter<T>
+{
+	private final FilterField<T, ?> filterField;
+	private final FilterComparator selectedCondition;
+	private final String searchQuery;
+	private boolean deletable = true;
+	private boolean editable;
+	private CustomizationDegree customizationDegree = CustomizationDegree.EVERYTHING;
+	private String badgeId;
+	
+	public InitialFilter(
+		final FilterField<T, ?> filterField,
+		final FilterComparator selectedCondition,
+		final String searchQuery)
+	{
+		this.filterField = Objects.requireNonNull(filterField);
+		this.selectedCondition = Objects.requireNonNull(selectedCondition);
+		this.searchQuery = Objects.requireNonNull(searchQuery);
+	}
+	
+	public InitialFilter<T> withDeletable(final boolean deletable)
+	{
+		this.deletable = deletable;
+		return this;
+	}
+	
+	public InitialFilter<T> withEditable(final boolean editable)
+	{
+		this.editable = editable;
+		return this;
+	}
+	
+	public InitialFilter<T> withCustomizationDegree(final CustomizationDegree customizationDegree)
+	{
+		this.customizationDegree = Objects.requireNonNull(customizationDegree);
+		return this;
+	}
+	
+	/**
+	 * @param badgeId The badge ID is used to recognise the initial filter, for example after refreshing the page. If
+	 *                not set, the id is assigned automatically.
+	 * @return Returns this initial filter.
+	 */
+	public InitialFilter<T> withBadgeId(final String badgeId)
+	{
+		this.badgeId = badgeId;
+		return this;
+	}
+	
+	public FilterField<T, ?> getFilterField()
+	{
+		return this.filterField;
+	}
+	
+	public FilterComparator getSelectedCondition()
+	{
+		return this.selectedCondition;
+	}
+	
+	public String getSearchQuery()
+	{
+		return this.searchQuery;
+	}
+	
+	public boolean isDeletable()
+	{
+		return this.deletable;
+	}
+	
+	public boolean isEditable()
+	{
+		return this.editable;
+	}
+	
+	public CustomizationDegree getCustomizationDegree()
+	{
+		return this.customizationDegree;
+	}
+	
+	public String getBadgeId()
+	{
+		return this.badgeId;
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.preset;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import software.xdev.vaadin.model.FilterState;
+
+
+/**
+ * Stores the presets in a local properties file. The conditions are stored in the compact format of the url (see
+ * {@link FilterState#encode()}).
+ * <p>
+ * The presets are kept in memory and only read again when the file was modified. Every change rewrites the file
+ * atomically. Thread-safe.
+ * </p>
+ */
+public class FileFilterPresetStore implements FilterPresetStore
+{
+	private static final String STATE_PREFIX = "state.";
+	private static final String MATERIALIZED_PREFIX = "materialized.";
+	
+	// Path is not serializable
+	private final String file;
+	
+	private transient Map<String, FilterPreset> presets;
+	private transient FileTime presetsModifiedTime;
+	
+	public FileFilterPresetStore(final Path file)
+	{
+		this.file = file.toAbsolutePath().toString();
+	}
+	
+	public Path getFile()
+	{
+		return Path.of(this.file);
+	}
+	
+	@Override
+	public synchronized List<FilterPreset> getAll()
+	{
+		return List.copyOf(this.presets().values());
+	}
+	
+	@Override
+	public synchronized Optional<FilterPreset> get(final String name)
+	{
+		return Optional.ofNullable(this.presets().get(name));
+	}
+	
+	@Override
+	public synchronized void save(final FilterPreset preset)
+	{
+		Objects.requireNonNull(preset);
+		
+		this.presets().put(preset.name(), preset);
+		this.write();
+	}
+	
+	@Override
+	public synchronized boolean delete(final String name)
+	{
+		if(this.presets().remove(name) == null)
+		{
+			return false;
+		}
+		this.write();
+		return true;
+	}
+	
+	private Map<String, FilterPreset> presets()
+	{
+		final Path path = this.getFile();
+		try
+		{
+			final FileTime modifiedTime = Files.exists(path) ? Files.getLastModifiedTime(path) : null;
+			if(this.presets == null || !Objects.equals(modifiedTime, this.presetsModifiedTime))
+			{
+				this.presets = read(path);
+				this.presetsModifiedTime = modifiedTime;
+			}
+			return this.presets;
+		}
+		catch(final IOException e)
+		{
+			throw new UncheckedIOException("Failed to read the presets from " + path, e);
+		}
+	}
+	
+	private static Map<String, FilterPreset> read(final Path path) throws IOException
+	{
+		final Map<String, FilterPreset> read = new TreeMap<>();
+		if(!Files.exists(path))
+		{
+			return read;
+		}
+		
+		final Properties properties = new Properties();
+		try(final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+		{
+			properties.load(reader);
+		}
+		
+		for(final String key : properties.stringPropertyNames())
+		{
+			if(!key.startsWith(STATE_PREFIX))
+			{
+				continue;
+			}
+			
+			final String name = key.substring(STATE_PREFIX.length());
+			try
+			{
+				read.put(name, new FilterPreset(
+					name,
+					FilterState.decode(properties.getProperty(key)),
+					Boolean.parseBoolean(properties.getProperty(MATERIALIZED_PREFIX + name))));
+			}
+			catch(final IllegalArgumentException e)
+			{
+				// Malformed (e.g. manually modified) preset - ignore it
+			}
+		}
+		return read;
+	}
+	
+	private void write()
+	{
+		final Properties properties = new Properties();
+		for(final FilterPreset preset : this.presets.values())
+		{
+			properties.setProperty(STATE_PREFIX + preset.name(), preset.state().encode());
+			if(preset.materialized())
+			{
+				properties.setProperty(MATERIALIZED_PREFIX + preset.name(), Boolean.TRUE.toString());
+			}
+		}
+		
+		final Path path = this.getFile();
+		try
+		{
+			if(path.getParent() != null)
+			{
+				Files.createDirectories(path.getParent());
+			}
+			
+			// Written to a temporary file first, so that readers never see a partially written file
+			final Path tempFile = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+			try
+			{
+				try(final Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8))
+				{
+					properties.store(writer, "Filter presets");
+				}
+				try
+				{
+					Files.move(
+						tempFile,
+						path,
+						StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch(final AtomicMoveNotSupportedException e)
+				{
+					Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			finally
+			{
+				Files.deleteIfExists(tempFile);
+			}
+			
+			this.presetsModifiedTime = Files.getLastModifiedTime(path);
+		}
+		catch(final IOException e)
+		{
+			throw new UncheckedIOException("Failed to write the presets to " + path, e);
+		}
+	}
+}
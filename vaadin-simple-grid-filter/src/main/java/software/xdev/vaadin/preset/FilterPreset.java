@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.preset;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import software.xdev.vaadin.model.FilterState;
+
+
+/**
+ * A named set of conditions which can be applied to a {@link software.xdev.vaadin.FilterComponent}.
+ *
+ * @param name         The unique name of the preset.
+ * @param state        The conditions of the preset.
+ * @param materialized If the matching rows of the preset should be computed in the background, so that applying it
+ *                     doesn't require an evaluation.
+ */
+public record FilterPreset(String name, FilterState state, boolean materialized) implements Serializable
+{
+	public FilterPreset
+	{
+		Objects.requireNonNull(name);
+		Objects.requireNonNull(state);
+		if(name.isBlank())
+		{
+			throw new IllegalArgumentException("The name of a preset must not be blank");
+		}
+	}
+	
+	public FilterPreset withMaterialized(final boolean materialized)
+	{
+		return new FilterPreset(this.name, this.state, materialized);
+	}
+}
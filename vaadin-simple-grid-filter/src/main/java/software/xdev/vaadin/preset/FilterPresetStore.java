@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.preset;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * Stores {@link FilterPreset}s by their name.
+ * <p>
+ * A store is usually shared by all sessions, implementations must therefore be thread-safe.
+ * </p>
+ *
+ * @see FileFilterPresetStore
+ */
+public interface FilterPresetStore extends Serializable
+{
+	/**
+	 * @return All presets ordered by their name.
+	 */
+	List<FilterPreset> getAll();
+	
+	Optional<FilterPreset> get(String name);
+	
+	/**
+	 * Saves the preset. An existing preset with the same name is replaced.
+	 */
+	void save(FilterPreset preset);
+	
+	/**
+	 * @return <code>true</code> if a preset with the name existed.
+	 */
+	boolean delete(String name);
+}
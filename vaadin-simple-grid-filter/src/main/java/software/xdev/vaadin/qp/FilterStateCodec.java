@@ -0,0 +1,328 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.qp;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+import software.xdev.vaadin.comparators.IsBetweenComparator;
+
+
+/**
+ * Compact encoding of the conditions of a filter-component into a single url-safe string.
+ * <p>
+ * Compared to the old format (seven parallel query parameters with the descriptions of fields and comparators) the
+ * conditions are stored as binary with the short ids of fields and comparators. Input values which are numbers,
+ * dates, date ranges or booleans are packed typed. The result is base64url encoded and starts with a version byte,
+ * so that the format can be changed later without breaking existing urls.
+ * </p>
+ */
+public final class FilterStateCodec
+{
+	static final byte VERSION_1 = 1;
+	
+	private static final int FLAG_DELETABLE = 1;
+	private static final int FLAG_EDITABLE = 1 << 1;
+	private static final int FLAG_BADGE_ID = 1 << 2;
+	private static final int OPERAND_SHIFT = 3;
+	
+	private static final int OPERAND_STRING = 0;
+	private static final int OPERAND_LONG = 1;
+	private static final int OPERAND_DATE = 2;
+	private static final int OPERAND_DATE_RANGE = 3;
+	private static final int OPERAND_TRUE = 4;
+	private static final int OPERAND_FALSE = 5;
+	
+	private FilterStateCodec()
+	{
+	}
+	
+	/**
+	 * @param conditions The conditions which should be encoded.
+	 * @return The url-safe encoded conditions.
+	 */
+	public static String encode(final Collection<QueryCondition> conditions)
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(VERSION_1);
+		writeVarInt(out, conditions.size());
+		
+		for(final QueryCondition condition : conditions)
+		{
+			final String input = condition.inputValue();
+			final int operandType = operandType(input);
+			
+			int flags = operandType << OPERAND_SHIFT;
+			if(condition.deletable())
+			{
+				flags |= FLAG_DELETABLE;
+			}
+			if(condition.editable())
+			{
+				flags |= FLAG_EDITABLE;
+			}
+			if(condition.hasBadgeId())
+			{
+				flags |= FLAG_BADGE_ID;
+			}
+			out.write(flags);
+			
+			writeString(out, condition.fieldId());
+			writeString(out, condition.comparatorId());
+			if(condition.hasBadgeId())
+			{
+				writeString(out, condition.badgeId());
+			}
+			
+			switch(operandType)
+			{
+				case OPERAND_LONG -> writeVarLong(out, zigZag(Long.parseLong(input)));
+				case OPERAND_DATE -> writeVarLong(out, zigZag(LocalDate.parse(input).toEpochDay()));
+				case OPERAND_DATE_RANGE ->
+				{
+					final String[] dates = input.split(IsBetweenComparator.IS_BETWEEN_COMPARATOR_SEPARATOR);
+					writeVarLong(out, zigZag(LocalDate.parse(dates[0]).toEpochDay()));
+					writeVarLong(out, zigZag(LocalDate.parse(dates[1]).toEpochDay()));
+				}
+				case OPERAND_STRING -> writeString(out, input);
+				default ->
+				{
+					// Booleans are completely stored in the flags
+				}
+			}
+		}
+		
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+	}
+	
+	/**
+	 * Decodes the conditions in a single pass.
+	 *
+	 * @param encoded The encoded conditions.
+	 * @return The decoded conditions.
+	 * @throws IllegalArgumentException If the value is malformed or was encoded with an unknown version.
+	 */
+	public static List<QueryCondition> decode(final String encoded)
+	{
+		final ByteBuffer in;
+		try
+		{
+			in = ByteBuffer.wrap(Base64.getUrlDecoder().decode(encoded));
+		}
+		catch(final IllegalArgumentException e)
+		{
+			throw new IllegalArgumentException("Encoded filter state is not valid base64url", e);
+		}
+		
+		try
+		{
+			final byte version = in.get();
+			if(version != VERSION_1)
+			{
+				throw new IllegalArgumentException("Unsupported version of the encoded filter state: " + version);
+			}
+			
+			final int count = readVarInt(in);
+			// Every condition requires at least 3 bytes - protects against huge allocations
+			if(count < 0 || count > in.remaining() / 3)
+			{
+				throw new IllegalArgumentException("Invalid number of conditions: " + count);
+			}
+			
+			final List<QueryCondition> conditions = new ArrayList<>(count);
+			for(int i = 0; i < count; i++)
+			{
+				final int flags = in.get() & 0xFF;
+				final String fieldId = readString(in);
+				final String comparatorId = readString(in);
+				final String badgeId = (flags & FLAG_BADGE_ID) != 0 ? readString(in) : null;
+				
+				final String input = switch(flags >>> OPERAND_SHIFT)
+				{
+					case OPERAND_STRING -> readString(in);
+					case OPERAND_LONG -> Long.toString(unZigZag(readVarLong(in)));
+					case OPERAND_DATE -> LocalDate.ofEpochDay(unZigZag(readVarLong(in))).toString();
+					case OPERAND_DATE_RANGE -> LocalDate.ofEpochDay(unZigZag(readVarLong(in)))
+						+ IsBetweenComparator.IS_BETWEEN_COMPARATOR_SEPARATOR
+						+ LocalDate.ofEpochDay(unZigZag(readVarLong(in)));
+					case OPERAND_TRUE -> Boolean.TRUE.toString();
+					case OPERAND_FALSE -> Boolean.FALSE.toString();
+					default -> throw new IllegalArgumentException("Unknown operand type: " + (flags >>> OPERAND_SHIFT));
+				};
+				
+				conditions.add(new QueryCondition(
+					fieldId,
+					comparatorId,
+					input,
+					badgeId,
+					(flags & FLAG_DELETABLE) != 0,
+					(flags & FLAG_EDITABLE) != 0));
+			}
+			
+			if(in.hasRemaining())
+			{
+				throw new IllegalArgumentException("Unexpected data after the conditions");
+			}
+			return conditions;
+		}
+		catch(final BufferUnderflowException | DateTimeException e)
+		{
+			throw new IllegalArgumentException("Encoded filter state is malformed", e);
+		}
+	}
+	
+	/**
+	 * Determines how the input is stored. Typed operands are only used if decoding returns exactly the same string.
+	 */
+	private static int operandType(final String input)
+	{
+		if(Boolean.TRUE.toString().equals(input))
+		{
+			return OPERAND_TRUE;
+		}
+		if(Boolean.FALSE.toString().equals(input))
+		{
+			return OPERAND_FALSE;
+		}
+		if(isCanonicalLong(input))
+		{
+			return OPERAND_LONG;
+		}
+		if(isCanonicalDate(input))
+		{
+			return OPERAND_DATE;
+		}
+		
+		final String[] dates = input.split(IsBetweenComparator.IS_BETWEEN_COMPARATOR_SEPARATOR, -1);
+		if(dates.length == 2 && isCanonicalDate(dates[0]) && isCanonicalDate(dates[1]))
+		{
+			return OPERAND_DATE_RANGE;
+		}
+		return OPERAND_STRING;
+	}
+	
+	private static boolean isCanonicalLong(final String input)
+	{
+		if(input.isEmpty() || input.length() > 20)
+		{
+			return false;
+		}
+		try
+		{
+			return Long.toString(Long.parseLong(input)).equals(input);
+		}
+		catch(final NumberFormatException e)
+		{
+			return false;
+		}
+	}
+	
+	private static boolean isCanonicalDate(final String input)
+	{
+		if(input.length() != 10)
+		{
+			return false;
+		}
+		try
+		{
+			return LocalDate.parse(input).toString().equals(input);
+		}
+		catch(final DateTimeParseException e)
+		{
+			return false;
+		}
+	}
+	
+	private static void writeString(final ByteArrayOutputStream out, final String value)
+	{
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length);
+		out.writeBytes(bytes);
+	}
+	
+	private static String readString(final ByteBuffer in)
+	{
+		final int length = readVarInt(in);
+		if(length < 0 || length > in.remaining())
+		{
+			throw new IllegalArgumentException("Invalid string length: " + length);
+		}
+		
+		final byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static void writeVarInt(final ByteArrayOutputStream out, final int value)
+	{
+		writeVarLong(out, value & 0xFFFFFFFFL);
+	}
+	
+	private static int readVarInt(final ByteBuffer in)
+	{
+		final long value = readVarLong(in);
+		if(value > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Value too large: " + value);
+		}
+		return (int)value;
+	}
+	
+	private static void writeVarLong(final ByteArrayOutputStream out, final long value)
+	{
+		long v = value;
+		while((v & ~0x7FL) != 0)
+		{
+			out.write((int)(v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.write((int)v);
+	}
+	
+	private static long readVarLong(final ByteBuffer in)
+	{
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7)
+		{
+			final byte b = in.get();
+			value |= (long)(b & 0x7F) << shift;
+			if((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed variable length number");
+	}
+	
+	private static long zigZag(final long value)
+	{
+		return value << 1 ^ value >> 63;
+	}
+	
+	private static long unZigZag(final long value)
+	{
+		return value >>> 1 ^ -(value & 1);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.qp;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+
+/**
+ * A single condition of a filter-component as it's stored in the url.
+ *
+ * @param fieldId      The id of the field (or its description in the old format).
+ * @param comparatorId The id of the comparator (or its description in the old format).
+ * @param inputValue   The input value of the condition.
+ * @param badgeId      The id of the initial badge or {@link QueryParameterManager#NO_BADGE_ID_STRING}.
+ * @param deletable    If the badge can be deleted.
+ * @param editable     If the badge can be edited.
+ */
+public record QueryCondition(
+	String fieldId,
+	String comparatorId,
+	String inputValue,
+	String badgeId,
+	boolean deletable,
+	boolean editable) implements Serializable
+{
+	public QueryCondition
+	{
+		Objects.requireNonNull(fieldId);
+		Objects.requireNonNull(comparatorId);
+		Objects.requireNonNull(inputValue);
+		if(badgeId == null || badgeId.isBlank())
+		{
+			badgeId = QueryParameterManager.NO_BADGE_ID_STRING;
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the condition belongs to an initial filter.
+	 */
+	public boolean hasBadgeId()
+	{
+		return !QueryParameterManager.NO_BADGE_ID_STRING.equals(this.badgeId);
+	}
+}
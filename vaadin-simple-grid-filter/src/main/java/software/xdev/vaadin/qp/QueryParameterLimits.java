@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.qp;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Limits for the filter state supplied through the url. Protects the server against crafted links with a huge
+ * number of conditions, very long input values or conditions which are expensive to evaluate.
+ * <p>
+ * Instances are immutable, the <code>with</code> methods return a modified copy.
+ * </p>
+ */
+public final class QueryParameterLimits implements Serializable
+{
+	public static final int DEFAULT_MAX_CONDITIONS = 100;
+	public static final int DEFAULT_MAX_INPUT_LENGTH = 1_000;
+	public static final int DEFAULT_MAX_PARAMETER_LENGTH = 16_384;
+	public static final Duration DEFAULT_EVALUATION_TIME_BUDGET = Duration.ofSeconds(2);
+	
+	private static final QueryParameterLimits DEFAULTS = new QueryParameterLimits(
+		DEFAULT_MAX_CONDITIONS,
+		DEFAULT_MAX_INPUT_LENGTH,
+		DEFAULT_MAX_PARAMETER_LENGTH,
+		DEFAULT_EVALUATION_TIME_BUDGET);
+	
+	private final int maxConditions;
+	private final int maxInputLength;
+	private final int maxParameterLength;
+	private final Duration evaluationTimeBudget;
+	
+	private QueryParameterLimits(
+		final int maxConditions,
+		final int maxInputLength,
+		final int maxParameterLength,
+		final Duration evaluationTimeBudget)
+	{
+		if(maxConditions < 0 || maxInputLength < 0 || maxParameterLength < 0)
+		{
+			throw new IllegalArgumentException("Limits must not be negative");
+		}
+		this.maxConditions = maxConditions;
+		this.maxInputLength = maxInputLength;
+		this.maxParameterLength = maxParameterLength;
+		this.evaluationTimeBudget = Objects.requireNonNull(evaluationTimeBudget);
+	}
+	
+	public static QueryParameterLimits defaults()
+	{
+		return DEFAULTS;
+	}
+	
+	/**
+	 * @return The maximum number of conditions of a filter-component.
+	 */
+	public int getMaxConditions()
+	{
+		return this.maxConditions;
+	}
+	
+	public QueryParameterLimits withMaxConditions(final int maxConditions)
+	{
+		return new QueryParameterLimits(
+			maxConditions,
+			this.maxInputLength,
+			this.maxParameterLength,
+			this.evaluationTimeBudget);
+	}
+	
+	/**
+	 * @return The maximum length of the input value of a condition.
+	 */
+	public int getMaxInputLength()
+	{
+		return this.maxInputLength;
+	}
+	
+	public QueryParameterLimits withMaxInputLength(final int maxInputLength)
+	{
+		return new QueryParameterLimits(
+			this.maxConditions,
+			maxInputLength,
+			this.maxParameterLength,
+			this.evaluationTimeBudget);
+	}
+	
+	/**
+	 * @return The maximum total length of the parameter values which contain the conditions of a filter-component.
+	 */
+	public int getMaxParameterLength()
+	{
+		return this.maxParameterLength;
+	}
+	
+	public QueryParameterLimits withMaxParameterLength(final int maxParameterLength)
+	{
+		return new QueryParameterLimits(
+			this.maxConditions,
+			this.maxInputLength,
+			maxParameterLength,
+			this.evaluationTimeBudget);
+	}
+	
+	/**
+	 * @return The maximum time the evaluation of the conditions from the url may take.
+	 */
+	public Duration getEvaluationTimeBudget()
+	{
+		return this.evaluationTimeBudget;
+	}
+	
+	public QueryParameterLimits withEvaluationTimeBudget(final Duration evaluationTimeBudget)
+	{
+		return new QueryParameterLimits(
+			this.maxConditions,
+			this.maxInputLength,
+			this.maxParameterLength,
+			evaluationTimeBudget);
+	}
+	
+	/**
+	 * Checks the decoded conditions.
+	 *
+	 * @throws IllegalArgumentException If a limit is exceeded.
+	 */
+	void checkConditions(final List<QueryCondition> conditions)
+	{
+		if(conditions.size() > this.maxConditions)
+		{
+			throw new IllegalArgumentException(
+				"Too many conditions: " + conditions.size() + " > " + this.maxConditions);
+		}
+		for(final QueryCondition condition : conditions)
+		{
+			if(condition.inputValue().length() > this.maxInputLength)
+			{
+				throw new IllegalArgumentException(
+					"Input value too long: " + condition.inputValue().length() + " > " + this.maxInputLength);
+			}
+		}
+	}
+	
+	/**
+	 * @throws IllegalArgumentException If the length of the parameters exceeds the limit.
+	 */
+	void checkParameterLength(final long length)
+	{
+		if(length > this.maxParameterLength)
+		{
+			throw new IllegalArgumentException(
+				"Parameters too long: " + length + " > " + this.maxParameterLength);
+		}
+	}
+}
@@ -15,12 +15,17 @@
  */
 package software.xdev.vaadin.qp;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import com.vaadin.flow.router.QueryParameters;
 
@@ -39,6 +44,21 @@ public final class QueryParameterManager
 	public static final String QUERY_BADGE_EDITABLE_STRING = "editable";
 	public static final String QUERY_BADGE_DELETABLE_STRING = "deletable";
 	public static final String NO_BADGE_ID_STRING = "noBadgeId";
+	/**
+	 * Prefix of the parameter which contains the compact encoded conditions of a filter-component.
+	 *
+	 * @see FilterStateCodec
+	 */
+	public static final String QUERY_COMPACT_STATE_PREFIX = "f.";
+	
+	private static final List<String> LEGACY_PARAMETERS = List.of(
+		QUERY_COMPONENT_ID_STRING,
+		QUERY_FIELD_STRING,
+		QUERY_CONDITION_STRING,
+		QUERY_INPUT_STRING,
+		QUERY_BADGE_ID_STRING,
+		QUERY_BADGE_EDITABLE_STRING,
+		QUERY_BADGE_DELETABLE_STRING);
 	
 	private QueryParameterManager()
 	{
@@ -134,6 +154,208 @@ public final class QueryParameterManager
 		return new QueryParameters(query).getQueryString();
 	}
 	
+	/**
+	 * @param componentIdentifier The identifier of the filter component.
+	 * @return The name of the parameter which contains the compact encoded conditions of the component.
+	 */
+	public static String getCompactParameterName(final String componentIdentifier)
+	{
+		return QUERY_COMPACT_STATE_PREFIX + componentIdentifier;
+	}
+	
+	/**
+	 * Reads the conditions of a filter component from the parameters with the {@link QueryParameterLimits#defaults()
+	 * default limits}.
+	 *
+	 * @see #readConditions(Map, String, QueryParameterLimits)
+	 */
+	public static List<QueryCondition> readConditions(
+		final Map<String, List<String>> parameterValues,
+		final String componentIdentifier)
+	{
+		return readConditions(parameterValues, componentIdentifier, QueryParameterLimits.defaults());
+	}
+	
+	/**
+	 * Reads the conditions of a filter component from the parameters. The compact format is preferred, the old format
+	 * (seven parallel parameters) is still supported.
+	 *
+	 * @param parameterValues     All query parameters.
+	 * @param componentIdentifier The identifier of the filter component.
+	 * @param limits              The limits which must not be exceeded.
+	 * @return The conditions of the filter component in the order of the url.
+	 * @throws IllegalArgumentException If the compact encoded conditions are malformed or a limit is exceeded.
+	 */
+	public static List<QueryCondition> readConditions(
+		final Map<String, List<String>> parameterValues,
+		final String componentIdentifier,
+		final QueryParameterLimits limits)
+	{
+		return readConditions(parameterValues, componentIdentifier, limits, UnaryOperator.identity());
+	}
+	
+	/**
+	 * Reads the conditions of a filter component from the parameters like
+	 * {@link #readConditions(Map, String, QueryParameterLimits)}. Each condition is resolved first, conditions which
+	 * are identical afterward (e.g. the same condition with the id and the description of the field) are only
+	 * returned and counted against the limits once.
+	 *
+	 * @param resolver Replaces the ids of the field and comparator of a condition with the current ones. Returns
+	 *                 <code>null</code> for conditions which can't be resolved, these are dropped.
+	 * @return The distinct resolved conditions of the filter component in the order of the url.
+	 */
+	public static List<QueryCondition> readConditions(
+		final Map<String, List<String>> parameterValues,
+		final String componentIdentifier,
+		final QueryParameterLimits limits,
+		final UnaryOperator<QueryCondition> resolver)
+	{
+		final List<QueryCondition> conditions = distinct(
+			readRawConditions(parameterValues, componentIdentifier, limits),
+			resolver);
+		limits.checkConditions(conditions);
+		return conditions;
+	}
+	
+	private static List<QueryCondition> distinct(
+		final List<QueryCondition> conditions,
+		final UnaryOperator<QueryCondition> resolver)
+	{
+		final Set<List<String>> keys = new HashSet<>();
+		final List<QueryCondition> result = new ArrayList<>();
+		for(final QueryCondition condition : conditions)
+		{
+			final QueryCondition resolved = resolver.apply(condition);
+			if(resolved != null
+				&& keys.add(List.of(resolved.fieldId(), resolved.comparatorId(), resolved.inputValue())))
+			{
+				result.add(resolved);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @return The conditions as they are stored in the url. Only the length of the parameters is checked, the number
+	 * of the (distinct) conditions is checked afterward.
+	 */
+	private static List<QueryCondition> readRawConditions(
+		final Map<String, List<String>> parameterValues,
+		final String componentIdentifier,
+		final QueryParameterLimits limits)
+	{
+		final List<String> compact = parameterValues.get(getCompactParameterName(componentIdentifier));
+		if(isNotNullOrEmpty(compact))
+		{
+			// Checked before decoding so that huge values are not even decoded
+			limits.checkParameterLength(compact.get(0).length());
+			
+			return FilterStateCodec.decode(compact.get(0));
+		}
+		
+		if(!parametersAreValid(parameterValues))
+		{
+			return List.of();
+		}
+		
+		limits.checkParameterLength(LEGACY_PARAMETERS.stream()
+			.map(parameterValues::get)
+			.filter(Objects::nonNull)
+			.flatMap(List::stream)
+			.mapToLong(String::length)
+			.sum());
+		
+		return readLegacyConditions(parameterValues, componentIdentifier);
+	}
+	
+	private static List<QueryCondition> readLegacyConditions(
+		final Map<String, List<String>> parameterValues,
+		final String componentIdentifier)
+	{
+		final List<String> ids = parameterValues.get(QUERY_COMPONENT_ID_STRING);
+		final List<String> fields = parameterValues.get(QUERY_FIELD_STRING);
+		final List<String> conditions = parameterValues.get(QUERY_CONDITION_STRING);
+		final List<String> inputs = parameterValues.get(QUERY_INPUT_STRING);
+		final List<String> badgeIds = parameterValues.getOrDefault(QUERY_BADGE_ID_STRING, List.of());
+		final List<String> deletables = parameterValues.getOrDefault(QUERY_BADGE_DELETABLE_STRING, List.of());
+		final List<String> editables = parameterValues.getOrDefault(QUERY_BADGE_EDITABLE_STRING, List.of());
+		
+		final List<QueryCondition> result = new ArrayList<>();
+		for(int i = 0; i < ids.size(); i++)
+		{
+			if(componentIdentifier.equals(ids.get(i)))
+			{
+				result.add(new QueryCondition(
+					fields.get(i),
+					conditions.get(i),
+					inputs.get(i),
+					i < badgeIds.size() ? badgeIds.get(i) : null,
+					i >= deletables.size() || Boolean.parseBoolean(deletables.get(i)),
+					i < editables.size() && Boolean.parseBoolean(editables.get(i))));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Replaces the conditions of a filter component within the query parameters. The conditions are written in the
+	 * compact format, conditions of the component in the old format are removed.
+	 *
+	 * @param parameterValues     All query parameters.
+	 * @param componentIdentifier The identifier of the filter component.
+	 * @param conditions          The conditions of the filter component.
+	 * @return The new query parameters.
+	 */
+	public static Map<String, List<String>> writeConditions(
+		final Map<String, List<String>> parameterValues,
+		final String componentIdentifier,
+		final Collection<QueryCondition> conditions)
+	{
+		final Map<String, List<String>> result = new LinkedHashMap<>(parameterValues);
+		
+		final List<String> ids = parameterValues.get(QUERY_COMPONENT_ID_STRING);
+		if(ids != null && ids.contains(componentIdentifier))
+		{
+			// Remove the legacy entries of the component, but keep the ones of other components
+			for(final String parameter : LEGACY_PARAMETERS)
+			{
+				final List<String> values = parameterValues.get(parameter);
+				if(values == null)
+				{
+					continue;
+				}
+				
+				final List<String> remaining = new ArrayList<>();
+				for(int i = 0; i < values.size(); i++)
+				{
+					if(i >= ids.size() || !componentIdentifier.equals(ids.get(i)))
+					{
+						remaining.add(values.get(i));
+					}
+				}
+				if(remaining.isEmpty())
+				{
+					result.remove(parameter);
+				}
+				else
+				{
+					result.put(parameter, remaining);
+				}
+			}
+		}
+		
+		final String compactParameterName = getCompactParameterName(componentIdentifier);
+		if(conditions.isEmpty())
+		{
+			result.remove(compactParameterName);
+		}
+		else
+		{
+			result.put(compactParameterName, List.of(FilterStateCodec.encode(conditions)));
+		}
+		return result;
+	}
+	
 	public static boolean isNotNullOrEmpty(final Collection<?> c)
 	{
 		return c != null && !c.isEmpty();
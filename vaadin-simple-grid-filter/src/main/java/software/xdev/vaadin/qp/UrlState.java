@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.qp;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.router.Location;
+import com.vaadin.flow.router.QueryParameters;
+
+
+/**
+ * Server-side authoritative state of the url of a {@link UI}, shared by all filter-components of the UI.
+ * <p>
+ * Changes of the conditions only update this state. The url of the browser is updated with at most one
+ * <code>history.replaceState</code> per server response, no matter how many conditions (of how many components)
+ * changed. Reading the current url from the browser (which requires a round trip) is not necessary.
+ * </p>
+ */
+public final class UrlState implements Serializable
+{
+	private final UI ui;
+	private Location navigatedLocation;
+	private String path;
+	private Map<String, List<String>> parameters;
+	
+	private boolean dirty;
+	private boolean flushScheduled;
+	
+	private UrlState(final UI ui, final Location location)
+	{
+		this.ui = ui;
+		this.setLocation(location);
+	}
+	
+	/**
+	 * @param ui The UI.
+	 * @return The url state of the UI. Created from the location of the active view on the first call.
+	 */
+	public static UrlState get(final UI ui)
+	{
+		Objects.requireNonNull(ui);
+		
+		UrlState urlState = ComponentUtil.getData(ui, UrlState.class);
+		if(urlState == null)
+		{
+			urlState = new UrlState(ui, ui.getInternals().getActiveViewLocation());
+			ComponentUtil.setData(ui, UrlState.class, urlState);
+		}
+		return urlState;
+	}
+	
+	/**
+	 * Sets the current location after a navigation. Pending changes are discarded if the location differs from the
+	 * one of the previous navigation. As every filter-component calls this, calls for the same navigation are
+	 * ignored.
+	 */
+	public void setLocation(final Location location)
+	{
+		if(this.navigatedLocation != null
+			&& this.navigatedLocation.getPath().equals(location.getPath())
+			&& this.navigatedLocation.getQueryParameters().getParameters()
+			.equals(location.getQueryParameters().getParameters()))
+		{
+			return;
+		}
+		
+		this.navigatedLocation = location;
+		this.path = location.getPath();
+		this.parameters = location.getQueryParameters().getParameters();
+		this.dirty = false;
+	}
+	
+	/**
+	 * Replaces the conditions of a filter-component. The url is updated before the next response is sent.
+	 *
+	 * @param componentIdentifier The identifier of the filter-component.
+	 * @param conditions          The conditions of the filter-component.
+	 */
+	public void setConditions(final String componentIdentifier, final Collection<QueryCondition> conditions)
+	{
+		final Map<String, List<String>> newParameters =
+			QueryParameterManager.writeConditions(this.parameters, componentIdentifier, conditions);
+		if(newParameters.equals(this.parameters))
+		{
+			return;
+		}
+		
+		this.parameters = newParameters;
+		this.dirty = true;
+		
+		if(!this.flushScheduled)
+		{
+			this.flushScheduled = true;
+			this.ui.beforeClientResponse(this.ui, context -> this.flush());
+		}
+	}
+	
+	private void flush()
+	{
+		this.flushScheduled = false;
+		if(!this.dirty)
+		{
+			return;
+		}
+		
+		this.dirty = false;
+		this.ui.getPage()
+			.getHistory()
+			.replaceState(null, new Location(this.path, new QueryParameters(this.parameters)));
+	}
+	
+	public Map<String, List<String>> getParameters()
+	{
+		return this.parameters;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.component.grid.Grid;
+
+import software.xdev.vaadin.data.SharedMatchSetCache;
+import software.xdev.vaadin.model.SimpleFilterField;
+
+
+class FilterComponentSerializationTest
+{
+	@Test
+	void defaultSharedResultCacheIsReattached() throws IOException, ClassNotFoundException
+	{
+		final FilterComponent<Person> component = createComponent()
+			.withSharedResultCache(SharedMatchSetCache.getDefault(), "persons", 1);
+		
+		final FilterComponent<Person> copy = copy(component);
+		
+		assertNotSame(component, copy);
+		assertSame(
+			SharedMatchSetCache.getDefault(),
+			copy.getFilterDataProvider().getEngine().getSharedCache());
+	}
+	
+	@Test
+	void otherSharedResultCacheIsNotSerialized() throws IOException, ClassNotFoundException
+	{
+		final FilterComponent<Person> component = createComponent()
+			.withSharedResultCache(new SharedMatchSetCache(), "persons", 1);
+		
+		final FilterComponent<Person> copy = copy(component);
+		
+		assertNull(copy.getFilterDataProvider().getEngine().getSharedCache());
+	}
+	
+	private static FilterComponent<Person> createComponent()
+	{
+		final Grid<Person> grid = new Grid<>();
+		grid.setItems(new ArrayList<>(List.of(new Person("Alice", 30), new Person("Bob", 40))));
+		
+		return new FilterComponent<>(grid)
+			.withFilter(new SimpleFilterField<>(Person::name, "Name"))
+			.withFilter(new SimpleFilterField<>(Person::age, "Age"));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <C> C copy(final C object) throws IOException, ClassNotFoundException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(final ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(object);
+		}
+		try(final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			return (C)in.readObject();
+		}
+	}
+	
+	
+	record Person(String name, Integer age) implements Serializable
+	{
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.comparators;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.function.ValueProvider;
+
+
+class ContainsComparatorTest
+{
+	private static final ContainsComparator CONTAINS = ContainsComparator.getInstance();
+	
+	@Test
+	void extendedSearchQueryImpliesThePreviousOne()
+	{
+		assertTrue(CONTAINS.implies("Smith", "Smi"));
+		assertTrue(CONTAINS.implies("Smith", "mit"));
+		assertTrue(CONTAINS.implies("Smith", "Smith"));
+		assertTrue(CONTAINS.implies("Smith", ""));
+	}
+	
+	@Test
+	void shortenedOrChangedSearchQueryDoesNotImplyThePreviousOne()
+	{
+		assertFalse(CONTAINS.implies("Smi", "Smith"));
+		assertFalse(CONTAINS.implies("Smyth", "Smith"));
+		assertFalse(CONTAINS.implies("smith", "Smith"));
+	}
+	
+	@Test
+	void numericSearchQueryDoesNotImplyNonNumericOne()
+	{
+		// Numbers only match numeric search queries
+		assertTrue(CONTAINS.implies("123", "12"));
+		assertFalse(CONTAINS.implies("12", "12."));
+		assertFalse(CONTAINS.implies("12", ""));
+		assertTrue(CONTAINS.implies("12a", "12"));
+	}
+	
+	@Test
+	void impliedSearchQueryMatchesAllMatchingValues()
+	{
+		final List<Object> values = List.of("Smith", "Smyth", "", "12", 12, 123, 1.5, Thread.State.NEW);
+		final List<String> searchQueries = List.of("", "1", "12", "123", "12.", ".", "S", "Sm", "Smith", "NEW", "E");
+		for(final String searchQuery : searchQueries)
+		{
+			for(final String otherSearchQuery : searchQueries)
+			{
+				if(CONTAINS.implies(searchQuery, otherSearchQuery))
+				{
+					final Predicate<Object> matches = CONTAINS.compare(ValueProvider.identity(), searchQuery);
+					final Predicate<Object> otherMatches =
+						CONTAINS.compare(ValueProvider.identity(), otherSearchQuery);
+					values.stream()
+						.filter(matches)
+						.forEach(value -> assertTrue(
+							otherMatches.test(value),
+							searchQuery + " / " + otherSearchQuery + " / " + value));
+				}
+			}
+		}
+	}
+	
+	@Test
+	void defaultImpliesOnlyTheSameSearchQuery()
+	{
+		final EqualComparator equal = EqualComparator.getInstance();
+		
+		assertTrue(equal.implies("Smith", "Smith"));
+		assertFalse(equal.implies("Smith", "Smi"));
+		assertFalse(equal.implies("Smi", "Smith"));
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.comparators;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.function.ValueProvider;
+
+
+class FilterComparatorImpliesTest
+{
+	private static final List<Object> NUMBERS = List.of(-10, -0.5, 0, 5, 7.5, 10, 11, 100L);
+	private static final List<String> NUMBER_QUERIES =
+		List.of("-10", "-0.5", "0", "5", "5.0", "10", "1e1", "99.9", "NaN", "Infinity", "abc", "");
+	
+	private static final List<Object> DATES = List.of(
+		LocalDate.of(2023, 12, 31),
+		LocalDate.of(2024, 1, 1),
+		LocalDate.of(2024, 1, 15),
+		LocalDate.of(2024, 2, 29),
+		LocalDate.of(2025, 1, 1));
+	private static final List<Object> DATE_TIMES = List.of(
+		LocalDateTime.of(2024, 1, 1, 0, 0),
+		LocalDateTime.of(2024, 1, 1, 12, 0),
+		LocalDateTime.of(2024, 1, 2, 0, 0, 1));
+	private static final List<String> DATE_QUERIES = List.of(
+		"2023-12-31",
+		"2024-01-01",
+		"2024-01-15",
+		"2024-02-29",
+		"2024-01-01T00:00",
+		"2024-01-01T12:00",
+		"2024-01-02T00:00:01",
+		"2024",
+		"");
+	
+	@Test
+	void greaterThan()
+	{
+		final GreaterThanComparator comparator = GreaterThanComparator.getInstance();
+		
+		assertTrue(comparator.implies("10", "5"));
+		assertTrue(comparator.implies("5", "5.0"));
+		assertFalse(comparator.implies("5", "10"));
+		assertFalse(comparator.implies("abc", "abc"));
+		assertImpliedMatchesAreMatched(comparator, NUMBERS, NUMBER_QUERIES);
+		assertImpliedMatchesAreMatched(GreaterThanOrEqualsComparator.getInstance(), NUMBERS, NUMBER_QUERIES);
+	}
+	
+	@Test
+	void lessThan()
+	{
+		final LessThanComparator comparator = LessThanComparator.getInstance();
+		
+		assertTrue(comparator.implies("5", "10"));
+		assertFalse(comparator.implies("10", "5"));
+		assertFalse(comparator.implies("5", "NaN"));
+		assertImpliedMatchesAreMatched(comparator, NUMBERS, NUMBER_QUERIES);
+		assertImpliedMatchesAreMatched(LessThanOrEqualsComparator.getInstance(), NUMBERS, NUMBER_QUERIES);
+	}
+	
+	@Test
+	void isAfter()
+	{
+		final IsAfterComparator comparator = IsAfterComparator.getInstance();
+		
+		assertTrue(comparator.implies("2024-02-29", "2024-01-01"));
+		assertFalse(comparator.implies("2024-01-01", "2024-02-29"));
+		assertFalse(comparator.implies("2024-02-29", "2024-01-01T00:00"));
+		assertImpliedMatchesAreMatched(comparator, DATES, DATE_QUERIES);
+		assertImpliedMatchesAreMatched(comparator, DATE_TIMES, DATE_QUERIES);
+		assertImpliedMatchesAreMatched(IsAfterOrEqualsComparator.getInstance(), DATES, DATE_QUERIES);
+		assertImpliedMatchesAreMatched(IsAfterOrEqualsComparator.getInstance(), DATE_TIMES, DATE_QUERIES);
+	}
+	
+	@Test
+	void isBefore()
+	{
+		final IsBeforeComparator comparator = IsBeforeComparator.getInstance();
+		
+		assertTrue(comparator.implies("2024-01-01", "2024-02-29"));
+		assertFalse(comparator.implies("2024-02-29", "2024-01-01"));
+		assertImpliedMatchesAreMatched(comparator, DATES, DATE_QUERIES);
+		assertImpliedMatchesAreMatched(comparator, DATE_TIMES, DATE_QUERIES);
+		assertImpliedMatchesAreMatched(IsBeforeOrEqualsComparator.getInstance(), DATES, DATE_QUERIES);
+		assertImpliedMatchesAreMatched(IsBeforeOrEqualsComparator.getInstance(), DATE_TIMES, DATE_QUERIES);
+	}
+	
+	@Test
+	void isBetween()
+	{
+		final IsBetweenComparator comparator = IsBetweenComparator.getInstance();
+		
+		assertTrue(comparator.implies("2024-01-10#2024-01-20", "2024-01-01#2024-01-31"));
+		assertTrue(comparator.implies("2024-01-01#2024-01-31", "2024-01-01#2024-01-31"));
+		assertTrue(comparator.implies("2024-01-10#2024-01-20", ""));
+		assertFalse(comparator.implies("2024-01-01#2024-02-01", "2024-01-01#2024-01-31"));
+		assertFalse(comparator.implies("", "2024-01-01#2024-01-31"));
+		assertFalse(comparator.implies("2024-01-10#x", "2024-01-01#2024-01-31"));
+		assertImpliedMatchesAreMatched(comparator, DATES, List.of(
+			"2023-12-31#2025-01-01",
+			"2024-01-01#2024-01-15",
+			"2024-01-01#2024-12-31",
+			"2024-01-02#2024-01-14",
+			"2024-01-15#2024-01-01",
+			"2024#2025",
+			""));
+	}
+	
+	@Test
+	void notContains()
+	{
+		final NotContainsComparator comparator = NotContainsComparator.getInstance();
+		
+		assertTrue(comparator.implies("Smi", "Smith"));
+		assertFalse(comparator.implies("Smith", "Smi"));
+		assertFalse(comparator.implies("1", "a1"));
+		assertImpliedMatchesAreMatched(
+			comparator,
+			List.of("Smith", "Smyth", "", "12", 12, 123, 1.5, Thread.State.NEW),
+			List.of("", "1", "12", "123", "12.", ".", "S", "Sm", "Smith", "NEW", "E"));
+	}
+	
+	/**
+	 * Checks that every value matching a search query also matches all search queries which are implied by it.
+	 */
+	private static void assertImpliedMatchesAreMatched(
+		final FilterComparator comparator,
+		final List<Object> values,
+		final List<String> searchQueries)
+	{
+		for(final String searchQuery : searchQueries)
+		{
+			final Predicate<Object> matches = comparator.compare(ValueProvider.identity(), searchQuery);
+			for(final String otherSearchQuery : searchQueries)
+			{
+				if(!comparator.implies(searchQuery, otherSearchQuery))
+				{
+					continue;
+				}
+				
+				final Predicate<Object> otherMatches = comparator.compare(ValueProvider.identity(), otherSearchQuery);
+				values.stream()
+					.filter(matches)
+					.forEach(value -> assertTrue(
+						otherMatches.test(value),
+						searchQuery + " / " + otherSearchQuery + " / " + value));
+			}
+		}
+	}
+}
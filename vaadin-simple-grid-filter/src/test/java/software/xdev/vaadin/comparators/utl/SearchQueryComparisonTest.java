@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.comparators.utl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.OptionalInt;
+
+import org.junit.jupiter.api.Test;
+
+
+class SearchQueryComparisonTest
+{
+	@Test
+	void numbers()
+	{
+		assertTrue(SearchQueryComparison.isAtLeast("10", "5"));
+		assertTrue(SearchQueryComparison.isAtLeast("5", "5.0"));
+		assertFalse(SearchQueryComparison.isAtLeast("-10", "5"));
+		assertTrue(SearchQueryComparison.isAtMost("1e2", "101"));
+		// Not compared as strings
+		assertTrue(SearchQueryComparison.isAtLeast("10", "9"));
+	}
+	
+	@Test
+	void notANumberIsNotComparable()
+	{
+		assertEquals(OptionalInt.empty(), SearchQueryComparison.compare("NaN", "5"));
+		assertFalse(SearchQueryComparison.isAtMost("5", "NaN"));
+		assertFalse(SearchQueryComparison.isAtLeast("NaN", "NaN"));
+	}
+	
+	@Test
+	void dates()
+	{
+		assertTrue(SearchQueryComparison.isAtLeast("2024-03-01", "2024-02-29"));
+		assertFalse(SearchQueryComparison.isAtLeast("2024-02-28", "2024-02-29"));
+		assertTrue(SearchQueryComparison.isAtMost("2024-02-29", "2024-02-29"));
+	}
+	
+	@Test
+	void dateTimes()
+	{
+		assertTrue(SearchQueryComparison.isAtLeast("2024-02-29T12:00:01", "2024-02-29T12:00"));
+		assertTrue(SearchQueryComparison.isAtMost("2024-02-29T11:59", "2024-02-29T12:00"));
+	}
+	
+	@Test
+	void differentTypesAreNotComparable()
+	{
+		assertEquals(OptionalInt.empty(), SearchQueryComparison.compare("2024-02-29", "2024-02-29T00:00"));
+		assertEquals(OptionalInt.empty(), SearchQueryComparison.compare("2024", "2024-02-29"));
+		assertEquals(OptionalInt.empty(), SearchQueryComparison.compare("abc", "abc"));
+		assertEquals(OptionalInt.empty(), SearchQueryComparison.compare("", "5"));
+		assertFalse(SearchQueryComparison.isAtLeast("abc", "abc"));
+	}
+}
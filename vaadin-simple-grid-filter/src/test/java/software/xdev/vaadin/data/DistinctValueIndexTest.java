@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+
+class DistinctValueIndexTest
+{
+	@Test
+	void suggestsValuesWithThePrefixByFrequency()
+	{
+		final DistinctValueIndex index = DistinctValueIndex.build(
+			List.of("berlin", "bern", "bonn", "bern", "berlin", "bern", "munich"),
+			Function.identity());
+		
+		assertEquals(4, index.size());
+		assertEquals(List.of("bern", "berlin"), index.suggest("ber", 10));
+		assertEquals(List.of("bern", "berlin", "bonn", "munich"), index.suggest("", 10));
+		assertEquals(List.of(), index.suggest("x", 10));
+	}
+	
+	@Test
+	void prefixAndValuesAreComparedCaseInsensitively()
+	{
+		final DistinctValueIndex index = DistinctValueIndex.build(
+			List.of("Berlin", "BERLIN", "berlin", "Bern"),
+			Function.identity());
+		
+		assertEquals(2, index.size());
+		// The spelling which was found first is shown
+		assertEquals(List.of("Berlin", "Bern"), index.suggest("bEr", 10));
+	}
+	
+	@Test
+	void nullValuesAreIgnored()
+	{
+		final List<String> rows = new ArrayList<>();
+		rows.add(null);
+		rows.add("a");
+		
+		final DistinctValueIndex index = DistinctValueIndex.build(rows, Function.identity());
+		
+		assertEquals(1, index.size());
+		assertEquals(List.of("a"), index.suggest("", 10));
+	}
+	
+	@Test
+	void suggestionsAreLimited()
+	{
+		final DistinctValueIndex index = DistinctValueIndex.build(
+			List.of("a1", "a2", "a2", "a3", "a3", "a3"),
+			Function.identity());
+		
+		assertEquals(List.of("a3", "a2"), index.suggest("a", 2));
+		assertEquals(List.of(), index.suggest("a", 0));
+	}
+	
+	@Test
+	void equallyFrequentValuesAreSortedAlphabetically()
+	{
+		final DistinctValueIndex index = DistinctValueIndex.build(
+			List.of("c", "b", "d", "a", "d"),
+			Function.identity());
+		
+		assertEquals(List.of("d", "a", "b", "c"), index.suggest("", 10));
+	}
+	
+	@Test
+	void suggestionsEqualSortingAllValuesWithThePrefix()
+	{
+		final Random random = new Random(1);
+		final List<String> rows = new ArrayList<>();
+		for(int i = 0; i < 20_000; i++)
+		{
+			// Skewed, so that the counts differ
+			final int length = 1 + random.nextInt(4);
+			final StringBuilder sb = new StringBuilder();
+			for(int j = 0; j < length; j++)
+			{
+				sb.append((char)('a' + (int)Math.abs(random.nextGaussian() * 3) % 26));
+			}
+			rows.add(sb.toString());
+		}
+		final DistinctValueIndex index = DistinctValueIndex.build(rows, Function.identity());
+		
+		final Map<String, Integer> counts = new HashMap<>();
+		rows.forEach(row -> counts.merge(row, 1, Integer::sum));
+		for(final String prefix : List.of("", "a", "ab", "b", "ca", "z"))
+		{
+			for(final int limit : new int[]{1, 5, 50, 100_000})
+			{
+				final List<String> expected = counts.keySet().stream()
+					.filter(value -> value.startsWith(prefix))
+					.sorted(Comparator.<String>comparingInt(counts::get).reversed()
+						.thenComparing(value -> value.toLowerCase(Locale.ROOT)))
+					.limit(limit)
+					.toList();
+				assertEquals(expected, index.suggest(prefix, limit));
+			}
+		}
+		assertTrue(index.size() > 1_000);
+	}
+}
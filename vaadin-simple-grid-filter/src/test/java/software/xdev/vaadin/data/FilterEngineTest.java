@@ -0,0 +1,493 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import software.xdev.vaadin.comparators.ContainsComparator;
+import software.xdev.vaadin.comparators.GreaterThanComparator;
+import software.xdev.vaadin.model.FilterCondition;
+import software.xdev.vaadin.model.FilterField;
+
+
+class FilterEngineTest
+{
+	private static final String[] SYLLABLES = {"an", "na", "ber", "lo", "mi", "ta"};
+	
+	private static final Comparator<Row> BY_AGE = Comparator.comparingInt(row -> row.age);
+	private static final Comparator<Row> BY_NAME = Comparator.comparing(row -> row.name);
+	
+	private final AtomicInteger nameEvaluations = new AtomicInteger();
+	
+	private final FilterField<Row, String> nameField = new FilterField<>(
+		row ->
+		{
+			this.nameEvaluations.incrementAndGet();
+			return row.name;
+		},
+		"Name",
+		String.class,
+		List.of(ContainsComparator.getInstance()));
+	private final FilterField<Row, Integer> ageField = new FilterField<>(
+		row -> row.age,
+		"Age",
+		Integer.class,
+		List.of(GreaterThanComparator.getInstance()));
+	
+	@Test
+	void narrowingOnlyEvaluatesThePreviousMatches()
+	{
+		final List<Row> rows = createRows(new Random(1), 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		engine.setConditions(List.of(this.nameContains("a")));
+		final MatchSet previous = engine.getMatchSet();
+		
+		this.nameEvaluations.set(0);
+		engine.setConditions(List.of(this.nameContains("an")));
+		
+		assertEquals(previous.size(), this.nameEvaluations.get());
+		assertEquals(FilterEngine.evaluate(rows, engine.getConditions(), null), engine.getMatchSet());
+	}
+	
+	@Test
+	void addingAConditionNarrows()
+	{
+		final List<Row> rows = createRows(new Random(2), 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		engine.setConditions(List.of(this.nameContains("a")));
+		final MatchSet previous = engine.getMatchSet();
+		
+		this.nameEvaluations.set(0);
+		engine.setConditions(List.of(this.nameContains("a"), this.ageGreaterThan("30")));
+		
+		assertEquals(previous.size(), this.nameEvaluations.get());
+		assertEquals(FilterEngine.evaluate(rows, engine.getConditions(), null), engine.getMatchSet());
+	}
+	
+	@Test
+	void wideningOnlyEvaluatesThePreviousNonMatches()
+	{
+		final List<Row> rows = createRows(new Random(3), 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		engine.setConditions(List.of(this.nameContains("anna")));
+		final MatchSet previous = engine.getMatchSet();
+		
+		this.nameEvaluations.set(0);
+		engine.setConditions(List.of(this.nameContains("an")));
+		
+		assertEquals(rows.size() - previous.size(), this.nameEvaluations.get());
+		assertEquals(FilterEngine.evaluate(rows, engine.getConditions(), null), engine.getMatchSet());
+	}
+	
+	@Test
+	void unchangedMatchesAreReported()
+	{
+		final List<Row> rows = List.of(new Row("anna", 20), new Row("bert", 40));
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		engine.setConditions(List.of(this.nameContains("a")));
+		engine.getMatchSet();
+		
+		// Only "anna" contains "a" - extending the query to "an" doesn't change the matches
+		assertFalse(engine.setConditions(List.of(this.nameContains("an"))));
+	}
+	
+	@Test
+	void narrowedAndWidenedMatchSetsEqualAFullEvaluation()
+	{
+		final Random random = new Random(4);
+		final List<Row> rows = createRows(random, 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		
+		for(int i = 0; i < 300; i++)
+		{
+			final List<FilterCondition<Row, ?>> conditions = new ArrayList<>();
+			if(random.nextInt(4) != 0)
+			{
+				conditions.add(this.nameContains(randomQuery(random)));
+			}
+			if(random.nextInt(3) == 0)
+			{
+				conditions.add(this.ageGreaterThan(String.valueOf(random.nextInt(100))));
+			}
+			
+			engine.setConditions(conditions);
+			
+			assertEquals(FilterEngine.evaluate(rows, conditions, null), engine.getMatchSet());
+		}
+	}
+	
+	@Test
+	void onlyTheAppendedRowsAreEvaluated()
+	{
+		final Random random = new Random(5);
+		final List<Row> rows = createRows(random, 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		engine.setConditions(List.of(this.nameContains("an")));
+		engine.getSortedMatches(BY_AGE);
+		
+		rows.addAll(createRows(random, 100));
+		this.nameEvaluations.set(0);
+		engine.rowsAppended();
+		
+		assertEquals(100, this.nameEvaluations.get());
+		assertEquals(FilterEngine.evaluate(rows, engine.getConditions(), null), engine.getMatchSet());
+		assertArrayEquals(sorted(rows, engine.getConditions(), BY_AGE), engine.getSortedMatches(BY_AGE));
+	}
+	
+	@Test
+	void materializedMatchSetsAreKeptOnAppend()
+	{
+		final Random random = new Random(6);
+		final List<Row> rows = createRows(random, 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		final List<FilterCondition<Row, ?>> preset = List.of(this.nameContains("ber"), this.ageGreaterThan("50"));
+		assertTrue(engine.putMaterialized(preset, FilterEngine.evaluate(rows, preset, null), engine.getRevision()));
+		
+		rows.addAll(createRows(random, 100));
+		engine.rowsAppended();
+		
+		assertTrue(engine.isMaterialized(FilterKey.of(preset)));
+		final MatchSet expected = FilterEngine.evaluate(rows, preset, null);
+		this.nameEvaluations.set(0);
+		assertEquals(expected, engine.getMatchSetOf(preset));
+		assertEquals(0, this.nameEvaluations.get());
+	}
+	
+	@Test
+	void appendedMatchSetsAndSortedMatchesEqualAFullEvaluation()
+	{
+		final Random random = new Random(7);
+		final List<Row> rows = createRows(random, 500);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		List<FilterCondition<Row, ?>> conditions = List.of(this.nameContains("a"));
+		engine.setConditions(conditions);
+		
+		for(int i = 0; i < 300; i++)
+		{
+			rows.addAll(createRows(random, random.nextInt(20)));
+			engine.rowsAppended();
+			
+			if(random.nextInt(20) == 0)
+			{
+				conditions = List.of(this.nameContains(randomQuery(random)));
+				engine.setConditions(conditions);
+			}
+			
+			assertEquals(FilterEngine.evaluate(rows, conditions, null), engine.getMatchSet());
+			// Sorted accesses in between merge the appended rows lazily
+			final Comparator<Row> comparator = random.nextBoolean() ? BY_AGE : BY_NAME;
+			final int[] expected = sorted(rows, conditions, comparator);
+			if(random.nextBoolean())
+			{
+				assertArrayEquals(expected, engine.getSortedMatches(comparator));
+			}
+			else
+			{
+				final int count = Math.min(20, expected.length);
+				assertArrayEquals(
+					Arrays.copyOf(expected, count),
+					Arrays.copyOf(engine.getSortedMatches(comparator, count), count));
+			}
+		}
+	}
+	
+	@Test
+	void onlyTheUpdatedRowIsEvaluated()
+	{
+		final List<Row> rows = createRows(new Random(8), 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		engine.setConditions(List.of(this.nameContains("an")));
+		engine.getSortedMatches(BY_AGE);
+		
+		rows.get(42).name = "anna";
+		this.nameEvaluations.set(0);
+		engine.rowUpdated(42);
+		
+		assertEquals(1, this.nameEvaluations.get());
+		assertTrue(engine.getMatchSet().contains(42));
+		assertArrayEquals(sorted(rows, engine.getConditions(), BY_AGE), engine.getSortedMatches(BY_AGE));
+	}
+	
+	@Test
+	void onlyVisibleChangesOfAnUpdatedRowAreReported()
+	{
+		final List<Row> rows = new ArrayList<>(List.of(new Row("anna", 20), new Row("bert", 40), new Row("lo", 60)));
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		engine.setConditions(List.of(this.ageGreaterThan("30")));
+		engine.getSortedMatches(BY_AGE);
+		
+		rows.get(1).name = "berta";
+		assertFalse(engine.rowUpdated(1));
+		
+		rows.get(1).age = 50;
+		assertFalse(engine.rowUpdated(1));
+		
+		rows.get(1).age = 70;
+		assertTrue(engine.rowUpdated(1));
+		assertArrayEquals(new int[]{2, 1}, engine.getSortedMatches(BY_AGE));
+		
+		rows.get(1).age = 10;
+		assertTrue(engine.rowUpdated(1));
+		assertArrayEquals(new int[]{2}, engine.getSortedMatches(BY_AGE));
+	}
+	
+	@Test
+	void updatedMatchSetsAndSortedMatchesEqualAFullEvaluation()
+	{
+		final Random random = new Random(9);
+		final List<Row> rows = createRows(random, 1_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		final List<FilterCondition<Row, ?>> conditions = List.of(this.ageGreaterThan("30"));
+		engine.setConditions(conditions);
+		engine.getSortedMatches(BY_NAME);
+		engine.getSortedMatches(BY_AGE);
+		
+		for(int i = 0; i < 1_000; i++)
+		{
+			final int[] before = engine.getSortedMatches(BY_AGE).clone();
+			
+			final int ordinal = random.nextInt(rows.size());
+			if(random.nextBoolean())
+			{
+				rows.get(ordinal).age = random.nextInt(100);
+			}
+			else
+			{
+				rows.get(ordinal).name = createRow(random).name;
+			}
+			final boolean changed = engine.rowUpdated(ordinal);
+			
+			final int[] expected = sorted(rows, conditions, BY_AGE);
+			assertEquals(FilterEngine.evaluate(rows, conditions, null), engine.getMatchSet());
+			assertArrayEquals(expected, engine.getSortedMatches(BY_AGE));
+			assertEquals(!Arrays.equals(before, expected), changed);
+			if(i % 100 == 0)
+			{
+				assertArrayEquals(sorted(rows, conditions, BY_NAME), engine.getSortedMatches(BY_NAME));
+			}
+		}
+	}
+	
+	@Test
+	void removedMatchSetsAndSortedMatchesEqualAFullEvaluation()
+	{
+		final Random random = new Random(10);
+		final List<Row> rows = createRows(random, 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		final List<FilterCondition<Row, ?>> conditions = List.of(this.nameContains("a"));
+		engine.setConditions(conditions);
+		engine.getSortedMatches(BY_NAME);
+		engine.getSortedMatches(BY_AGE);
+		
+		while(rows.size() > 100)
+		{
+			final int[] removed = random.ints(1 + random.nextInt(30), 0, rows.size()).distinct().sorted().toArray();
+			for(int i = removed.length - 1; i >= 0; i--)
+			{
+				rows.remove(removed[i]);
+			}
+			this.nameEvaluations.set(0);
+			engine.rowsRemoved(removed);
+			final MatchSet matchSet = engine.getMatchSet();
+			final int[] sortedByAge = engine.getSortedMatches(BY_AGE);
+			final int[] sortedByName = engine.getSortedMatches(BY_NAME);
+			
+			assertEquals(0, this.nameEvaluations.get());
+			assertEquals(FilterEngine.evaluate(rows, conditions, null), matchSet);
+			assertArrayEquals(sorted(rows, conditions, BY_AGE), sortedByAge);
+			assertArrayEquals(sorted(rows, conditions, BY_NAME), sortedByName);
+		}
+	}
+	
+	@Test
+	void cachedAndMaterializedMatchSetsArePatchedOnUpdate()
+	{
+		final Random random = new Random(11);
+		final List<Row> rows = createRows(random, 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		final List<FilterCondition<Row, ?>> previous = List.of(this.nameContains("lo"));
+		final List<FilterCondition<Row, ?>> preset = List.of(this.nameContains("ber"), this.ageGreaterThan("50"));
+		assertTrue(engine.putMaterialized(preset, FilterEngine.evaluate(rows, preset, null), engine.getRevision()));
+		engine.setConditions(previous);
+		engine.getMatchSet();
+		engine.setConditions(List.of(this.ageGreaterThan("30")));
+		engine.getMatchSet();
+		
+		for(int i = 0; i < 200; i++)
+		{
+			final int ordinal = random.nextInt(rows.size());
+			rows.set(ordinal, createRow(random));
+			engine.rowUpdated(ordinal);
+		}
+		
+		assertTrue(engine.isMaterialized(FilterKey.of(preset)));
+		final MatchSet expectedPreset = FilterEngine.evaluate(rows, preset, null);
+		final MatchSet expectedPrevious = FilterEngine.evaluate(rows, previous, null);
+		this.nameEvaluations.set(0);
+		assertEquals(expectedPreset, engine.getMatchSetOf(preset));
+		assertEquals(expectedPrevious, engine.getMatchSetOf(previous));
+		assertEquals(0, this.nameEvaluations.get());
+	}
+	
+	@Test
+	void cachedAndMaterializedMatchSetsArePatchedOnRemove()
+	{
+		final Random random = new Random(12);
+		final List<Row> rows = createRows(random, 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		final List<FilterCondition<Row, ?>> previous = List.of(this.nameContains("lo"));
+		final List<FilterCondition<Row, ?>> preset = List.of(this.nameContains("ber"), this.ageGreaterThan("50"));
+		assertTrue(engine.putMaterialized(preset, FilterEngine.evaluate(rows, preset, null), engine.getRevision()));
+		engine.setConditions(previous);
+		engine.getMatchSet();
+		engine.setConditions(List.of(this.ageGreaterThan("30")));
+		engine.getMatchSet();
+		
+		final int[] removed = random.ints(50, 0, rows.size()).distinct().sorted().toArray();
+		for(int i = removed.length - 1; i >= 0; i--)
+		{
+			rows.remove(removed[i]);
+		}
+		this.nameEvaluations.set(0);
+		engine.rowsRemoved(removed);
+		final MatchSet presetMatches = engine.getMatchSetOf(preset);
+		final MatchSet previousMatches = engine.getMatchSetOf(previous);
+		
+		assertEquals(0, this.nameEvaluations.get());
+		assertTrue(engine.isMaterialized(FilterKey.of(preset)));
+		assertEquals(FilterEngine.evaluate(rows, preset, null), presetMatches);
+		assertEquals(FilterEngine.evaluate(rows, previous, null), previousMatches);
+	}
+	
+	@Test
+	void facetCountsArePatchedOnUpdateAndRemove()
+	{
+		final Random random = new Random(13);
+		final List<Row> rows = createRows(random, 2_000);
+		final FilterEngine<Row> engine = new FilterEngine<>(() -> rows);
+		engine.setConditions(List.of(this.nameContains("an"), this.ageGreaterThan("40")));
+		
+		for(int i = 0; i < 200; i++)
+		{
+			engine.getFacetCounts(this.nameField);
+			if(random.nextInt(10) == 0)
+			{
+				final int[] removed = random.ints(1 + random.nextInt(5), 0, rows.size()).distinct().sorted().toArray();
+				for(int j = removed.length - 1; j >= 0; j--)
+				{
+					rows.remove(removed[j]);
+				}
+				engine.rowsRemoved(removed);
+			}
+			else
+			{
+				final int ordinal = random.nextInt(rows.size());
+				rows.set(ordinal, createRow(random));
+				engine.rowUpdated(ordinal);
+			}
+			
+			final FilterEngine<Row> recomputed = new FilterEngine<>(() -> rows);
+			recomputed.setConditions(engine.getConditions());
+			assertEquals(recomputed.getFacetCounts(this.nameField), engine.getFacetCounts(this.nameField));
+		}
+	}
+	
+	private FilterCondition<Row, String> nameContains(final String searchQuery)
+	{
+		return new FilterCondition<>(this.nameField, ContainsComparator.getInstance(), searchQuery);
+	}
+	
+	private FilterCondition<Row, Integer> ageGreaterThan(final String searchQuery)
+	{
+		return new FilterCondition<>(this.ageField, GreaterThanComparator.getInstance(), searchQuery);
+	}
+	
+	/**
+	 * @return The ordinals of the matching rows sorted by the comparator, rows which are equal by their ordinals.
+	 */
+	private static int[] sorted(
+		final List<Row> rows,
+		final List<? extends FilterCondition<Row, ?>> conditions,
+		final Comparator<Row> comparator)
+	{
+		final Predicate<Row> predicate = FilterEngine.compile(conditions);
+		return IntStream.range(0, rows.size())
+			.filter(ordinal -> predicate.test(rows.get(ordinal)))
+			.boxed()
+			.sorted(Comparator.comparing(rows::get, comparator))
+			.mapToInt(Integer::intValue)
+			.toArray();
+	}
+	
+	private static String randomQuery(final Random random)
+	{
+		final StringBuilder sb = new StringBuilder();
+		final int length = random.nextInt(4);
+		for(int i = 0; i < length; i++)
+		{
+			sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)], 0, 1 + random.nextInt(2));
+		}
+		return sb.toString();
+	}
+	
+	private static List<Row> createRows(final Random random, final int count)
+	{
+		final List<Row> rows = new ArrayList<>(count);
+		for(int i = 0; i < count; i++)
+		{
+			rows.add(createRow(random));
+		}
+		return rows;
+	}
+	
+	private static Row createRow(final Random random)
+	{
+		final StringBuilder name = new StringBuilder();
+		final int length = 1 + random.nextInt(3);
+		for(int i = 0; i < length; i++)
+		{
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		return new Row(name.toString(), random.nextInt(100));
+	}
+	
+	
+	static final class Row
+	{
+		String name;
+		int age;
+		
+		Row(final String name, final int age)
+		{
+			this.name = name;
+			this.age = age;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+class MatchSetTest
+{
+	@Test
+	void selectAndRank()
+	{
+		final MatchSet matches = MatchSet.of(new int[]{2, 5, 7, 11}, 4, 12);
+		
+		assertEquals(4, matches.size());
+		assertEquals(2, matches.select(0));
+		assertEquals(11, matches.select(3));
+		assertEquals(2, matches.rank(7));
+		assertEquals(-1, matches.rank(6));
+		assertTrue(matches.contains(5));
+		assertFalse(matches.contains(6));
+		assertFalse(matches.contains(12));
+		assertThrows(IndexOutOfBoundsException.class, () -> matches.select(4));
+	}
+	
+	@Test
+	void selectAndRankOfAll()
+	{
+		final MatchSet matches = MatchSet.all(5);
+		
+		assertTrue(matches.isAll());
+		assertEquals(3, matches.select(3));
+		assertEquals(3, matches.rank(3));
+		assertEquals(-1, matches.rank(5));
+		assertArrayEquals(new int[]{0, 1, 2, 3, 4}, matches.toArray());
+	}
+	
+	@Test
+	void onlyUsedEntriesOfTheArrayAreMatching()
+	{
+		final MatchSet matches = MatchSet.of(new int[]{1, 3, 0, 0}, 2, 5);
+		
+		assertArrayEquals(new int[]{1, 3}, matches.toArray());
+		assertFalse(matches.contains(0));
+	}
+	
+	@Test
+	void allRowsMatchingIsAll()
+	{
+		assertTrue(MatchSet.of(new int[]{0, 1, 2}, 3, 3).isAll());
+		assertTrue(MatchSet.none(3).isEmpty());
+	}
+	
+	@Test
+	void withRowAndWithoutRow()
+	{
+		final MatchSet matches = MatchSet.of(new int[]{2, 5}, 2, 8);
+		
+		assertArrayEquals(new int[]{2, 4, 5}, matches.withRow(4).toArray());
+		assertArrayEquals(new int[]{5}, matches.withoutRow(2).toArray());
+		assertSame(matches, matches.withRow(5));
+		assertSame(matches, matches.withoutRow(4));
+		assertArrayEquals(new int[]{0, 1, 3}, MatchSet.all(4).withoutRow(2).toArray());
+		assertTrue(MatchSet.of(new int[]{0, 1, 3}, 3, 4).withRow(2).isAll());
+	}
+	
+	@Test
+	void withRowsRemoved()
+	{
+		final MatchSet matches = MatchSet.of(new int[]{1, 3, 4, 8}, 4, 10);
+		
+		final MatchSet remaining = matches.withRowsRemoved(new int[]{0, 3, 6});
+		
+		assertEquals(7, remaining.getRowCount());
+		// 1 -> 0, 3 removed, 4 -> 2, 8 -> 5
+		assertArrayEquals(new int[]{0, 2, 5}, remaining.toArray());
+		assertEquals(1, remaining.rank(2));
+	}
+	
+	@Test
+	void withRowsRemovedOfAll()
+	{
+		final MatchSet remaining = MatchSet.all(5).withRowsRemoved(new int[]{1, 2});
+		
+		assertTrue(remaining.isAll());
+		assertEquals(3, remaining.getRowCount());
+	}
+	
+	@Test
+	void builderCollectsOrdinals()
+	{
+		final MatchSet.Builder builder = new MatchSet.Builder(100, 1);
+		for(int i = 0; i < 100; i += 3)
+		{
+			builder.add(i);
+		}
+		
+		final MatchSet matches = builder.build();
+		
+		assertEquals(34, matches.size());
+		assertEquals(99, matches.select(33));
+		assertEquals(matches, MatchSet.of(matches.toArray(), 34, 100));
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+
+class SharedMatchSetCacheTest
+{
+	private static final FilterKey KEY = FilterKey.of(List.of());
+	
+	@Test
+	void entriesAreIdentifiedByDatasetAndVersion()
+	{
+		final SharedMatchSetCache cache = new SharedMatchSetCache();
+		final MatchSet matchSet = MatchSet.none(10);
+		
+		cache.put("persons", 1, KEY, matchSet);
+		
+		assertSame(matchSet, cache.get("persons", 1, KEY));
+		assertNull(cache.get("persons", 2, KEY));
+		assertNull(cache.get("orders", 1, KEY));
+	}
+	
+	@Test
+	void invalidateRemovesOnlyTheDataset()
+	{
+		final SharedMatchSetCache cache = new SharedMatchSetCache();
+		cache.put("persons", 1, KEY, MatchSet.none(10));
+		cache.put("orders", 1, KEY, MatchSet.none(10));
+		
+		cache.invalidate("persons");
+		
+		assertNull(cache.get("persons", 1, KEY));
+		assertNotNull(cache.get("orders", 1, KEY));
+		assertEquals(1, cache.size());
+	}
+	
+	@Test
+	void matchSetLargerThanASegmentIsCached()
+	{
+		// 4 segments with 128 KiB each and 512 KiB for large match sets
+		final SharedMatchSetCache cache = new SharedMatchSetCache(1024 * 1024, 4);
+		final MatchSet large = MatchSet.of(IntStream.range(0, 60_000).map(i -> i * 2).toArray(), 60_000, 130_000);
+		assertTrue(large.estimateMemoryUsage() > 128 * 1024);
+		
+		cache.put("persons", 1, KEY, large);
+		
+		assertSame(large, cache.get("persons", 1, KEY));
+		assertTrue(cache.getMemory() <= 1024 * 1024);
+	}
+	
+	@Test
+	void frequentlyUsedEntriesSurviveOneTimeEntries()
+	{
+		final SharedMatchSetCache cache = new SharedMatchSetCache(20_000, 1);
+		for(int i = 0; i < 10; i++)
+		{
+			cache.put("hot" + i, 1, KEY, MatchSet.none(10));
+			for(int j = 0; j < 5; j++)
+			{
+				cache.get("hot" + i, 1, KEY);
+			}
+		}
+		
+		// Replaces the main area several times
+		for(int i = 0; i < 500; i++)
+		{
+			cache.put("cold" + i, 1, KEY, MatchSet.none(10));
+		}
+		
+		for(int i = 0; i < 10; i++)
+		{
+			assertNotNull(cache.get("hot" + i, 1, KEY));
+		}
+		assertTrue(cache.getMemory() <= 20_000);
+	}
+	
+	@Test
+	void rejectedCandidateDoesNotEvictAnything()
+	{
+		// Segment with a 100 byte window and a 9900 byte main area, entries of none(10) require 80 bytes
+		final SharedMatchSetCache cache = new SharedMatchSetCache(20_000, 1);
+		// Requested before it's added - the second eldest entry of the main area is used frequently
+		for(int i = 0; i < 5; i++)
+		{
+			cache.get("entry1", 1, KEY);
+		}
+		for(int i = 0; i < 123; i++)
+		{
+			cache.put("entry" + i, 1, KEY, MatchSet.none(10));
+		}
+		
+		// Requires evicting the two eldest entries, but is used less frequently than the second one
+		for(int i = 0; i < 3; i++)
+		{
+			cache.get("candidate", 1, KEY);
+		}
+		cache.put("candidate", 1, KEY, MatchSet.of(IntStream.range(0, 100).toArray(), 100, 1000));
+		
+		assertNull(cache.get("candidate", 1, KEY));
+		assertNotNull(cache.get("entry0", 1, KEY));
+		assertNotNull(cache.get("entry1", 1, KEY));
+	}
+	
+	@Test
+	void candidateIsAdmittedWhenAllVictimsAreUsedLessFrequently()
+	{
+		final SharedMatchSetCache cache = new SharedMatchSetCache(20_000, 1);
+		for(int i = 0; i < 123; i++)
+		{
+			cache.put("entry" + i, 1, KEY, MatchSet.none(10));
+		}
+		
+		for(int i = 0; i < 3; i++)
+		{
+			cache.get("candidate", 1, KEY);
+		}
+		cache.put("candidate", 1, KEY, MatchSet.of(IntStream.range(0, 100).toArray(), 100, 1000));
+		
+		assertNotNull(cache.get("candidate", 1, KEY));
+		assertNull(cache.get("entry0", 1, KEY));
+		assertTrue(cache.getMemory() <= 20_000);
+	}
+	
+	@Test
+	void computeIfAbsentUsesTheCachedMatchSet()
+	{
+		final SharedMatchSetCache cache = new SharedMatchSetCache();
+		final MatchSet matchSet = MatchSet.none(10);
+		cache.put("persons", 1, KEY, matchSet);
+		
+		assertSame(matchSet, cache.computeIfAbsent("persons", 1, KEY, () ->
+		{
+			throw new AssertionError("Must not be computed");
+		}));
+	}
+	
+	@Test
+	void concurrentComputationsAreOnlyExecutedOnce() throws Exception
+	{
+		final SharedMatchSetCache cache = new SharedMatchSetCache();
+		final AtomicInteger computations = new AtomicInteger();
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		
+		final CompletableFuture<MatchSet> first = CompletableFuture.supplyAsync(() ->
+			cache.computeIfAbsent("persons", 1, KEY, () ->
+			{
+				computations.incrementAndGet();
+				started.countDown();
+				try
+				{
+					release.await();
+				}
+				catch(final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				return MatchSet.none(10);
+			}));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		
+		final CompletableFuture<MatchSet> second = CompletableFuture.supplyAsync(() ->
+			cache.computeIfAbsent("persons", 1, KEY, () ->
+			{
+				computations.incrementAndGet();
+				return MatchSet.none(10);
+			}));
+		release.countDown();
+		
+		assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+		assertEquals(1, computations.get());
+	}
+	
+	@Test
+	void failedComputationIsNotCached()
+	{
+		final SharedMatchSetCache cache = new SharedMatchSetCache();
+		
+		assertThrows(IllegalStateException.class, () -> cache.computeIfAbsent("persons", 1, KEY, () ->
+		{
+			throw new IllegalStateException();
+		}));
+		
+		final MatchSet matchSet = MatchSet.none(10);
+		assertSame(matchSet, cache.computeIfAbsent("persons", 1, KEY, () -> matchSet));
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.preset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.xdev.vaadin.model.FilterState;
+import software.xdev.vaadin.qp.QueryCondition;
+
+
+class FileFilterPresetStoreTest
+{
+	private static final FilterPreset ADULTS = new FilterPreset(
+		"Adults",
+		new FilterState(List.of(new QueryCondition("age", "gt", "17", null, true, true))),
+		false);
+	private static final FilterPreset SMITHS = new FilterPreset(
+		"Smiths",
+		new FilterState(List.of(
+			new QueryCondition("name", "contains", "Smith", null, true, true),
+			new QueryCondition("age", "lt", "65", "initial", false, false))),
+		true);
+	
+	@TempDir
+	Path tempDir;
+	
+	@Test
+	void missingFileHasNoPresets()
+	{
+		final FileFilterPresetStore store = new FileFilterPresetStore(this.tempDir.resolve("presets.properties"));
+		
+		assertTrue(store.getAll().isEmpty());
+		assertEquals(Optional.empty(), store.get("Adults"));
+	}
+	
+	@Test
+	void savedPresetsAreReadByAnotherStore()
+	{
+		final Path file = this.tempDir.resolve("presets.properties");
+		final FileFilterPresetStore store = new FileFilterPresetStore(file);
+		store.save(SMITHS);
+		store.save(ADULTS);
+		
+		final FileFilterPresetStore other = new FileFilterPresetStore(file);
+		
+		assertEquals(List.of(ADULTS, SMITHS), other.getAll());
+		assertEquals(Optional.of(SMITHS), other.get("Smiths"));
+	}
+	
+	@Test
+	void savingReplacesThePresetWithTheSameName()
+	{
+		final FileFilterPresetStore store = new FileFilterPresetStore(this.tempDir.resolve("presets.properties"));
+		store.save(SMITHS);
+		
+		store.save(SMITHS.withMaterialized(false));
+		
+		assertEquals(List.of(SMITHS.withMaterialized(false)), store.getAll());
+	}
+	
+	@Test
+	void delete()
+	{
+		final Path file = this.tempDir.resolve("presets.properties");
+		final FileFilterPresetStore store = new FileFilterPresetStore(file);
+		store.save(ADULTS);
+		store.save(SMITHS);
+		
+		assertTrue(store.delete("Adults"));
+		assertFalse(store.delete("Adults"));
+		
+		assertEquals(List.of(SMITHS), new FileFilterPresetStore(file).getAll());
+	}
+	
+	@Test
+	void modifiedFileIsReadAgain() throws IOException
+	{
+		final Path file = this.tempDir.resolve("presets.properties");
+		final FileFilterPresetStore store = new FileFilterPresetStore(file);
+		store.save(ADULTS);
+		assertEquals(List.of(ADULTS), store.getAll());
+		
+		new FileFilterPresetStore(file).save(SMITHS);
+		// The modification time may not change within the resolution of the file system
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+		
+		assertEquals(List.of(ADULTS, SMITHS), store.getAll());
+	}
+	
+	@Test
+	void malformedPresetIsIgnored() throws IOException
+	{
+		final Path file = this.tempDir.resolve("presets.properties");
+		Files.writeString(file, "state.Broken=not-a-state\nstate.Adults=" + ADULTS.state().encode() + "\n");
+		
+		assertEquals(List.of(ADULTS), new FileFilterPresetStore(file).getAll());
+	}
+	
+	@Test
+	void parentDirectoriesAreCreatedAndNoTemporaryFilesRemain() throws IOException
+	{
+		final Path file = this.tempDir.resolve("a").resolve("b").resolve("presets.properties");
+		final FileFilterPresetStore store = new FileFilterPresetStore(file);
+		
+		store.save(ADULTS);
+		store.save(SMITHS);
+		
+		try(final Stream<Path> files = Files.list(file.getParent()))
+		{
+			assertEquals(List.of(file), files.toList());
+		}
+	}
+}
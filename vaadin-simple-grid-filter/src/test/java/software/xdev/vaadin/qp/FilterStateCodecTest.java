@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.qp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+
+class FilterStateCodecTest
+{
+	@Test
+	void roundTripOfAllOperandTypes()
+	{
+		final List<QueryCondition> conditions = List.of(
+			new QueryCondition("name", "contains", "Müller & Söhne", null, true, true),
+			new QueryCondition("age", "gt", "-42", null, true, false),
+			new QueryCondition("age", "lt", "9223372036854775807", null, false, true),
+			new QueryCondition("birthday", "after", "2024-02-29", "initial", false, false),
+			new QueryCondition("birthday", "between", "2024-01-01#2024-12-31", null, true, true),
+			new QueryCondition("active", "eq", "true", null, true, true),
+			new QueryCondition("active", "eq", "false", null, true, true),
+			new QueryCondition("name", "eq", "", null, true, true));
+		
+		assertEquals(conditions, FilterStateCodec.decode(FilterStateCodec.encode(conditions)));
+	}
+	
+	@Test
+	void nonCanonicalValuesAreKeptAsStrings()
+	{
+		final List<QueryCondition> conditions = List.of(
+			new QueryCondition("age", "gt", "007", null, true, true),
+			new QueryCondition("age", "gt", "+1", null, true, true),
+			new QueryCondition("age", "gt", "99999999999999999999", null, true, true),
+			new QueryCondition("birthday", "after", "2024-2-1", null, true, true),
+			new QueryCondition("active", "eq", "TRUE", null, true, true));
+		
+		assertEquals(conditions, FilterStateCodec.decode(FilterStateCodec.encode(conditions)));
+	}
+	
+	@Test
+	void emptyConditions()
+	{
+		assertTrue(FilterStateCodec.decode(FilterStateCodec.encode(List.of())).isEmpty());
+	}
+	
+	@Test
+	void encodedValueIsUrlSafe()
+	{
+		final String encoded = FilterStateCodec.encode(List.of(
+			new QueryCondition("name", "contains", "?a=b&c=d/e+f", null, true, true)));
+		
+		assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+	}
+	
+	@Test
+	void unknownVersionIsRejected()
+	{
+		final String encoded = encode(2, 0);
+		
+		assertThrows(IllegalArgumentException.class, () -> FilterStateCodec.decode(encoded));
+	}
+	
+	@Test
+	void hugeNumberOfConditionsIsRejectedBeforeAllocating()
+	{
+		// Version 1 followed by Integer.MAX_VALUE as variable length number
+		final String encoded = encode(FilterStateCodec.VERSION_1, 0xFF, 0xFF, 0xFF, 0xFF, 0x07);
+		
+		assertThrows(IllegalArgumentException.class, () -> FilterStateCodec.decode(encoded));
+	}
+	
+	@Test
+	void truncatedValueIsRejected()
+	{
+		final String encoded = FilterStateCodec.encode(List.of(
+			new QueryCondition("name", "contains", "value", null, true, true)));
+		final byte[] bytes = Base64.getUrlDecoder().decode(encoded);
+		final String truncated = Base64.getUrlEncoder().withoutPadding()
+			.encodeToString(Arrays.copyOf(bytes, bytes.length - 2));
+		
+		assertThrows(IllegalArgumentException.class, () -> FilterStateCodec.decode(truncated));
+	}
+	
+	@Test
+	void trailingDataIsRejected()
+	{
+		final String encoded = encode(FilterStateCodec.VERSION_1, 0, 0);
+		
+		assertThrows(IllegalArgumentException.class, () -> FilterStateCodec.decode(encoded));
+	}
+	
+	@Test
+	void invalidBase64IsRejected()
+	{
+		assertThrows(IllegalArgumentException.class, () -> FilterStateCodec.decode("not*base64"));
+	}
+	
+	private static String encode(final int... bytes)
+	{
+		final byte[] data = new byte[bytes.length];
+		for(int i = 0; i < bytes.length; i++)
+		{
+			data[i] = (byte)bytes[i];
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+	}
+}